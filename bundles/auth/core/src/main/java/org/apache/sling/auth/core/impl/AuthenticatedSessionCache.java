@@ -0,0 +1,369 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.auth.core.impl;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+import javax.servlet.ServletRequest;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.auth.core.spi.AuthenticationInfo;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>AuthenticatedSessionCache</code> keeps a session per validated
+ * set of credentials. The cached session is used as a template: each
+ * request is served by an impersonation of the template, which avoids a
+ * full repository login including password hashing.
+ * <p>
+ * Entries expire after the configured time to live, are removed when the
+ * user logs out and are all dropped when a user or group changes. The
+ * cache is registered as an event handler for resource events below the
+ * configured authorizable paths for the latter.
+ */
+class AuthenticatedSessionCache implements EventHandler {
+
+    /**
+     * The name of the authentication info property providing the session to
+     * use by the JCR resource provider (see
+     * <code>JcrResourceConstants.AUTHENTICATION_INFO_SESSION</code>).
+     */
+    static final String AUTH_INFO_SESSION = "user.jcr.session";
+
+    /**
+     * The name of the request attribute holding the session cache key of
+     * the credentials of the request. Attribute names are literals as the
+     * authenticator must not load this class unless the cache is enabled.
+     */
+    static final String ATTR_KEY = "org.apache.sling.auth.core.impl.AuthenticatedSessionCache.key";
+
+    /**
+     * The name of the request attribute holding the session acquired from
+     * the cache. This session is not logged out by the resource resolver
+     * and must be {@link #release(ServletRequest) released} when the request
+     * ends.
+     */
+    static final String ATTR_SESSION = "org.apache.sling.auth.core.impl.AuthenticatedSessionCache.session";
+
+    /**
+     * The name of the authentication info property selecting the workspace
+     * (see <code>JcrResourceConstants.AUTHENTICATION_INFO_WORKSPACE</code>).
+     */
+    private static final String AUTH_INFO_WORKSPACE = "user.jcr.workspace";
+
+    /** default log */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /** The time to live of an entry in ms. */
+    private final long ttl;
+
+    /** The max number of cached sessions. */
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    AuthenticatedSessionCache(final long ttl, final int maxSize) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns a resource resolver for the authentication info. If a session
+     * has been cached for the credentials, the resource resolver uses an
+     * impersonation of the cached session. Otherwise the session of a new
+     * resource resolver is cached.
+     */
+    ResourceResolver getResourceResolver(final ResourceResolverFactory factory,
+            final AuthenticationInfo authInfo, final ServletRequest request)
+    throws LoginException {
+        final String key = getKey(authInfo);
+        if (key == null) {
+            return factory.getResourceResolver(authInfo);
+        }
+        request.setAttribute(ATTR_KEY, key);
+
+        final Session session = acquire(key);
+        if (session != null) {
+            final Map<String, Object> info = new HashMap<String, Object>(authInfo);
+            info.put(AUTH_INFO_SESSION, session);
+            try {
+                final ResourceResolver resolver = factory.getResourceResolver(info);
+                request.setAttribute(ATTR_SESSION, session);
+                return resolver;
+            } catch (final LoginException le) {
+                session.logout();
+                invalidate(key);
+                log.debug("getResourceResolver: Cannot use cached session, logging in", le);
+            }
+        }
+
+        final ResourceResolver resolver = factory.getResourceResolver(authInfo);
+        put(key, resolver.adaptTo(Session.class));
+        return resolver;
+    }
+
+    /**
+     * Logs out the session acquired from the cache for the request.
+     */
+    static void release(final ServletRequest request) {
+        final Object session = request.getAttribute(ATTR_SESSION);
+        request.removeAttribute(ATTR_SESSION);
+        if (session instanceof Session) {
+            ((Session) session).logout();
+        }
+    }
+
+    /**
+     * Returns the key for the credentials of the authentication info or
+     * <code>null</code> if the credentials cannot be cached. Only user
+     * names, passwords and string properties are supported. The key is a
+     * digest of the credentials, so passwords are not kept in the cache.
+     */
+    String getKey(final AuthenticationInfo authInfo) {
+        final String user = authInfo.getUser();
+        if (user == null
+            || authInfo.containsKey(ResourceResolverFactory.USER_IMPERSONATION)
+            || authInfo.containsKey(AUTH_INFO_WORKSPACE)
+            || authInfo.containsKey(AUTH_INFO_SESSION)) {
+            return null;
+        }
+
+        // sort the properties to get a stable key
+        final Map<String, Object> props = new TreeMap<String, Object>(authInfo);
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (final Map.Entry<String, Object> prop : props.entrySet()) {
+                final Object value = prop.getValue();
+                final String string;
+                if (value instanceof String) {
+                    string = (String) value;
+                } else if (value instanceof char[]) {
+                    string = new String((char[]) value);
+                } else {
+                    log.debug("getKey: Not caching session for property {} of type {}",
+                        prop.getKey(), (value == null ? null : value.getClass().getName()));
+                    return null;
+                }
+                md.update(prop.getKey().getBytes("UTF-8"));
+                md.update((byte) 0);
+                md.update(string.getBytes("UTF-8"));
+                md.update((byte) 0);
+            }
+            return user + '/' + toHex(md.digest());
+        } catch (final NoSuchAlgorithmException nsae) {
+            log.warn("getKey: Cannot create key for session cache", nsae);
+        } catch (final UnsupportedEncodingException uee) {
+            log.warn("getKey: Cannot create key for session cache", uee);
+        }
+        return null;
+    }
+
+    /**
+     * Returns a new session for the cached credentials or <code>null</code>
+     * if no valid template is cached. The caller is responsible to logout
+     * the session.
+     */
+    Session acquire(final String key) {
+        final Entry entry = this.entries.get(key);
+        if (entry != null) {
+            if (entry.expires > System.currentTimeMillis()) {
+                try {
+                    final Session session = entry.impersonate();
+                    this.hits.incrementAndGet();
+                    return session;
+                } catch (final RepositoryException re) {
+                    log.debug("acquire: Cannot impersonate cached session for "
+                        + entry.userId, re);
+                }
+            }
+            this.remove(key, entry);
+        }
+        this.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a template for the session which has been created for the
+     * credentials of the key. The session itself is not kept.
+     */
+    void put(final String key, final Session session) {
+        if (session == null) {
+            return;
+        }
+        if (this.entries.size() >= this.maxSize) {
+            this.purge();
+            if (this.entries.size() >= this.maxSize) {
+                return;
+            }
+        }
+        try {
+            final Entry entry = new Entry(session.impersonate(new SimpleCredentials(
+                session.getUserID(), new char[0])), System.currentTimeMillis() + this.ttl);
+            final Entry old = this.entries.put(key, entry);
+            if (old != null) {
+                old.logout();
+            }
+        } catch (final RepositoryException re) {
+            log.debug("put: Cannot create template session for " + session.getUserID(), re);
+        }
+    }
+
+    /**
+     * Removes the cached session for the key.
+     */
+    void invalidate(final String key) {
+        final Entry entry = this.entries.get(key);
+        if (entry != null) {
+            this.remove(key, entry);
+        }
+    }
+
+    /**
+     * Removes all cached sessions of the user.
+     */
+    void invalidateUser(final String userId) {
+        for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            if (entry.getValue().userId.equals(userId)) {
+                this.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes all cached sessions.
+     */
+    void clear() {
+        for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            this.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * A user or group has changed: as group memberships might have changed
+     * the whole cache is dropped.
+     */
+    public void handleEvent(final Event event) {
+        log.debug("handleEvent: Dropping cached sessions due to change of {}",
+            event.getProperty("path"));
+        this.clear();
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    long getTimeToLive() {
+        return this.ttl;
+    }
+
+    int getMaxSize() {
+        return this.maxSize;
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+
+    long getMisses() {
+        return this.misses.get();
+    }
+
+    long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * Removes the expired entries.
+     */
+    private void purge() {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<String, Entry>> i = this.entries.entrySet().iterator();
+        while (i.hasNext()) {
+            final Map.Entry<String, Entry> entry = i.next();
+            if (entry.getValue().expires <= now) {
+                this.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void remove(final String key, final Entry entry) {
+        if (this.entries.remove(key, entry)) {
+            this.evictions.incrementAndGet();
+            entry.logout();
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final char[] hex = "0123456789abcdef".toCharArray();
+        final char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            result[2 * i] = hex[(bytes[i] >> 4) & 0x0f];
+            result[2 * i + 1] = hex[bytes[i] & 0x0f];
+        }
+        return new String(result);
+    }
+
+    private static final class Entry {
+
+        /** The template session, access is synchronized on the entry. */
+        private final Session template;
+
+        final String userId;
+
+        final long expires;
+
+        Entry(final Session template, final long expires) {
+            this.template = template;
+            this.userId = template.getUserID();
+            this.expires = expires;
+        }
+
+        synchronized Session impersonate() throws RepositoryException {
+            return this.template.impersonate(new SimpleCredentials(this.userId,
+                new char[0]));
+        }
+
+        synchronized void logout() {
+            this.template.logout();
+        }
+    }
+}
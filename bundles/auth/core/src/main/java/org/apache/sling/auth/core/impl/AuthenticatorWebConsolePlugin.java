@@ -73,6 +73,10 @@ public class AuthenticatorWebConsolePlugin extends HttpServlet {
 
         printAuthenticationConfiguration(pw);
 
+        pw.println("<tr><td colspan='2'>&nbsp;</td></tr>");
+
+        printSessionCache(pw);
+
         pw.println("</table>");
     }
 
@@ -142,4 +146,38 @@ public class AuthenticatorWebConsolePlugin extends HttpServlet {
         pw.printf("<td class='content' colspan='2'>%s</td>%n", (anonUser == null) ? "(default)" : anonUser);
         pw.println("</tr>");
     }
+
+    private void printSessionCache(PrintWriter pw) {
+        final AuthenticatedSessionCache cache = slingAuthenticator.getSessionCache();
+
+        pw.println("<tr>");
+        pw.println("<th class='content container' colspan='3'>Session Cache</td>");
+        pw.println("</tr>");
+        if (cache == null) {
+            pw.println("<tr>");
+            pw.println("<td class='content' colspan='3'>Disabled</td>");
+            pw.println("</tr>");
+            return;
+        }
+
+        final long hits = cache.getHits();
+        final long requests = hits + cache.getMisses();
+        pw.println("<tr>");
+        pw.println("<td class='content'>Time To Live</td>");
+        pw.printf("<td class='content' colspan='2'>%d seconds</td>%n", cache.getTimeToLive() / 1000);
+        pw.println("</tr>");
+        pw.println("<tr>");
+        pw.println("<td class='content'>Cached Sessions</td>");
+        pw.printf("<td class='content' colspan='2'>%d (max. %d)</td>%n", cache.size(), cache.getMaxSize());
+        pw.println("</tr>");
+        pw.println("<tr>");
+        pw.println("<td class='content'>Hits / Misses</td>");
+        pw.printf("<td class='content' colspan='2'>%d / %d (%d%% hit rate)</td>%n", hits,
+            cache.getMisses(), (requests == 0 ? 0 : hits * 100 / requests));
+        pw.println("</tr>");
+        pw.println("<tr>");
+        pw.println("<td class='content'>Evictions</td>");
+        pw.printf("<td class='content' colspan='2'>%d</td>%n", cache.getEvictions());
+        pw.println("</tr>");
+    }
 }
@@ -19,126 +19,356 @@
 package org.apache.sling.auth.core.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.TreeMap;
 
 import javax.servlet.http.HttpServletRequest;
 
+/**
+ * The <code>PathBasedHolderCache</code> manages the {@link PathBasedHolder}
+ * instances and finds the holders applicable to a request.
+ * <p>
+ * Registrations are kept in a simple list. For the lookups an immutable
+ * snapshot is built lazily after the registrations have changed: for each
+ * combination of scheme and host a character trie of the holder paths is
+ * built where each node ending a holder path carries the precomputed list
+ * of all holders applicable to paths starting with the node path. Thus
+ * looking up the holders for a request just walks the trie without any
+ * locking or allocation.
+ */
 public class PathBasedHolderCache<Type extends PathBasedHolder> {
 
-    private final Map<String, Map<String, List<Type>>> cache = new HashMap<String, Map<String, List<Type>>>();
+    /** The registered holders, access is synchronized on this instance. */
+    private final List<Type> holders = new ArrayList<Type>();
+
+    /**
+     * The current lookup structure or <code>null</code> if it must be
+     * rebuilt from the registered holders.
+     */
+    private volatile Snapshot<Type> snapshot;
 
-    /** Read/write lock to synchronize the cache access. */
-    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+    public synchronized void clear() {
+        this.holders.clear();
+        this.snapshot = null;
+    }
+
+    public synchronized void addHolder(final Type holder) {
+        this.holders.add(holder);
+        this.snapshot = null;
+    }
 
-    public void clear() {
-        this.rwLock.writeLock().lock();
-        try {
-            cache.clear();
-        } finally {
-            this.rwLock.writeLock().unlock();
+    public synchronized void removeHolder(final Type holder) {
+        if (this.holders.remove(holder)) {
+            this.snapshot = null;
         }
     }
 
-    public void addHolder(final Type holder) {
-        this.rwLock.writeLock().lock();
-        try {
+    /**
+     * Returns the holders applicable to the request and the given path.
+     * The holders are ordered by priority: holders registered for the
+     * scheme and host of the request come first, followed by holders
+     * for the scheme, the host and finally holders for any scheme and any
+     * host. Within each of these groups the holders are ordered according
+     * to their natural order, that is, longest path first.
+     *
+     * @param request The request providing scheme, host and port
+     * @param path The path to find the holders for
+     * @return The unmodifiable list of holders, which may be empty.
+     */
+    public List<Type> findApplicableHolders(final HttpServletRequest request,
+            final String path) {
+        return getSnapshot().find(request.getScheme(),
+            request.getServerName(), request.getServerPort(), path);
+    }
+
+    /**
+     * Returns the first holder of
+     * {@link #findApplicableHolders(HttpServletRequest, String)} or
+     * <code>null</code> if no holder is applicable.
+     */
+    public Type findApplicableHolder(final HttpServletRequest request,
+            final String path) {
+        final List<Type> result = findApplicableHolders(request, path);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    public synchronized List<Type> getHolders() {
+        final List<Type> result = new ArrayList<Type>(this.holders);
+        Collections.sort(result);
+        return result;
+    }
 
-            Map<String, List<Type>> byHostMap = cache.get(holder.protocol);
-            if (byHostMap == null) {
-                byHostMap = new HashMap<String, List<Type>>();
-                cache.put(holder.protocol, byHostMap);
+    private Snapshot<Type> getSnapshot() {
+        final Snapshot<Type> current = this.snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (this.snapshot == null) {
+                this.snapshot = new Snapshot<Type>(this.holders);
             }
+            return this.snapshot;
+        }
+    }
+
+    /**
+     * The immutable lookup structure: the path tries by scheme and host.
+     */
+    private static final class Snapshot<Type extends PathBasedHolder> {
 
-            final List<Type> byPathList = new ArrayList<Type>();
+        /** The host tries by scheme; the empty scheme is used as fallback. */
+        private final Map<String, HostEntry<Type>[]> byScheme = new HashMap<String, HostEntry<Type>[]>();
 
-            // preset with current list
-            final List<Type> currentPathList = byHostMap.get(holder.host);
-            if (currentPathList != null) {
-                byPathList.addAll(currentPathList);
+        Snapshot(final List<Type> holders) {
+            // group the holders by scheme and host
+            final Map<String, Map<String, List<Type>>> groups = new HashMap<String, Map<String, List<Type>>>();
+            for (final Type holder : holders) {
+                Map<String, List<Type>> byHost = groups.get(holder.protocol);
+                if (byHost == null) {
+                    byHost = new HashMap<String, List<Type>>();
+                    groups.put(holder.protocol, byHost);
+                }
+                List<Type> list = byHost.get(holder.host);
+                if (list == null) {
+                    list = new ArrayList<Type>();
+                    byHost.put(holder.host, list);
+                }
+                list.add(holder);
+            }
+            if (!groups.containsKey("")) {
+                groups.put("", new HashMap<String, List<Type>>());
             }
 
-            // add the new holder
-            byPathList.add(holder);
+            // all configured hosts apply to all schemes
+            final List<String> hosts = new ArrayList<String>();
+            for (final Map<String, List<Type>> byHost : groups.values()) {
+                for (final String host : byHost.keySet()) {
+                    if (host.length() > 0 && !hosts.contains(host)) {
+                        hosts.add(host);
+                    }
+                }
+            }
+            hosts.add("");
 
-            // sort the list according to the path length (longest path first)
-            Collections.sort(byPathList);
+            final Map<String, List<Type>> anyScheme = groups.get("");
+            for (final Map.Entry<String, Map<String, List<Type>>> scheme : groups.entrySet()) {
+                final Map<String, List<Type>> byHost = scheme.getValue();
+                final boolean isAnyScheme = scheme.getKey().length() == 0;
+                final List<HostEntry<Type>> entries = new ArrayList<HostEntry<Type>>();
+                for (final String host : hosts) {
+                    // skip the fallback groups which are the same group
+                    final boolean isAnyHost = host.length() == 0;
+                    @SuppressWarnings("unchecked")
+                    final List<Type>[] priorities = new List[] {
+                        byHost.get(host),
+                        isAnyHost ? null : byHost.get(""),
+                        isAnyScheme ? null : anyScheme.get(host),
+                        isAnyScheme || isAnyHost ? null : anyScheme.get("") };
+                    entries.add(new HostEntry<Type>(host, new TrieBuilder<Type>(priorities).build()));
+                }
+                @SuppressWarnings("unchecked")
+                final HostEntry<Type>[] array = entries.toArray(new HostEntry[entries.size()]);
+                this.byScheme.put(scheme.getKey(), array);
+            }
+        }
 
-            // replace old list with new list
-            byHostMap.put(holder.host, byPathList);
-        } finally {
-            this.rwLock.writeLock().unlock();
+        List<Type> find(final String scheme, final String serverName,
+                final int serverPort, final String path) {
+            HostEntry<Type>[] entries = this.byScheme.get(scheme);
+            if (entries == null) {
+                entries = this.byScheme.get("");
+            }
+
+            // the last entry is the one for any host
+            final boolean defaultPort = serverPort == 80 || serverPort == 443;
+            HostEntry<Type> entry = entries[entries.length - 1];
+            for (int i = 0; i < entries.length - 1; i++) {
+                if (entries[i].matches(serverName, serverPort, defaultPort)) {
+                    entry = entries[i];
+                    break;
+                }
+            }
+            return entry.root.find(path);
         }
     }
 
-    public void removeHolder(final Type holder) {
-        this.rwLock.writeLock().lock();
-        try {
-            final Map<String, List<Type>> byHostMap = cache.get(holder.protocol);
-            if (byHostMap != null) {
-                final List<Type> byPathList = byHostMap.get(holder.host);
-                if (byPathList != null) {
-
-                    // create a new list without the removed holder
-                    final List<Type> list = new ArrayList<Type>();
-                    list.addAll(byPathList);
-                    list.remove(holder);
-
-                    // replace the old list with the new one (or remove if empty)
-                    if (list.isEmpty()) {
-                        byHostMap.remove(holder.host);
-                    } else {
-                        byHostMap.put(holder.host, list);
-                    }
+    /**
+     * The path trie of a host. The host is matched as
+     * <code>name[:port]</code> where the port is only part of the host name
+     * of the request if it is not 80 or 443.
+     */
+    private static final class HostEntry<Type extends PathBasedHolder> {
+
+        private final String name;
+
+        /** The port or 0 if the host does not specify a port. */
+        private final int port;
+
+        final TrieNode<Type> root;
+
+        HostEntry(final String host, final TrieNode<Type> root) {
+            final int colon = host.lastIndexOf(':');
+            int port = 0;
+            String name = host;
+            if (colon > 0) {
+                try {
+                    port = Integer.parseInt(host.substring(colon + 1));
+                    name = host.substring(0, colon);
+                } catch (NumberFormatException nfe) {
+                    // not a port, use the complete host as name
                 }
             }
-        } finally {
-            this.rwLock.writeLock().unlock();
+            this.name = name;
+            this.port = port;
+            this.root = root;
+        }
+
+        boolean matches(final String serverName, final int serverPort,
+                final boolean defaultPort) {
+            return this.name.equals(serverName)
+                && (defaultPort ? this.port == 0 : this.port == serverPort);
         }
     }
 
-    public List<Type>[] findApplicableHolder(final HttpServletRequest request) {
-        this.rwLock.readLock().lock();
-        try {
-            final String hostname = request.getServerName()
-                  + (request.getServerPort() != 80 && request.getServerPort() != 443
-                    ? ":" + request.getServerPort()
-                    : "");
+    /**
+     * A node of the immutable path trie.
+     */
+    private static final class TrieNode<Type extends PathBasedHolder> {
 
-            @SuppressWarnings("unchecked")
-            final List<Type>[] result = new ArrayList[4];
+        /** The sorted characters of the child nodes. */
+        private final char[] keys;
 
-            final Map<String, List<Type>> byHostMap = cache.get(request.getScheme());
-            if ( byHostMap != null ) {
-                result[0] = byHostMap.get(hostname);
-                result[1] = byHostMap.get("");
+        private final TrieNode<Type>[] children;
+
+        /**
+         * The holders applicable to paths starting with the path of this
+         * node or <code>null</code> if no holder path ends at this node.
+         */
+        private final List<Type> holders;
+
+        TrieNode(final char[] keys, final TrieNode<Type>[] children,
+                final List<Type> holders) {
+            this.keys = keys;
+            this.children = children;
+            this.holders = holders;
+        }
+
+        List<Type> find(final String path) {
+            TrieNode<Type> node = this;
+            List<Type> result = node.holders;
+            for (int i = 0; i < path.length(); i++) {
+                final int idx = Arrays.binarySearch(node.keys, path.charAt(i));
+                if (idx < 0) {
+                    break;
+                }
+                node = node.children[idx];
+                if (node.holders != null) {
+                    result = node.holders;
+                }
             }
-            final Map<String, List<Type>> defaultByHostMap = cache.get("");
-            if ( defaultByHostMap != null ) {
-                result[0] = defaultByHostMap.get(hostname);
-                result[1] = defaultByHostMap.get("");
+            if (result == null) {
+                return Collections.emptyList();
             }
             return result;
-        } finally {
-            this.rwLock.readLock().unlock();
         }
     }
 
-    public List<Type> getHolders() {
-        this.rwLock.readLock().lock();
-        try {
-            final List<Type> result = new ArrayList<Type>();
-            for (Map<String, List<Type>> byHostEntry : cache.values()) {
-                for (List<Type> holderList : byHostEntry.values()) {
-                    result.addAll(holderList);
+    /**
+     * Builds the path trie of holders grouped by priority.
+     */
+    private static final class TrieBuilder<Type extends PathBasedHolder> {
+
+        private final TreeMap<Character, TrieBuilder<Type>> children = new TreeMap<Character, TrieBuilder<Type>>();
+
+        /** The holders ending at this node by priority. */
+        private final List<Type>[] ending;
+
+        @SuppressWarnings("unchecked")
+        private TrieBuilder(final int priorities) {
+            this.ending = new List[priorities];
+        }
+
+        TrieBuilder(final List<Type>[] priorities) {
+            this(priorities.length);
+            for (int p = 0; p < priorities.length; p++) {
+                if (priorities[p] != null) {
+                    for (final Type holder : priorities[p]) {
+                        add(holder, p);
+                    }
                 }
             }
-            return result;
-        } finally {
-            this.rwLock.readLock().unlock();
+        }
+
+        private void add(final Type holder, final int priority) {
+            TrieBuilder<Type> node = this;
+            for (int i = 0; i < holder.path.length(); i++) {
+                final Character c = holder.path.charAt(i);
+                TrieBuilder<Type> child = node.children.get(c);
+                if (child == null) {
+                    child = new TrieBuilder<Type>(this.ending.length);
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            if (node.ending[priority] == null) {
+                node.ending[priority] = new ArrayList<Type>();
+            }
+            node.ending[priority].add(holder);
+        }
+
+        TrieNode<Type> build() {
+            @SuppressWarnings("unchecked")
+            final List<Type>[] inherited = new List[this.ending.length];
+            return build(inherited);
+        }
+
+        /**
+         * Builds the node; <code>inherited</code> are the holders of the
+         * parent path by priority, longest path first.
+         */
+        private TrieNode<Type> build(final List<Type>[] inherited) {
+            boolean terminal = false;
+            @SuppressWarnings("unchecked")
+            final List<Type>[] applicable = new List[this.ending.length];
+            for (int p = 0; p < this.ending.length; p++) {
+                if (this.ending[p] == null) {
+                    applicable[p] = inherited[p];
+                } else {
+                    terminal = true;
+                    final List<Type> list = new ArrayList<Type>(this.ending[p]);
+                    Collections.sort(list);
+                    if (inherited[p] != null) {
+                        list.addAll(inherited[p]);
+                    }
+                    applicable[p] = list;
+                }
+            }
+
+            List<Type> holders = null;
+            if (terminal) {
+                final List<Type> list = new ArrayList<Type>();
+                for (final List<Type> byPriority : applicable) {
+                    if (byPriority != null) {
+                        list.addAll(byPriority);
+                    }
+                }
+                holders = Collections.unmodifiableList(list);
+            }
+
+            final char[] keys = new char[this.children.size()];
+            @SuppressWarnings("unchecked")
+            final TrieNode<Type>[] nodes = new TrieNode[this.children.size()];
+            int i = 0;
+            for (final Map.Entry<Character, TrieBuilder<Type>> child : this.children.entrySet()) {
+                keys[i] = child.getKey();
+                nodes[i] = child.getValue().build(applicable);
+                i++;
+            }
+            return new TrieNode<Type>(keys, nodes, holders);
         }
     }
 }
@@ -68,6 +68,8 @@ import org.osgi.framework.ServiceReference;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
 import org.osgi.service.http.HttpContext;
 import org.osgi.util.tracker.ServiceTracker;
 import org.slf4j.Logger;
@@ -179,6 +181,37 @@ public class SlingAuthenticator implements Authenticator,
     @Property(value = DEFAULT_AUTH_URI_SUFFIX, unbounded = PropertyUnbounded.ARRAY)
     public static final String PAR_AUTH_URI_SUFFIX = "auth.uri.suffix";
 
+    /**
+     * The default time to live in seconds of cached sessions. The default
+     * disables the session cache.
+     */
+    private static final long DEFAULT_SESSION_CACHE_TTL = 0;
+
+    /**
+     * The name of the configuration property used to set the time to live in
+     * seconds of the sessions cached for validated credentials.
+     */
+    @Property(longValue = DEFAULT_SESSION_CACHE_TTL)
+    private static final String PAR_SESSION_CACHE_TTL = "auth.session.cache.ttl";
+
+    private static final int DEFAULT_SESSION_CACHE_SIZE = 1000;
+
+    @Property(intValue = DEFAULT_SESSION_CACHE_SIZE)
+    private static final String PAR_SESSION_CACHE_SIZE = "auth.session.cache.size";
+
+    /**
+     * The default path of the users and groups.
+     */
+    private static final String DEFAULT_SESSION_CACHE_INVALIDATION_PATH = "/home";
+
+    /**
+     * The name of the configuration property used to set the paths whose
+     * changes drop all cached sessions.
+     */
+    @Property(value = DEFAULT_SESSION_CACHE_INVALIDATION_PATH, unbounded = PropertyUnbounded.ARRAY)
+    private static final String PAR_SESSION_CACHE_INVALIDATION_PATHS = "auth.session.cache.invalidation.paths";
+
+
     /**
      * The name of the {@link AuthenticationInfo} property providing the option
      * {@link org.apache.sling.auth.core.spi.AuthenticationFeedbackHandler}
@@ -229,6 +262,18 @@ public class SlingAuthenticator implements Authenticator,
      */
     private char[] anonPassword;
 
+    /**
+     * The cache of sessions for validated credentials or <code>null</code>
+     * if disabled.
+     */
+    private volatile AuthenticatedSessionCache sessionCache;
+
+    /** Event handler registration of the session cache */
+    private ServiceRegistration sessionCacheRegistration;
+
+    /** The bundle context, required to register the session cache */
+    private BundleContext bundleContext;
+
     /** HTTP Basic authentication handler */
     private HttpBasicAuthenticationHandler httpBasicHandler;
 
@@ -268,6 +313,7 @@ public class SlingAuthenticator implements Authenticator,
     @Activate
     private void activate(final BundleContext bundleContext,
             final Map<String, Object> properties) {
+        this.bundleContext = bundleContext;
         modified(properties);
 
         AuthenticatorWebConsolePlugin plugin = new AuthenticatorWebConsolePlugin(
@@ -374,11 +420,72 @@ public class SlingAuthenticator implements Authenticator,
             final String realm = OsgiUtil.toString(properties.get(PAR_REALM_NAME), DEFAULT_REALM);
             httpBasicHandler = new HttpBasicAuthenticationHandler(realm, HTTP_AUTH_ENABLED.equals(http));
         }
+
+        configureSessionCache(properties);
+    }
+
+    /**
+     * Replaces the session cache according to the configuration.
+     */
+    private void configureSessionCache(final Map<String, Object> properties) {
+        disposeSessionCache();
+
+        final long ttl = OsgiUtil.toLong(properties.get(PAR_SESSION_CACHE_TTL), DEFAULT_SESSION_CACHE_TTL);
+        if (ttl <= 0 || bundleContext == null) {
+            return;
+        }
+        final int size = OsgiUtil.toInteger(properties.get(PAR_SESSION_CACHE_SIZE), DEFAULT_SESSION_CACHE_SIZE);
+        final String[] paths = OsgiUtil.toStringArray(properties.get(PAR_SESSION_CACHE_INVALIDATION_PATHS),
+            new String[] { DEFAULT_SESSION_CACHE_INVALIDATION_PATH });
+
+        final AuthenticatedSessionCache cache;
+        try {
+            cache = new AuthenticatedSessionCache(ttl * 1000, size);
+        } catch (LinkageError le) {
+            log.warn("modified: Session cache requires the JCR API, not caching sessions", le);
+            return;
+        }
+
+        final StringBuilder filter = new StringBuilder("(|");
+        for (final String path : paths) {
+            filter.append("(").append(SlingConstants.PROPERTY_PATH).append("=").append(path).append(")");
+            filter.append("(").append(SlingConstants.PROPERTY_PATH).append("=").append(path).append("/*)");
+        }
+        filter.append(")");
+
+        final Hashtable<String, Object> props = new Hashtable<String, Object>();
+        props.put(EventConstants.EVENT_TOPIC, new String[] {
+            SlingConstants.TOPIC_RESOURCE_ADDED,
+            SlingConstants.TOPIC_RESOURCE_CHANGED,
+            SlingConstants.TOPIC_RESOURCE_REMOVED });
+        props.put(EventConstants.EVENT_FILTER, filter.toString());
+        props.put(Constants.SERVICE_DESCRIPTION, "Sling Authenticator Session Cache Invalidation");
+        props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        sessionCacheRegistration = bundleContext.registerService(
+            EventHandler.class.getName(), cache, props);
+        sessionCache = cache;
+
+        log.info("modified: Caching up to {} sessions for {} seconds", size, ttl);
+    }
+
+    private void disposeSessionCache() {
+        if (sessionCacheRegistration != null) {
+            sessionCacheRegistration.unregister();
+            sessionCacheRegistration = null;
+        }
+        final AuthenticatedSessionCache cache = sessionCache;
+        if (cache != null) {
+            sessionCache = null;
+            cache.clear();
+        }
     }
 
     @SuppressWarnings("unused")
     @Deactivate
     private void deactivate(final BundleContext bundleContext) {
+        disposeSessionCache();
+        this.bundleContext = null;
+
         if (engineAuthHandlerTracker != null) {
             engineAuthHandlerTracker.close();
             engineAuthHandlerTracker = null;
@@ -509,28 +616,21 @@ public class SlingAuthenticator implements Authenticator,
         }
 
         // select path used for authentication handler selection
-        final List<AbstractAuthenticationHandlerHolder>[] holderListArray = this.authHandlerCache.findApplicableHolder(request);
         final String path = getHandlerSelectionPath(request);
+        final List<AbstractAuthenticationHandlerHolder> holderList = this.authHandlerCache.findApplicableHolders(request, path);
         boolean done = false;
-        for(int m = 0; !done && m < holderListArray.length; m++) {
-            final List<AbstractAuthenticationHandlerHolder> holderList = holderListArray[m];
-            if ( holderList != null ) {
-                for (int i = 0; !done && i < holderList.size(); i++) {
-                    final AbstractAuthenticationHandlerHolder holder = holderList.get(i);
-                    if (path.startsWith(holder.path)) {
-                        log.debug("login: requesting authentication using handler: {}",
-                            holder);
-
-                        try {
-                            done = holder.requestCredentials(request, response);
-                        } catch (IOException ioe) {
-                            log.error(
-                                "login: Failed sending authentication request through handler "
-                                    + holder + ", access forbidden", ioe);
-                            done = true;
-                        }
-                    }
-                }
+        for (int i = 0; !done && i < holderList.size(); i++) {
+            final AbstractAuthenticationHandlerHolder holder = holderList.get(i);
+            log.debug("login: requesting authentication using handler: {}",
+                holder);
+
+            try {
+                done = holder.requestCredentials(request, response);
+            } catch (IOException ioe) {
+                log.error(
+                    "login: Failed sending authentication request through handler "
+                        + holder + ", access forbidden", ioe);
+                done = true;
             }
         }
 
@@ -541,13 +641,7 @@ public class SlingAuthenticator implements Authenticator,
 
         // no handler could send an authentication request, throw
         if (!done) {
-            int size = 0;
-            for (int m = 0; m < holderListArray.length; m++) {
-                if ( holderListArray[m] != null ) {
-                    size += holderListArray[m].size();
-                }
-            }
-            log.info("login: No handler for request ({} handlers available)", size);
+            log.info("login: No handler for request ({} handlers available)", holderList.size());
             throw new NoAuthenticationHandlerException();
         }
     }
@@ -567,26 +661,31 @@ public class SlingAuthenticator implements Authenticator,
         // make sure impersonation is dropped
         setSudoCookie(request, response, new AuthenticationInfo("dummy", request.getRemoteUser()));
 
+        // drop the cached sessions of the user
+        final AuthenticatedSessionCache cache = sessionCache;
+        if (cache != null) {
+            final Object key = request.getAttribute(AuthenticatedSessionCache.ATTR_KEY);
+            if (key instanceof String) {
+                cache.invalidate((String) key);
+            }
+            if (request.getRemoteUser() != null) {
+                cache.invalidateUser(request.getRemoteUser());
+            }
+        }
+
         final String path = getHandlerSelectionPath(request);
-        final List<AbstractAuthenticationHandlerHolder>[] holderListArray = this.authHandlerCache.findApplicableHolder(request);
-        for (int m = 0; m < holderListArray.length; m++) {
-            final List<AbstractAuthenticationHandlerHolder> holderList = holderListArray[m];
-            if (holderList != null) {
-                for (int i = 0; i < holderList.size(); i++) {
-                    AbstractAuthenticationHandlerHolder holder = holderList.get(i);
-                    if (path.startsWith(holder.path)) {
-                        log.debug("logout: dropping authentication using handler: {}",
-                            holder);
-
-                        try {
-                            holder.dropCredentials(request, response);
-                        } catch (IOException ioe) {
-                            log.error(
-                                "logout: Failed dropping authentication through handler "
-                                    + holder, ioe);
-                        }
-                    }
-                }
+        final List<AbstractAuthenticationHandlerHolder> holderList = this.authHandlerCache.findApplicableHolders(request, path);
+        for (int i = 0; i < holderList.size(); i++) {
+            AbstractAuthenticationHandlerHolder holder = holderList.get(i);
+            log.debug("logout: dropping authentication using handler: {}",
+                holder);
+
+            try {
+                holder.dropCredentials(request, response);
+            } catch (IOException ioe) {
+                log.error(
+                    "logout: Failed dropping authentication through handler "
+                        + holder, ioe);
             }
         }
 
@@ -610,6 +709,9 @@ public class SlingAuthenticator implements Authenticator,
             ((ResourceResolver) resolverAttr).close();
             request.removeAttribute(REQUEST_ATTRIBUTE_RESOLVER);
         }
+        if (request.getAttribute(AuthenticatedSessionCache.ATTR_SESSION) != null) {
+            AuthenticatedSessionCache.release(request);
+        }
     }
 
     // ---------- WebConsolePlugin support
@@ -662,6 +764,10 @@ public class SlingAuthenticator implements Authenticator,
         return sudoParameterName;
     }
 
+    AuthenticatedSessionCache getSessionCache() {
+        return sessionCache;
+    }
+
     // ---------- internal
 
     private AuthenticationInfo getAuthenticationInfo(HttpServletRequest request, HttpServletResponse response) {
@@ -674,25 +780,18 @@ public class SlingAuthenticator implements Authenticator,
             pathInfo = "/";
         }
 
-        final List<AbstractAuthenticationHandlerHolder>[] localArray = this.authHandlerCache.findApplicableHolder(request);
-        for (int m = 0; m < localArray.length; m++) {
-            final List<AbstractAuthenticationHandlerHolder> local = localArray[m];
-            if (local != null) {
-                for (int i = 0; i < local.size(); i++) {
-                    AbstractAuthenticationHandlerHolder holder = local.get(i);
-                    if (pathInfo.startsWith(holder.path)) {
-                        final AuthenticationInfo authInfo = holder.extractCredentials(
-                            request, response);
+        final List<AbstractAuthenticationHandlerHolder> local = this.authHandlerCache.findApplicableHolders(request, pathInfo);
+        for (int i = 0; i < local.size(); i++) {
+            final AbstractAuthenticationHandlerHolder holder = local.get(i);
+            final AuthenticationInfo authInfo = holder.extractCredentials(
+                request, response);
 
-                        if (authInfo != null) {
-                            // add the feedback handler to the info (may be null)
-                            authInfo.put(AUTH_INFO_PROP_FEEDBACK_HANDLER,
-                                holder.getFeedbackHandler());
+            if (authInfo != null) {
+                // add the feedback handler to the info (may be null)
+                authInfo.put(AUTH_INFO_PROP_FEEDBACK_HANDLER,
+                    holder.getFeedbackHandler());
 
-                            return authInfo;
-                        }
-                    }
-                }
+                return authInfo;
             }
         }
 
@@ -744,7 +843,10 @@ public class SlingAuthenticator implements Authenticator,
         // try to connect
         try {
             handleImpersonation(request, authInfo);
-            ResourceResolver resolver = resourceResolverFactory.getResourceResolver(authInfo);
+            final AuthenticatedSessionCache cache = sessionCache;
+            ResourceResolver resolver = (cache == null)
+                    ? resourceResolverFactory.getResourceResolver(authInfo)
+                    : cache.getResourceResolver(resourceResolverFactory, authInfo, request);
             final boolean impersChanged = setSudoCookie(request, response, authInfo);
 
             if (sendLoginEvent != null) {
@@ -776,6 +878,9 @@ public class SlingAuthenticator implements Authenticator,
             } else {
                 // terminate: cleanup
                 resolver.close();
+                if (request.getAttribute(AuthenticatedSessionCache.ATTR_SESSION) != null) {
+                    AuthenticatedSessionCache.release(request);
+                }
             }
 
             return processRequest;
@@ -867,17 +972,9 @@ public class SlingAuthenticator implements Authenticator,
             pathInfo = "/";
         }
 
-        final List<AuthenticationRequirementHolder>[] holderListArray = authRequiredCache.findApplicableHolder(request);
-        for(int m = 0; m < holderListArray.length; m++) {
-            final List<AuthenticationRequirementHolder> holderList = holderListArray[m];
-            if ( holderList != null ) {
-                for (int i = 0; i < holderList.size(); i++) {
-                    final AuthenticationRequirementHolder holder = holderList.get(i);
-                    if (pathInfo.startsWith(holder.path)) {
-                        return !holder.requiresAuthentication();
-                    }
-                }
-            }
+        final AuthenticationRequirementHolder holder = authRequiredCache.findApplicableHolder(request, pathInfo);
+        if (holder != null) {
+            return !holder.requiresAuthentication();
         }
 
         if (LoginServlet.SERVLET_PATH.equals(pathInfo)) {
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.auth.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import javax.jcr.Credentials;
+import javax.jcr.Session;
+
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.auth.core.spi.AuthenticationInfo;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class AuthenticatedSessionCacheTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void test_getKey() {
+        final AuthenticatedSessionCache cache = new AuthenticatedSessionCache(60000, 10);
+
+        final String key = cache.getKey(new AuthenticationInfo("FORM", "admin", "admin".toCharArray()));
+        assertNotNull(key);
+        assertEquals(key, cache.getKey(new AuthenticationInfo("FORM", "admin", "admin".toCharArray())));
+        assertFalse(key.equals(cache.getKey(new AuthenticationInfo("FORM", "admin", "other".toCharArray()))));
+
+        // no user
+        assertNull(cache.getKey(new AuthenticationInfo("FORM")));
+
+        // impersonation
+        final AuthenticationInfo sudo = new AuthenticationInfo("FORM", "admin", "admin".toCharArray());
+        sudo.put(ResourceResolverFactory.USER_IMPERSONATION, "other");
+        assertNull(cache.getKey(sudo));
+
+        // unsupported credentials
+        final AuthenticationInfo creds = new AuthenticationInfo("FORM", "admin");
+        creds.put("user.jcr.credentials", context.mock(Credentials.class));
+        assertNull(cache.getKey(creds));
+    }
+
+    @Test
+    public void test_acquire() throws Exception {
+        final Session session = context.mock(Session.class, "session");
+        final Session template = context.mock(Session.class, "template");
+        final Session requestSession = context.mock(Session.class, "requestSession");
+        context.checking(new Expectations() {
+            {
+                allowing(session).getUserID();
+                will(returnValue("admin"));
+                allowing(template).getUserID();
+                will(returnValue("admin"));
+                one(session).impersonate(with(any(Credentials.class)));
+                will(returnValue(template));
+                exactly(2).of(template).impersonate(with(any(Credentials.class)));
+                will(returnValue(requestSession));
+                one(template).logout();
+            }
+        });
+
+        final AuthenticatedSessionCache cache = new AuthenticatedSessionCache(60000, 10);
+        final String key = cache.getKey(new AuthenticationInfo("FORM", "admin", "admin".toCharArray()));
+
+        assertNull(cache.acquire(key));
+        cache.put(key, session);
+        assertEquals(1, cache.size());
+
+        assertSame(requestSession, cache.acquire(key));
+        assertSame(requestSession, cache.acquire(key));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // logout drops the template
+        cache.invalidateUser("admin");
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.acquire(key));
+    }
+
+    @Test
+    public void test_expired() throws Exception {
+        final Session session = context.mock(Session.class, "session");
+        final Session template = context.mock(Session.class, "template");
+        context.checking(new Expectations() {
+            {
+                allowing(session).getUserID();
+                will(returnValue("admin"));
+                allowing(template).getUserID();
+                will(returnValue("admin"));
+                one(session).impersonate(with(any(Credentials.class)));
+                will(returnValue(template));
+                never(template).impersonate(with(any(Credentials.class)));
+                one(template).logout();
+            }
+        });
+
+        final AuthenticatedSessionCache cache = new AuthenticatedSessionCache(-1, 10);
+        final String key = cache.getKey(new AuthenticationInfo("FORM", "admin", "admin".toCharArray()));
+        cache.put(key, session);
+
+        assertNull(cache.acquire(key));
+        assertEquals(0, cache.size());
+    }
+}
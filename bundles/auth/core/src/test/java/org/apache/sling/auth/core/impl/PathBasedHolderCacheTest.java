@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.auth.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class PathBasedHolderCacheTest {
+
+    private final Mockery context = new JUnit4Mockery();
+
+    private int requests;
+
+    private final PathBasedHolderCache<AuthenticationRequirementHolder> cache = new PathBasedHolderCache<AuthenticationRequirementHolder>();
+
+    @Test
+    public void test_longest_prefix() {
+        final AuthenticationRequirementHolder root = add("/");
+        final AuthenticationRequirementHolder content = add("/content");
+        final AuthenticationRequirementHolder page = add("/content/page");
+
+        final HttpServletRequest request = request("http", "localhost", 8080);
+        assertSame(page, cache.findApplicableHolder(request, "/content/page.html"));
+        assertSame(content, cache.findApplicableHolder(request, "/content/other"));
+        assertSame(content, cache.findApplicableHolder(request, "/contentother"));
+        assertSame(root, cache.findApplicableHolder(request, "/apps"));
+        assertNull(cache.findApplicableHolder(request, "apps"));
+
+        final List<AuthenticationRequirementHolder> holders = cache.findApplicableHolders(request, "/content/page");
+        assertEquals(3, holders.size());
+        assertSame(page, holders.get(0));
+        assertSame(content, holders.get(1));
+        assertSame(root, holders.get(2));
+    }
+
+    @Test
+    public void test_host_and_scheme() {
+        final AuthenticationRequirementHolder root = add("/");
+        final AuthenticationRequirementHolder host = add("//example.com/");
+        final AuthenticationRequirementHolder hostPort = add("//example.com:8080/");
+        final AuthenticationRequirementHolder scheme = add("https:///content");
+        final AuthenticationRequirementHolder schemeHost = add("https://example.com/");
+
+        assertSame(host, cache.findApplicableHolder(request("http", "example.com", 80), "/content"));
+        assertSame(hostPort, cache.findApplicableHolder(request("http", "example.com", 8080), "/content"));
+        assertSame(root, cache.findApplicableHolder(request("http", "example.com", 8081), "/content"));
+        assertSame(root, cache.findApplicableHolder(request("http", "localhost", 80), "/content"));
+
+        assertSame(schemeHost, cache.findApplicableHolder(request("https", "example.com", 443), "/content"));
+        assertSame(scheme, cache.findApplicableHolder(request("https", "localhost", 443), "/content"));
+        assertSame(root, cache.findApplicableHolder(request("https", "localhost", 443), "/apps"));
+
+        final List<AuthenticationRequirementHolder> holders = cache.findApplicableHolders(
+            request("https", "example.com", 443), "/content");
+        assertEquals(4, holders.size());
+        assertSame(schemeHost, holders.get(0));
+        assertSame(scheme, holders.get(1));
+        assertSame(host, holders.get(2));
+        assertSame(root, holders.get(3));
+    }
+
+    @Test
+    public void test_add_remove() {
+        final HttpServletRequest request = request("http", "localhost", 80);
+        assertTrue(cache.findApplicableHolders(request, "/content").isEmpty());
+
+        final AuthenticationRequirementHolder root = add("/");
+        final AuthenticationRequirementHolder content = add("/content");
+        assertSame(content, cache.findApplicableHolder(request, "/content"));
+        assertEquals(2, cache.getHolders().size());
+
+        cache.removeHolder(content);
+        assertSame(root, cache.findApplicableHolder(request, "/content"));
+
+        cache.clear();
+        assertNull(cache.findApplicableHolder(request, "/content"));
+    }
+
+    private AuthenticationRequirementHolder add(final String path) {
+        final AuthenticationRequirementHolder holder = new AuthenticationRequirementHolder(path, true, null);
+        cache.addHolder(holder);
+        return holder;
+    }
+
+    private HttpServletRequest request(final String scheme, final String host, final int port) {
+        final HttpServletRequest request = context.mock(HttpServletRequest.class,
+            "request" + (++requests));
+        context.checking(new Expectations() {
+            {
+                allowing(request).getScheme();
+                will(returnValue(scheme));
+                allowing(request).getServerName();
+                will(returnValue(host));
+                allowing(request).getServerPort();
+                will(returnValue(port));
+            }
+        });
+        return request;
+    }
+}
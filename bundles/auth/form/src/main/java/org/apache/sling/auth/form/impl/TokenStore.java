@@ -28,6 +28,9 @@ import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -68,6 +71,9 @@ class TokenStore {
     /** The number of secret keys in the token buffer currentTokens */
     private static final int TOKEN_BUFFER_SIZE = 5;
 
+    /** The max number of entries in the cache of validated cookie values */
+    private static final int VALIDATED_CACHE_SIZE = 256;
+
     public final Logger log = LoggerFactory.getLogger(TokenStore.class);
 
     /**
@@ -78,7 +84,7 @@ class TokenStore {
     /**
      * The time when a new token should be created.
      */
-    private long nextUpdate = System.currentTimeMillis();
+    private volatile long nextUpdate = System.currentTimeMillis();
 
     /**
      * The location of the current token.
@@ -86,10 +92,28 @@ class TokenStore {
     private volatile int currentToken = 0;
 
     /**
-     * A ring of tokens used to encrypt.
+     * A ring of tokens used to encrypt. The array is never modified once
+     * assigned, a new array is assigned when a new token is created.
      */
     private volatile SecretKey[] currentTokens;
 
+    /**
+     * The HMAC functions of the current thread, one per slot of the token
+     * buffer, each initialized with the key of its slot.
+     */
+    private final ThreadLocal<KeyedMac[]> threadMacs = new ThreadLocal<KeyedMac[]>() {
+        @Override
+        protected KeyedMac[] initialValue() {
+            return new KeyedMac[TOKEN_BUFFER_SIZE];
+        }
+    };
+
+    /**
+     * Recently validated cookie values mapped to the key they have been
+     * validated with.
+     */
+    private final Map<String, SecretKey> validated = new ConcurrentHashMap<String, SecretKey>();
+
     /**
      * A secure random used for generating new tokens.
      */
@@ -158,23 +182,31 @@ class TokenStore {
     String encode(final long expires, final String userId)
             throws IllegalStateException, UnsupportedEncodingException,
             NoSuchAlgorithmException, InvalidKeyException {
-        int token = getActiveToken();
-        SecretKey key = currentTokens[token];
-        return encode(expires, userId, token, key);
+        // the tokens are read after the token number: if a new token is
+        // created meanwhile, the key of the token number is not changed
+        final int token = getActiveToken();
+        final SecretKey key = currentTokens[token];
+        final String cookiePayload = String.valueOf(token) + expires + "@" + userId;
+        final byte[] hmac = getMac(token, key).doFinal(
+            cookiePayload.getBytes(UTF_8));
+        return byteToHex(hmac) + "@" + cookiePayload;
     }
 
-    private String encode(final long expires, final String userId,
-            final int token, final SecretKey key) throws IllegalStateException,
-            UnsupportedEncodingException, NoSuchAlgorithmException,
-            InvalidKeyException {
-
-        String cookiePayload = String.valueOf(token) + String.valueOf(expires)
-            + "@" + userId;
-        Mac m = Mac.getInstance(HMAC_SHA1);
-        m.init(key);
-        m.update(cookiePayload.getBytes(UTF_8));
-        String cookieValue = byteToHex(m.doFinal());
-        return cookieValue + "@" + cookiePayload;
+    /**
+     * Returns the HMAC function of the current thread for the token slot
+     * initialized with the given key.
+     */
+    private Mac getMac(final int token, final SecretKey key)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        final KeyedMac[] macs = threadMacs.get();
+        KeyedMac mac = macs[token];
+        if (mac == null || mac.key != key) {
+            final Mac m = Mac.getInstance(HMAC_SHA1);
+            m.init(key);
+            mac = new KeyedMac(key, m);
+            macs[token] = mac;
+        }
+        return mac.mac;
     }
 
     /**
@@ -210,23 +242,36 @@ class TokenStore {
      * Otherwise the method returns <code>false</code>.
      */
     boolean isValid(String value) {
-        String[] parts = split(value);
-        if (parts != null) {
+        // hmac@<token><expires>@<userId>
+        final int hmacEnd = (value == null) ? -1 : value.indexOf('@');
+        final int timeEnd = (hmacEnd <= 0) ? -1 : value.indexOf('@', hmacEnd + 2);
+        if (timeEnd > 0 && timeEnd < value.length() - 1) {
 
             // single digit token number
-            int tokenNumber = parts[1].charAt(0) - '0';
-            if (tokenNumber >= 0 && tokenNumber < currentTokens.length) {
+            final SecretKey[] tokens = currentTokens;
+            int tokenNumber = value.charAt(hmacEnd + 1) - '0';
+            if (tokenNumber >= 0 && tokenNumber < tokens.length) {
 
-                long cookieTime = Long.parseLong(parts[1].substring(1));
+                long cookieTime = Long.parseLong(value.substring(hmacEnd + 2, timeEnd));
                 if (System.currentTimeMillis() < cookieTime) {
 
+                    final SecretKey secretKey = tokens[tokenNumber];
+                    if (secretKey != null && validated.get(value) == secretKey) {
+                        return true;
+                    }
+
                     try {
-                        SecretKey secretKey = currentTokens[tokenNumber];
-                        String hmac = encode(cookieTime, parts[2], tokenNumber,
-                            secretKey);
-                        return value.equals(hmac);
-                    } catch (ArrayIndexOutOfBoundsException e) {
-                        log.error(e.getMessage(), e);
+                        if (secretKey != null) {
+                            final byte[] hmac = getMac(tokenNumber, secretKey).doFinal(
+                                value.substring(hmacEnd + 1).getBytes(UTF_8));
+                            if (isHex(hmac, value, hmacEnd)) {
+                                if (validated.size() >= VALIDATED_CACHE_SIZE) {
+                                    validated.clear();
+                                }
+                                validated.put(value, secretKey);
+                                return true;
+                            }
+                        }
                     } catch (InvalidKeyException e) {
                         log.error(e.getMessage(), e);
                     } catch (IllegalStateException e) {
@@ -240,6 +285,7 @@ class TokenStore {
                     log.error("AuthNCookie value '{}' is invalid", value);
 
                 } else {
+                    validated.remove(value);
                     log.error("AuthNCookie value '{}' has expired {}ms ago",
                         value, (System.currentTimeMillis() - cookieTime));
                 }
@@ -259,30 +305,42 @@ class TokenStore {
     }
 
     /**
-     * Maintain a circular buffer to tokens, and return the current one.
+     * Maintain a circular buffer to tokens, and return the current one. Only
+     * creating a new token requires a lock.
      *
      * @return the current token.
      */
-    private synchronized int getActiveToken() {
-        if (System.currentTimeMillis() > nextUpdate
-            || currentTokens[currentToken] == null) {
-            // cycle so that during a typical ttl the tokens get completely
-            // refreshed.
-            nextUpdate = System.currentTimeMillis() + ttl
-                / (currentTokens.length - 1);
-            byte[] b = new byte[20];
-            random.nextBytes(b);
-
-            SecretKey newToken = new SecretKeySpec(b, HMAC_SHA1);
-            int nextToken = currentToken + 1;
-            if (nextToken == currentTokens.length) {
-                nextToken = 0;
+    private int getActiveToken() {
+        final int token = currentToken;
+        if (System.currentTimeMillis() <= nextUpdate
+            && currentTokens[token] != null) {
+            return token;
+        }
+        synchronized (this) {
+            SecretKey[] tokens = currentTokens;
+            if (System.currentTimeMillis() > nextUpdate
+                || tokens[currentToken] == null) {
+                // cycle so that during a typical ttl the tokens get completely
+                // refreshed.
+                nextUpdate = System.currentTimeMillis() + ttl
+                    / (tokens.length - 1);
+                byte[] b = new byte[20];
+                random.nextBytes(b);
+
+                SecretKey newToken = new SecretKeySpec(b, HMAC_SHA1);
+                int nextToken = currentToken + 1;
+                if (nextToken == tokens.length) {
+                    nextToken = 0;
+                }
+                // assign a new array before the new token number
+                tokens = tokens.clone();
+                tokens[nextToken] = newToken;
+                currentTokens = tokens;
+                currentToken = nextToken;
+                saveTokens();
             }
-            currentTokens[nextToken] = newToken;
-            currentToken = nextToken;
-            saveTokens();
+            return currentToken;
         }
-        return currentToken;
     }
 
     /**
@@ -394,19 +452,39 @@ class TokenStore {
      * @param base
      * @return
      */
-    private String byteToHex(byte[] base) {
+    private static String byteToHex(byte[] base) {
         char[] c = new char[base.length * 2];
         int i = 0;
 
         for (byte b : base) {
-            int j = b;
-            j = j + 128;
-            c[i++] = TOHEX[j / 0x10];
-            c[i++] = TOHEX[j % 0x10];
+            int j = b + 128;
+            c[i++] = TOHEX[j >> 4];
+            c[i++] = TOHEX[j & 0x0f];
         }
         return new String(c);
     }
 
+    /**
+     * Returns <code>true</code> if the first <code>length</code> characters
+     * of the <code>value</code> are the {@link #byteToHex(byte[]) hex
+     * encoding} of the <code>base</code> bytes. All characters are compared
+     * regardless of a mismatch to not leak the position of the mismatch.
+     */
+    private static boolean isHex(final byte[] base, final String value,
+            final int length) {
+        if (length != base.length * 2) {
+            return false;
+        }
+        int diff = 0;
+        int i = 0;
+        for (byte b : base) {
+            int j = b + 128;
+            diff |= value.charAt(i++) ^ TOHEX[j >> 4];
+            diff |= value.charAt(i++) ^ TOHEX[j & 0x0f];
+        }
+        return diff == 0;
+    }
+
     /**
      * Creates a byte array of entry from the current state of the system:
      * <ul>
@@ -465,4 +543,19 @@ class TokenStore {
             value >>= 8;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * An HMAC function initialized with a secret key.
+     */
+    private static final class KeyedMac {
+
+        final SecretKey key;
+
+        final Mac mac;
+
+        KeyedMac(final SecretKey key, final Mac mac) {
+            this.key = key;
+            this.mac = mac;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.auth.form.impl;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+public class TokenStoreTest extends TestCase {
+
+    private File tokenFile;
+
+    private TokenStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        tokenFile = File.createTempFile("tokens", ".bin");
+        tokenFile.delete();
+        store = new TokenStore(tokenFile, 60000, true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        tokenFile.delete();
+        new File(tokenFile + ".tmp").delete();
+        super.tearDown();
+    }
+
+    public void test_valid() throws Exception {
+        final String value = store.encode(System.currentTimeMillis() + 60000, "user@example");
+        assertTrue(store.isValid(value));
+
+        // validated twice, the second time from the cache
+        assertTrue(store.isValid(value));
+
+        final String[] parts = TokenStore.split(value);
+        assertEquals(40, parts[0].length());
+        assertEquals("user@example", parts[2]);
+    }
+
+    public void test_invalid() throws Exception {
+        final String value = store.encode(System.currentTimeMillis() + 60000, "user");
+        final char c = value.charAt(0) == 'a' ? 'b' : 'a';
+        assertFalse(store.isValid(c + value.substring(1)));
+        assertFalse(store.isValid(value + "x"));
+        assertFalse(store.isValid(value.substring(1)));
+        assertFalse(store.isValid("invalid"));
+        assertFalse(store.isValid(null));
+    }
+
+    public void test_expired() throws Exception {
+        final String value = store.encode(System.currentTimeMillis() - 1, "user");
+        assertFalse(store.isValid(value));
+    }
+
+    public void test_persisted() throws Exception {
+        final String value = store.encode(System.currentTimeMillis() + 60000, "user");
+        final TokenStore other = new TokenStore(tokenFile, 60000, true);
+        assertTrue(other.isValid(value));
+    }
+}
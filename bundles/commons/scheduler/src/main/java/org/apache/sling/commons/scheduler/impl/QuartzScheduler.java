@@ -108,6 +108,14 @@ public class QuartzScheduler implements Scheduler {
     @Property
     private static final String PROPERTY_POOL_NAME = "poolName";
 
+    private static final boolean DEFAULT_SIMPLE_ENGINE = false;
+
+    @Property(boolValue=DEFAULT_SIMPLE_ENGINE)
+    private static final String PROPERTY_SIMPLE_ENGINE = "simpleEngine";
+
+    /** The lightweight engine for periodic and fire once jobs (if enabled). */
+    protected volatile SimpleJobScheduler simpleScheduler;
+
     /**
      * Activate this component.
      * Start the scheduler.
@@ -122,9 +130,20 @@ public class QuartzScheduler implements Scheduler {
         } else {
             poolName = null;
         }
+        final Object simpleEngineObj = ctx.getProperties().get(PROPERTY_SIMPLE_ENGINE);
+        final boolean simpleEngine;
+        if ( simpleEngineObj != null ) {
+            simpleEngine = Boolean.valueOf(simpleEngineObj.toString());
+        } else {
+            simpleEngine = DEFAULT_SIMPLE_ENGINE;
+        }
         this.context = ctx;
         // start scheduler
         this.scheduler = this.init(poolName);
+        if ( simpleEngine ) {
+            this.simpleScheduler = new SimpleJobScheduler(this.threadPool, this.logger);
+            this.logger.debug(PREFIX + "uses the simple engine for periodic and fire once jobs.");
+        }
 
         final Registration[] regs;
         synchronized ( this.registeredJobs ) {
@@ -151,6 +170,11 @@ public class QuartzScheduler implements Scheduler {
     protected void deactivate(final ComponentContext ctx) {
         WebConsolePrinter.destroyPlugin(this.plugin);
         this.plugin = null;
+        final SimpleJobScheduler simple = this.simpleScheduler;
+        this.simpleScheduler = null;
+        if ( simple != null ) {
+            simple.shutdown();
+        }
         final org.quartz.Scheduler s = this.scheduler;
         this.scheduler = null;
         this.dispose(s);
@@ -252,6 +276,10 @@ public class QuartzScheduler implements Scheduler {
 
         // if there is already a job with the name, remove it first
         if ( name != null ) {
+            final SimpleJobScheduler simple = this.simpleScheduler;
+            if ( simple != null ) {
+                simple.remove(name);
+            }
             try {
                 final JobDetail jobdetail = s.getJobDetail(JobKey.jobKey(name));
                 if (jobdetail != null) {
@@ -312,6 +340,36 @@ public class QuartzScheduler implements Scheduler {
         return detail;
     }
 
+    /**
+     * Schedule a job with the simple engine if it is enabled.
+     * @return <code>true</code> if the job has been scheduled by the simple engine.
+     */
+    protected boolean scheduleSimpleJob(final String name,
+                                        final Object job,
+                                        final Map<String, Serializable> config,
+                                        final long delay,
+                                        final long period,
+                                        final int times,
+                                        final boolean canRunConcurrently) {
+        final SimpleJobScheduler simple = this.simpleScheduler;
+        if ( simple == null ) {
+            return false;
+        }
+        this.checkJob(job);
+        if ( name != null ) {
+            // a job with the same name might still be scheduled by quartz
+            final org.quartz.Scheduler s = this.scheduler;
+            if ( s != null ) {
+                try {
+                    s.deleteJob(JobKey.jobKey(name));
+                } catch (final SchedulerException ignored) {
+                }
+            }
+        }
+        simple.schedule(this.getJobName(name), job, config, delay, period, times, canRunConcurrently);
+        return true;
+    }
+
     /**
      * Check the job object, either runnable or job is allowed
      */
@@ -362,6 +420,9 @@ public class QuartzScheduler implements Scheduler {
             final boolean startImmediate)
     throws SchedulerException {
         final long ms = period * 1000;
+        if ( this.scheduleSimpleJob(name, job, config, (startImmediate ? 0 : ms), ms, -1, canRunConcurrently) ) {
+            return;
+        }
         final String jobName = this.getJobName(name);
 
         final TriggerBuilder<SimpleTrigger> builder = TriggerBuilder.newTrigger()
@@ -383,6 +444,9 @@ public class QuartzScheduler implements Scheduler {
      */
     public void fireJob(final Object job, final Map<String, Serializable> config)
     throws SchedulerException {
+        if ( this.scheduleSimpleJob(null, job, config, 0, 0, 1, true) ) {
+            return;
+        }
         this.checkJob(job);
         final String jobName = job.getClass().getName();
         final JobDataMap dataMap = this.initDataMap(jobName, job, config);
@@ -402,6 +466,9 @@ public class QuartzScheduler implements Scheduler {
      */
     public void fireJobAt(final String name, final Object job, final Map<String, Serializable> config, final Date date)
     throws SchedulerException {
+        if ( this.scheduleSimpleJob(name, job, config, date.getTime() - System.currentTimeMillis(), 0, 1, true) ) {
+            return;
+        }
         final String jobName = this.getJobName(name);
         final Trigger trigger = TriggerBuilder.newTrigger()
         .withIdentity(jobName)
@@ -422,6 +489,9 @@ public class QuartzScheduler implements Scheduler {
             throw new IllegalArgumentException("Times argument must be higher than 1");
         }
         final long ms = period * 1000;
+        if ( this.scheduleSimpleJob(null, job, config, 0, ms, times, true) ) {
+            return true;
+        }
         final String jobName = job.getClass().getName();
         final JobDataMap dataMap = this.initDataMap(jobName, job, config);
 
@@ -454,8 +524,11 @@ public class QuartzScheduler implements Scheduler {
         if ( times < 2 ) {
             throw new IllegalArgumentException("Times argument must be higher than 1");
         }
-        final String jobName = job.getClass().getName();
         final long ms = period * 1000;
+        if ( this.scheduleSimpleJob(name, job, config, date.getTime() - System.currentTimeMillis(), ms, times, true) ) {
+            return true;
+        }
+        final String jobName = job.getClass().getName();
 
         final Trigger trigger = TriggerBuilder.newTrigger()
             .withIdentity(jobName)
@@ -485,6 +558,10 @@ public class QuartzScheduler implements Scheduler {
      * @see org.apache.sling.commons.scheduler.Scheduler#removeJob(java.lang.String)
      */
     public void removeJob(String name) throws NoSuchElementException {
+        final SimpleJobScheduler simple = this.simpleScheduler;
+        if ( simple != null && simple.remove(name) ) {
+            return;
+        }
         // as this method might be called from unbind and during
         // unbind a deactivate could happen, we check the scheduler first
         final org.quartz.Scheduler s = this.scheduler;
@@ -638,6 +715,10 @@ public class QuartzScheduler implements Scheduler {
         return this.scheduler;
     }
 
+    SimpleJobScheduler getSimpleScheduler() {
+        return this.simpleScheduler;
+    }
+
     /**
      * Helper class holding a registration if this service is not active yet.
      */
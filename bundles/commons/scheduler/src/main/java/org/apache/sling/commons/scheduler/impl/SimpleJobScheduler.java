@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.scheduler.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sling.commons.scheduler.JobContext;
+import org.apache.sling.commons.threads.ThreadPool;
+import org.slf4j.Logger;
+
+/**
+ * A lightweight scheduler engine for periodic and fire once jobs.
+ * A single timer thread (a {@link ScheduledThreadPoolExecutor}) keeps
+ * track of the due dates and hands the jobs over to the Sling thread
+ * pool for execution. In contrast to Quartz there is no job store, no
+ * global lock and no per fire allocation of job details or contexts.
+ *
+ * If a job must not run concurrently and is still running when it is
+ * due again, this execution is skipped.
+ */
+public class SimpleJobScheduler {
+
+    /** The scheduled jobs by name. */
+    private final ConcurrentMap<String, ScheduledJob> jobs = new ConcurrentHashMap<String, ScheduledJob>();
+
+    /** The timer. */
+    private final ScheduledThreadPoolExecutor timer;
+
+    /** The pool executing the jobs. */
+    private final ThreadPool threadPool;
+
+    private final Logger logger;
+
+    /** Number of cancelled jobs since the last purge of the timer queue. */
+    private final AtomicInteger cancelCount = new AtomicInteger();
+
+    public SimpleJobScheduler(final ThreadPool threadPool, final Logger logger) {
+        this.threadPool = threadPool;
+        this.logger = logger;
+        this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r, "Apache Sling Simple Scheduler Timer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        this.timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.timer.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Schedule a job. An existing job with the same name is replaced.
+     * @param name The unique name of the job
+     * @param job The job object
+     * @param config The optional configuration
+     * @param delay The delay in ms before the first execution
+     * @param period The period in ms or a value less than 1 for a single execution
+     * @param times The number of executions or -1 for an unlimited number
+     * @param canRunConcurrently Whether the job can run concurrently
+     */
+    public void schedule(final String name,
+                         final Object job,
+                         final Map<String, Serializable> config,
+                         final long delay,
+                         final long period,
+                         final int times,
+                         final boolean canRunConcurrently) {
+        final ScheduledJob scheduledJob = new ScheduledJob(name, job, config,
+                period, (period > 0 ? times : 1), canRunConcurrently);
+        final ScheduledJob old = this.jobs.put(name, scheduledJob);
+        if ( old != null ) {
+            this.cancel(old);
+        }
+        this.logger.debug("Scheduling job {} with name {}", job, name);
+        final long initialDelay = Math.max(0, delay);
+        if ( period > 0 ) {
+            scheduledJob.future = this.timer.scheduleAtFixedRate(scheduledJob, initialDelay, period, TimeUnit.MILLISECONDS);
+        } else {
+            scheduledJob.future = this.timer.schedule(scheduledJob, initialDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Remove a job.
+     * @param name The name of the job.
+     * @return <code>true</code> if the job has been scheduled by this scheduler.
+     */
+    public boolean remove(final String name) {
+        final ScheduledJob job = this.jobs.remove(name);
+        if ( job != null ) {
+            this.cancel(job);
+            this.logger.debug("Unscheduling job with name {}", name);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancel the job. Cancelled tasks stay in the timer queue until
+     * they are due, therefore the queue is purged once the number of
+     * cancelled jobs exceeds the number of scheduled jobs.
+     */
+    private void cancel(final ScheduledJob job) {
+        job.cancel();
+        if ( this.cancelCount.incrementAndGet() > Math.max(100, this.jobs.size()) ) {
+            this.cancelCount.set(0);
+            this.timer.purge();
+        }
+    }
+
+    /**
+     * Return all currently scheduled jobs.
+     */
+    public List<ScheduledJob> getJobs() {
+        final List<ScheduledJob> result = new ArrayList<ScheduledJob>(this.jobs.values());
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Cancel all jobs and stop the timer.
+     */
+    public void shutdown() {
+        this.timer.shutdownNow();
+        for(final ScheduledJob job : this.jobs.values()) {
+            job.cancel();
+        }
+        this.jobs.clear();
+    }
+
+    /**
+     * A scheduled job. The {@link #run()} method is invoked by the timer
+     * and hands the job over to the thread pool.
+     */
+    public final class ScheduledJob implements Runnable {
+
+        private final String name;
+
+        private final Object job;
+
+        private final boolean canRunConcurrently;
+
+        private final long period;
+
+        /** The remaining executions or a negative value for unlimited executions. */
+        private final AtomicInteger remaining;
+
+        /** Set while a non concurrent job is executed. */
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private final AtomicLong fireCount = new AtomicLong();
+
+        private final AtomicLong skipCount = new AtomicLong();
+
+        /** The context is created once as the name and configuration never change. */
+        private final JobContext jobContext;
+
+        /** The runnable executed in the thread pool. */
+        private final Runnable executor;
+
+        private volatile ScheduledFuture<?> future;
+
+        ScheduledJob(final String name,
+                     final Object job,
+                     final Map<String, Serializable> config,
+                     final long period,
+                     final int times,
+                     final boolean canRunConcurrently) {
+            this.name = name;
+            this.job = job;
+            this.period = period;
+            this.canRunConcurrently = canRunConcurrently;
+            this.remaining = new AtomicInteger(times);
+            this.jobContext = new QuartzJobExecutor.JobContextImpl(name, config);
+            this.executor = new Runnable() {
+
+                public void run() {
+                    try {
+                        execute();
+                    } finally {
+                        if ( !ScheduledJob.this.canRunConcurrently ) {
+                            running.set(false);
+                        }
+                    }
+                }
+            };
+        }
+
+        public void run() {
+            if ( this.remaining.get() >= 0 ) {
+                final int left = this.remaining.decrementAndGet();
+                if ( left < 0 ) {
+                    // cancelled before the future was available
+                    final ScheduledFuture<?> f = this.future;
+                    if ( f != null ) {
+                        f.cancel(false);
+                    }
+                    return;
+                }
+                if ( left == 0 ) {
+                    // last execution
+                    jobs.remove(this.name, this);
+                    if ( this.period > 0 ) {
+                        SimpleJobScheduler.this.cancel(this);
+                    }
+                }
+            }
+            if ( !this.canRunConcurrently && !this.running.compareAndSet(false, true) ) {
+                this.skipCount.incrementAndGet();
+                logger.debug("Skipping execution of job {} as it is still running.", this.name);
+                return;
+            }
+            this.fireCount.incrementAndGet();
+            try {
+                threadPool.execute(this.executor);
+            } catch (final RuntimeException re) {
+                if ( !this.canRunConcurrently ) {
+                    this.running.set(false);
+                }
+                logger.error("Unable to execute job " + this.name, re);
+            }
+        }
+
+        private void execute() {
+            try {
+                logger.debug("Executing job {} with name {}", job, name);
+                if (job instanceof org.apache.sling.commons.scheduler.Job) {
+                    ((org.apache.sling.commons.scheduler.Job) job).execute(this.jobContext);
+                } else if (job instanceof Runnable) {
+                    ((Runnable) job).run();
+                } else {
+                    logger.error("Scheduled job {} is neither a job nor a runnable.", job);
+                }
+            } catch (final Throwable t) {
+                // there is nothing we can do here, so we just log
+                logger.error("Exception during job execution of " + job + " : " + t.getMessage(), t);
+            }
+        }
+
+        void cancel() {
+            final ScheduledFuture<?> f = this.future;
+            if ( f != null ) {
+                f.cancel(false);
+            }
+            // make sure a cancelled job is not run anymore even if the
+            // future has not been set yet
+            this.remaining.set(0);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Object getJob() {
+            return this.job;
+        }
+
+        public boolean isConcurrent() {
+            return this.canRunConcurrently;
+        }
+
+        public long getPeriod() {
+            return this.period;
+        }
+
+        public long getFireCount() {
+            return this.fireCount.get();
+        }
+
+        public long getSkipCount() {
+            return this.skipCount.get();
+        }
+
+        public long getNextFireDelay() {
+            final ScheduledFuture<?> f = this.future;
+            return f == null ? -1 : f.getDelay(TimeUnit.MILLISECONDS);
+        }
+    }
+}
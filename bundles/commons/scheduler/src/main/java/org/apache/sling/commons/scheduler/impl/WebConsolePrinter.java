@@ -116,6 +116,27 @@ public class WebConsolePrinter {
                 pw.print  ("Unable to print complete configuration: ");
                 pw.println(se.getMessage());
             }
+            final SimpleJobScheduler simple = this.scheduler.getSimpleScheduler();
+            if ( simple != null ) {
+                pw.println();
+                pw.println("Simple Engine");
+                pw.println("---------------------------------------------------------------------------");
+                for(final SimpleJobScheduler.ScheduledJob job : simple.getJobs()) {
+                    pw.print("Job : ");
+                    pw.print(job.getName());
+                    pw.print(", concurrent: ");
+                    pw.print(job.isConcurrent());
+                    pw.print(", period: ");
+                    pw.print(job.getPeriod());
+                    pw.print("ms, fired: ");
+                    pw.print(job.getFireCount());
+                    pw.print(", skipped: ");
+                    pw.print(job.getSkipCount());
+                    pw.print(", next fire in: ");
+                    pw.print(job.getNextFireDelay());
+                    pw.println("ms");
+                }
+            }
         } else {
             pw.println("Status : not active");
         }
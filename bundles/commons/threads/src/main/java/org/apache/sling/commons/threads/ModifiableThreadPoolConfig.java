@@ -33,6 +33,7 @@ import java.util.concurrent.ThreadFactory;
  * - priority: NORM
  * - daemon: false
  * - factory: null (= default jvm thread factory)
+ * - pool type: EXECUTOR
  */
 public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
 
@@ -56,6 +57,8 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
     public static final String PROPERTY_DAEMON = "daemon";
     /** Configuration property for the thread pool name. */
     public static final String PROPERTY_NAME = "name";
+    /** Configuration property for the pool type. */
+    public static final String PROPERTY_POOL_TYPE = "poolType";
 
     /** The min pool size. */
     private int minPoolSize = 5;
@@ -87,6 +90,9 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
     /** Create daemon threads? */
     private  boolean isDaemon = false;
 
+    /** The pool type. Default is EXECUTOR. */
+    private ThreadPoolType poolType = ThreadPoolType.EXECUTOR;
+
     /**
      * Create a new default configuration.
      */
@@ -110,6 +116,7 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
             this.factory = copy.getFactory();
             this.priority = copy.getPriority();
             this.isDaemon = copy.isDaemon();
+            this.poolType = copy.getPoolType();
         }
     }
 
@@ -272,6 +279,25 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
         this.isDaemon = isDaemon;
     }
 
+    /**
+     * @see org.apache.sling.commons.threads.ThreadPoolConfig#getPoolType()
+     */
+    public ThreadPoolType getPoolType() {
+        return poolType;
+    }
+
+    /**
+     * Set the pool type.
+     * @param poolType The pool type.
+     * @throws IllegalArgumentException If poolType is null.
+     */
+    public void setPoolType(final ThreadPoolType poolType) {
+        if ( poolType == null ) {
+            throw new IllegalArgumentException("Pool type must not be null.");
+        }
+        this.poolType = poolType;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if ( obj instanceof ModifiableThreadPoolConfig ) {
@@ -284,7 +310,8 @@ public final class ModifiableThreadPoolConfig implements ThreadPoolConfig {
                 && this.shutdownGraceful == o.shutdownGraceful
                 && this.shutdownWaitTimeMs == o.shutdownWaitTimeMs
                 && this.priority.equals(o.priority)
-                && this.isDaemon == o.isDaemon;
+                && this.isDaemon == o.isDaemon
+                && this.poolType.equals(o.poolType);
         }
         return false;
     }
@@ -37,6 +37,22 @@ public interface ThreadPoolConfig {
         MAX
     };
 
+    /**
+     * The thread pool types.
+     * <ul>
+     *   <li>EXECUTOR: A classic thread pool with a queue (default).</li>
+     *   <li>FORK_JOIN: A work stealing pool; requires Java 7 or higher.</li>
+     *   <li>VIRTUAL: A new virtual thread per task; requires Java 21 or higher.</li>
+     * </ul>
+     * If a type is not supported by the runtime, an EXECUTOR pool is used.
+     * @since 3.3
+     */
+    public enum ThreadPoolType {
+        EXECUTOR,
+        FORK_JOIN,
+        VIRTUAL
+    };
+
     /**
      * Return the minimum pool size.
      * @return The minimum pool size.
@@ -98,4 +114,11 @@ public interface ThreadPoolConfig {
      * @return <code>true</code> if daemon threads should be created.
      */
     boolean isDaemon();
+
+    /**
+     * Return the type of the thread pool.
+     * @return The thread pool type.
+     * @since 3.3
+     */
+    ThreadPoolType getPoolType();
 }
\ No newline at end of file
@@ -18,10 +18,12 @@ package org.apache.sling.commons.threads.impl;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -30,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolConfig;
+import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPoolType;
 import org.apache.sling.commons.threads.ThreadPoolManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,10 +52,13 @@ public class DefaultThreadPool
     protected final String name;
 
     /** The executor. */
-    protected ThreadPoolExecutor executor;
+    protected ExecutorService executor;
 
     protected final ModifiableThreadPoolConfig configuration;
 
+    /** The statistics. */
+    protected final ThreadPoolStatistics statistics = new ThreadPoolStatistics();
+
     /**
      * Create a new thread pool.
      * @param name - The name of the thread pool. If null {@link DefaultThreadPoolManager#DEFAULT_THREADPOOL_NAME}
@@ -99,6 +105,34 @@ public class DefaultThreadPool
             this.logger.warn("keep-alive-time-ms < 0 for pool \"" + this.name + "\". Set to 1000");
         }
 
+        // Pool type
+        switch (this.configuration.getPoolType()) {
+            case FORK_JOIN :
+                this.executor = ExecutorFactory.newForkJoinPool(this.configuration.getMaxPoolSize() == Integer.MAX_VALUE
+                        ? Runtime.getRuntime().availableProcessors()
+                        : this.configuration.getMaxPoolSize());
+                break;
+            case VIRTUAL :
+                this.executor = ExecutorFactory.newVirtualThreadPerTaskExecutor();
+                break;
+            case EXECUTOR :
+                break;
+        }
+        if ( this.executor == null ) {
+            if ( this.configuration.getPoolType() != ThreadPoolType.EXECUTOR ) {
+                this.logger.warn("Pool type " + this.configuration.getPoolType() + " for pool \"" + this.name
+                        + "\" is not supported by this runtime. Using " + ThreadPoolType.EXECUTOR);
+                this.configuration.setPoolType(ThreadPoolType.EXECUTOR);
+            }
+            this.executor = this.createThreadPoolExecutor(threadFactory);
+        }
+        this.logger.info("Thread pool [{}] initialized.", name);
+    }
+
+    /**
+     * Create the classic thread pool executor based on the configuration.
+     */
+    private ThreadPoolExecutor createThreadPoolExecutor(final ThreadFactory threadFactory) {
         // Queue
         final BlockingQueue<Runnable> queue;
         if (this.configuration.getQueueSize() != 0) {
@@ -111,29 +145,13 @@ public class DefaultThreadPool
             queue = new SynchronousQueue<Runnable>();
         }
 
-        RejectedExecutionHandler handler = null;
-        switch (this.configuration.getBlockPolicy()) {
-            case ABORT :
-                handler = new ThreadPoolExecutor.AbortPolicy();
-                break;
-            case DISCARD :
-                handler = new ThreadPoolExecutor.DiscardPolicy();
-                break;
-            case DISCARDOLDEST :
-                handler = new ThreadPoolExecutor.DiscardOldestPolicy();
-                break;
-            case RUN :
-                handler = new ThreadPoolExecutor.CallerRunsPolicy();
-                break;
-        }
-        this.executor = new ThreadPoolExecutor(this.configuration.getMinPoolSize(),
+        return new ThreadPoolExecutor(this.configuration.getMinPoolSize(),
                 this.configuration.getMaxPoolSize(),
                 this.configuration.getKeepAliveTime(),
                 TimeUnit.MILLISECONDS,
                 queue,
                 threadFactory,
-                handler);
-        this.logger.info("Thread pool [{}] initialized.", name);
+                this.statistics.createRejectedExecutionHandler(this.configuration.getBlockPolicy()));
     }
 
     /**
@@ -160,7 +178,7 @@ public class DefaultThreadPool
             if ( logger.isDebugEnabled() ) {
                 logOperation("Executing runnable: ", runnable);
             }
-            executor.execute(runnable);
+            this.executeTask(runnable);
         }
     }
 
@@ -172,7 +190,9 @@ public class DefaultThreadPool
         if ( logger.isDebugEnabled() ) {
             logOperation("Submitting callable: ", callable);
         }
-        return executor.submit(callable);
+        final FutureTask<T> task = new FutureTask<T>(callable);
+        this.executeTask(task);
+        return task;
     }
 
     /**
@@ -183,7 +203,25 @@ public class DefaultThreadPool
         if ( logger.isDebugEnabled() ) {
             logOperation("Submitting runnable: ", runnable);
         }
-        return executor.submit(runnable);
+        final FutureTask<Object> task = new FutureTask<Object>(runnable, null);
+        this.executeTask(task);
+        return task;
+    }
+
+    /**
+     * Hand the task to the executor and collect the statistics.
+     * Rejections of the thread pool executor are counted by its
+     * rejected execution handler.
+     */
+    private void executeTask(final Runnable runnable) {
+        try {
+            executor.execute(this.statistics.wrap(runnable));
+        } catch (final RejectedExecutionException ree) {
+            if ( !(this.executor instanceof ThreadPoolExecutor) ) {
+                this.statistics.taskRejected();
+            }
+            throw ree;
+        }
     }
 
     /**
@@ -215,10 +253,21 @@ public class DefaultThreadPool
         this.logger.info("Thread pool [{}] is shut down.", this.name);
     }
 
-    public ThreadPoolExecutor getExecutor() {
+    /**
+     * Return the executor service.
+     * @return The executor or <code>null</code> if the pool is shutdown.
+     */
+    public ExecutorService getExecutor() {
         return this.executor;
     }
 
+    /**
+     * Return the statistics of this pool.
+     */
+    public ThreadPoolStatistics getStatistics() {
+        return this.statistics;
+    }
+
     private void checkExecutor() {
         if ( this.executor == null ) {
             throw new IllegalStateException("Thread pool " + this.name + " is already shutdown.");
@@ -226,6 +275,12 @@ public class DefaultThreadPool
     }
 
     private void logOperation(final String msg, final Object obj) {
+        if ( !(executor instanceof ThreadPoolExecutor) ) {
+            logger.debug("{} {}, pool={}, type={}",
+                    new Object[] {msg, obj, name, this.configuration.getPoolType()});
+            return;
+        }
+        final ThreadPoolExecutor executor = (ThreadPoolExecutor)this.executor;
         logger.debug("{} {}, pool={}, active={}, corePoolSize={}, maxPoolSize={}, queueSize={}",
                 new Object[] {msg, obj, name,
                         executor.getActiveCount(),
@@ -21,12 +21,13 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolConfig;
 import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPoolPolicy;
+import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPoolType;
 import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPriority;
 import org.apache.sling.commons.threads.ThreadPoolManager;
 import org.apache.sling.commons.threads.jmx.ThreadPoolMBean;
@@ -116,6 +117,9 @@ public class DefaultThreadPoolManager
         if ( props.get(ModifiableThreadPoolConfig.PROPERTY_DAEMON) != null ) {
             config.setDaemon((Boolean)props.get(ModifiableThreadPoolConfig.PROPERTY_DAEMON));
         }
+        if ( props.get(ModifiableThreadPoolConfig.PROPERTY_POOL_TYPE) != null ) {
+            config.setPoolType(ThreadPoolType.valueOf(props.get(ModifiableThreadPoolConfig.PROPERTY_POOL_TYPE).toString()));
+        }
         return config;
     }
 
@@ -375,13 +379,20 @@ public class DefaultThreadPoolManager
             return this.config;
         }
 
-        public ThreadPoolExecutor getExecutor() {
+        public ExecutorService getExecutor() {
             if ( this.pool != null ) {
                 return this.pool.getExecutor();
             }
             return null;
         }
 
+        public ThreadPoolStatistics getStatistics() {
+            if ( this.pool != null ) {
+                return this.pool.getStatistics();
+            }
+            return null;
+        }
+
         protected void unregisterMBean() {
             if ( this.mbeanRegistration != null ) {
                 this.mbeanRegistration.unregister();
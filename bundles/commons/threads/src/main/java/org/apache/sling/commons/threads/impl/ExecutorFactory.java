@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.threads.impl;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Factory for the executor services which are not available
+ * in all supported Java versions.
+ * As this bundle still runs on Java 5, the fork join pool
+ * (Java 7) and virtual threads (Java 21) are accessed by
+ * reflection. If the runtime does not provide them, the
+ * create methods return <code>null</code>.
+ */
+public final class ExecutorFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorFactory.class);
+
+    private static final String FORK_JOIN_POOL_CLASS = "java.util.concurrent.ForkJoinPool";
+
+    private static final String FORK_JOIN_FACTORY_CLASS = "java.util.concurrent.ForkJoinPool$ForkJoinWorkerThreadFactory";
+
+    /** The max parallelism supported by the fork join pool. */
+    private static final int MAX_PARALLELISM = 0x7fff;
+
+    private ExecutorFactory() {
+        // no instances
+    }
+
+    /**
+     * Create a new fork join pool in async mode. The async mode
+     * is better suited for tasks which are never joined.
+     * @param parallelism The parallelism level.
+     * @return A new fork join pool or <code>null</code> if not supported.
+     */
+    public static ExecutorService newForkJoinPool(final int parallelism) {
+        try {
+            final Class<?> poolClass = Class.forName(FORK_JOIN_POOL_CLASS);
+            final Class<?> factoryClass = Class.forName(FORK_JOIN_FACTORY_CLASS);
+            final Object factory = poolClass.getField("defaultForkJoinWorkerThreadFactory").get(null);
+            final Constructor<?> constructor = poolClass.getConstructor(
+                    int.class, factoryClass, Thread.UncaughtExceptionHandler.class, boolean.class);
+            final int level = Math.max(1, Math.min(parallelism, MAX_PARALLELISM));
+            return (ExecutorService) constructor.newInstance(level, factory, null, true);
+        } catch (final ClassNotFoundException cnfe) {
+            LOGGER.debug("Fork join pool is not supported by this runtime.");
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to create fork join pool.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Create a new executor starting a new virtual thread for each task.
+     * @return A new executor or <code>null</code> if not supported.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (final NoSuchMethodException nsme) {
+            LOGGER.debug("Virtual threads are not supported by this runtime.");
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to create virtual thread executor.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Is the executor a fork join pool?
+     */
+    public static boolean isForkJoinPool(final ExecutorService executor) {
+        return executor != null && FORK_JOIN_POOL_CLASS.equals(executor.getClass().getName());
+    }
+
+    /**
+     * Get a statistic value from a fork join pool, like
+     * <code>getStealCount</code> or <code>getActiveThreadCount</code>.
+     * @param executor The executor
+     * @param methodName The name of the getter
+     * @return The value or <code>-1</code> if the executor is not a fork
+     *         join pool or the value can't be retrieved.
+     */
+    public static long getForkJoinStatistic(final ExecutorService executor, final String methodName) {
+        if ( isForkJoinPool(executor) ) {
+            try {
+                final Object value = executor.getClass().getMethod(methodName).invoke(executor);
+                if ( value instanceof Number ) {
+                    return ((Number)value).longValue();
+                }
+            } catch (final Exception e) {
+                LOGGER.debug("Unable to get " + methodName + " from fork join pool.", e);
+            }
+        }
+        return -1;
+    }
+}
@@ -17,8 +17,8 @@
 package org.apache.sling.commons.threads.impl;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.sling.commons.threads.ThreadPool;
 import org.apache.sling.commons.threads.ThreadPoolConfig;
@@ -100,7 +100,11 @@ public final class ThreadPoolFacade implements ThreadPool {
         oldPool.shutdown();
     }
 
-    public ThreadPoolExecutor getExecutor() {
+    public ExecutorService getExecutor() {
         return this.delegatee.getExecutor();
     }
+
+    public ThreadPoolStatistics getStatistics() {
+        return this.delegatee.getStatistics();
+    }
 }
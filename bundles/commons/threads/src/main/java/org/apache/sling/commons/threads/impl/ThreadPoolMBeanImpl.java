@@ -16,6 +16,7 @@
  */
 package org.apache.sling.commons.threads.impl;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import javax.management.NotCompliantMBeanException;
@@ -37,17 +38,25 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         return this.entry.getConfig().getBlockPolicy().name();
     }
 
+    private ThreadPoolExecutor getThreadPoolExecutor() {
+        final ExecutorService executor = this.entry.getExecutor();
+        if ( executor instanceof ThreadPoolExecutor ) {
+            return (ThreadPoolExecutor) executor;
+        }
+        return null;
+    }
+
     public int getExecutorActiveCount() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getActiveCount();
         } else {
-            return -1;
+            return (int) ExecutorFactory.getForkJoinStatistic(this.entry.getExecutor(), "getActiveThreadCount");
         }
     }
 
     public long getExecutorCompletedTaskCount() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getCompletedTaskCount();
         } else {
@@ -56,7 +65,7 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
     }
 
     public int getExecutorCorePoolSize() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getCorePoolSize();
         } else {
@@ -65,7 +74,7 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
     }
 
     public int getExecutorLargestPoolSize() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getLargestPoolSize();
         } else {
@@ -74,25 +83,25 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
     }
 
     public int getExecutorMaximumPoolSize() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getMaximumPoolSize();
         } else {
-            return -1;
+            return (int) ExecutorFactory.getForkJoinStatistic(this.entry.getExecutor(), "getParallelism");
         }
     }
 
     public int getExecutorPoolSize() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getPoolSize();
         } else {
-            return -1;
+            return (int) ExecutorFactory.getForkJoinStatistic(this.entry.getExecutor(), "getPoolSize");
         }
     }
 
     public long getExecutorTaskCount() {
-        final ThreadPoolExecutor tpe = this.entry.getExecutor();
+        final ThreadPoolExecutor tpe = this.getThreadPoolExecutor();
         if ( tpe != null ) {
             return tpe.getTaskCount();
         } else {
@@ -100,6 +109,70 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         }
     }
 
+    public long getExecutorStealCount() {
+        return ExecutorFactory.getForkJoinStatistic(this.entry.getExecutor(), "getStealCount");
+    }
+
+    public long getStartedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getWaitTime().getCount();
+    }
+
+    public long getTaskWaitTimeMeanMicros() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getWaitTime().getMeanMicros();
+    }
+
+    public long getTaskWaitTime99thPercentileMicros() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getWaitTime().getPercentileMicros(99);
+    }
+
+    public long getTaskWaitTimeMaxMicros() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getWaitTime().getMaxMicros();
+    }
+
+    public long getTaskRunTimeMeanMicros() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getRunTime().getMeanMicros();
+    }
+
+    public long getTaskRunTime99thPercentileMicros() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getRunTime().getPercentileMicros(99);
+    }
+
+    public long getTaskRunTimeMaxMicros() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getRunTime().getMaxMicros();
+    }
+
+    public long getRejectedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getRejectedCount();
+    }
+
+    public long getCallerRunsTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getCallerRunsCount();
+    }
+
+    public long getDiscardedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getDiscardedCount();
+    }
+
+    public int getQueuedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getQueuedCount();
+    }
+
+    public int getPeakQueuedTaskCount() {
+        final ThreadPoolStatistics stats = this.entry.getStatistics();
+        return stats == null ? -1 : stats.getPeakQueuedCount();
+    }
+
     public long getKeepAliveTime() {
         return this.entry.getConfig().getKeepAliveTime();
     }
@@ -120,6 +193,10 @@ class ThreadPoolMBeanImpl extends StandardMBean implements ThreadPoolMBean {
         return this.entry.getPid();
     }
 
+    public String getPoolType() {
+        return this.entry.getConfig().getPoolType().name();
+    }
+
     public String getPriority() {
         return this.entry.getConfig().getPriority().name();
     }
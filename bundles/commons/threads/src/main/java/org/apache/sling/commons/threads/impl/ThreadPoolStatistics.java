@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.commons.threads.impl;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.sling.commons.threads.ThreadPoolConfig.ThreadPoolPolicy;
+
+/**
+ * The statistics of a {@link DefaultThreadPool}.
+ * Tasks are wrapped on submission to measure the time between
+ * submission and start (wait time) and the execution time (run time).
+ * In addition rejected tasks and the number of queued tasks are
+ * counted. All values are updated lock free.
+ */
+public final class ThreadPoolStatistics {
+
+    /** Time a task waited between submission and start. */
+    private final Histogram waitTime = new Histogram();
+
+    /** Time a task took to execute. */
+    private final Histogram runTime = new Histogram();
+
+    /** Number of rejected tasks (for all policies). */
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /** Number of rejected tasks run by the caller. */
+    private final AtomicLong callerRunsCount = new AtomicLong();
+
+    /** Number of discarded tasks. */
+    private final AtomicLong discardedCount = new AtomicLong();
+
+    /** Number of submitted tasks not started yet. */
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    /** Max number of submitted tasks not started yet. */
+    private final AtomicInteger peakQueuedCount = new AtomicInteger();
+
+    /**
+     * Wrap the runnable to collect the statistics.
+     */
+    public Runnable wrap(final Runnable runnable) {
+        this.taskQueued();
+        return new MeasuredRunnable(runnable, System.nanoTime());
+    }
+
+    /**
+     * Create a rejected execution handler for the policy which
+     * collects the statistics. The behaviour is the same as the
+     * one of the policies provided by the {@link ThreadPoolExecutor}.
+     */
+    public RejectedExecutionHandler createRejectedExecutionHandler(final ThreadPoolPolicy policy) {
+        return new StatisticsRejectedExecutionHandler(policy);
+    }
+
+    /**
+     * A task could not be handed to the executor.
+     */
+    public void taskRejected() {
+        this.rejectedCount.incrementAndGet();
+        this.queuedCount.decrementAndGet();
+    }
+
+    public Histogram getWaitTime() {
+        return this.waitTime;
+    }
+
+    public Histogram getRunTime() {
+        return this.runTime;
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    public long getCallerRunsCount() {
+        return this.callerRunsCount.get();
+    }
+
+    public long getDiscardedCount() {
+        return this.discardedCount.get();
+    }
+
+    public int getQueuedCount() {
+        return Math.max(0, this.queuedCount.get());
+    }
+
+    public int getPeakQueuedCount() {
+        return this.peakQueuedCount.get();
+    }
+
+    private void taskQueued() {
+        final int queued = this.queuedCount.incrementAndGet();
+        int peak = this.peakQueuedCount.get();
+        while ( queued > peak ) {
+            if ( this.peakQueuedCount.compareAndSet(peak, queued) ) {
+                break;
+            }
+            peak = this.peakQueuedCount.get();
+        }
+    }
+
+    private long taskStarted(final long queuedNanos) {
+        final long start = System.nanoTime();
+        this.queuedCount.decrementAndGet();
+        this.waitTime.add(start - queuedNanos);
+        return start;
+    }
+
+    private void taskFinished(final long startNanos) {
+        this.runTime.add(System.nanoTime() - startNanos);
+    }
+
+    private void taskDiscarded() {
+        this.discardedCount.incrementAndGet();
+        this.queuedCount.decrementAndGet();
+    }
+
+    private final class MeasuredRunnable implements Runnable {
+
+        private final Runnable delegatee;
+
+        private final long queuedNanos;
+
+        MeasuredRunnable(final Runnable delegatee, final long queuedNanos) {
+            this.delegatee = delegatee;
+            this.queuedNanos = queuedNanos;
+        }
+
+        public void run() {
+            final long start = taskStarted(this.queuedNanos);
+            try {
+                this.delegatee.run();
+            } finally {
+                taskFinished(start);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.delegatee.toString();
+        }
+    }
+
+    private final class StatisticsRejectedExecutionHandler implements RejectedExecutionHandler {
+
+        private final ThreadPoolPolicy policy;
+
+        StatisticsRejectedExecutionHandler(final ThreadPoolPolicy policy) {
+            this.policy = policy;
+        }
+
+        public void rejectedExecution(final Runnable r, final ThreadPoolExecutor executor) {
+            rejectedCount.incrementAndGet();
+            switch ( this.policy ) {
+                case ABORT :
+                    queuedCount.decrementAndGet();
+                    throw new RejectedExecutionException("Task " + r + " rejected from " + executor);
+                case DISCARD :
+                    taskDiscarded();
+                    break;
+                case DISCARDOLDEST :
+                    if ( executor.isShutdown() ) {
+                        taskDiscarded();
+                    } else {
+                        if ( executor.getQueue().poll() != null ) {
+                            taskDiscarded();
+                        }
+                        executor.execute(r);
+                    }
+                    break;
+                case RUN :
+                    if ( executor.isShutdown() ) {
+                        taskDiscarded();
+                    } else {
+                        callerRunsCount.incrementAndGet();
+                        r.run();
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * A lock free histogram of durations using buckets with
+     * exponentially growing bounds: bucket <code>n</code> contains
+     * the durations less than <code>2^n</code> microseconds.
+     * Percentiles are therefore approximations returning the upper
+     * bound of the bucket.
+     */
+    public static final class Histogram {
+
+        private static final int BUCKETS = 40;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong totalMicros = new AtomicLong();
+
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void add(final long nanos) {
+            final long micros = Math.max(0, nanos / 1000);
+            final int index = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            this.buckets.incrementAndGet(index);
+            this.count.incrementAndGet();
+            this.totalMicros.addAndGet(micros);
+            long max = this.maxMicros.get();
+            while ( micros > max ) {
+                if ( this.maxMicros.compareAndSet(max, micros) ) {
+                    break;
+                }
+                max = this.maxMicros.get();
+            }
+        }
+
+        public long getCount() {
+            return this.count.get();
+        }
+
+        public long getMeanMicros() {
+            final long c = this.count.get();
+            return c == 0 ? 0 : this.totalMicros.get() / c;
+        }
+
+        public long getMaxMicros() {
+            return this.maxMicros.get();
+        }
+
+        /**
+         * Return the approximated percentile.
+         * @param percentile The percentile between 0 and 100
+         * @return The upper bound of the bucket containing the percentile.
+         */
+        public long getPercentileMicros(final double percentile) {
+            final long[] values = new long[BUCKETS];
+            long total = 0;
+            for(int i=0; i<BUCKETS; i++) {
+                values[i] = this.buckets.get(i);
+                total += values[i];
+            }
+            if ( total == 0 ) {
+                return 0;
+            }
+            final long threshold = (long)Math.ceil(total * percentile / 100.0);
+            long sum = 0;
+            for(int i=0; i<BUCKETS; i++) {
+                sum += values[i];
+                if ( sum >= threshold ) {
+                    return Math.min(1L << i, this.maxMicros.get());
+                }
+            }
+            return this.maxMicros.get();
+        }
+    }
+}
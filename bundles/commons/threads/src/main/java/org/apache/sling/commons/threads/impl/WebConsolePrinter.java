@@ -21,6 +21,7 @@ package org.apache.sling.commons.threads.impl;
 import java.io.PrintWriter;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.sling.commons.threads.ThreadPoolConfig;
@@ -86,6 +87,8 @@ public class WebConsolePrinter {
                 }
                 pw.print("- used : ");
                 pw.println(entry.isUsed());
+                pw.print("- pool type : ");
+                pw.println(config.getPoolType());
                 pw.print("- min pool size : ");
                 pw.println(config.getMinPoolSize());
                 pw.print("- max pool size : ");
@@ -104,8 +107,9 @@ public class WebConsolePrinter {
                 pw.println(config.getShutdownWaitTimeMs());
                 pw.print("- daemon : ");
                 pw.println(config.isDaemon());
-                final ThreadPoolExecutor tpe = entry.getExecutor();
-                if ( tpe != null ) {
+                final ExecutorService executor = entry.getExecutor();
+                if ( executor instanceof ThreadPoolExecutor ) {
+                    final ThreadPoolExecutor tpe = (ThreadPoolExecutor) executor;
                     pw.print("- active count : ");
                     pw.println(tpe.getActiveCount());
                     pw.print("- completed task count : ");
@@ -120,6 +124,34 @@ public class WebConsolePrinter {
                     pw.println(tpe.getPoolSize());
                     pw.print("- task count : ");
                     pw.println(tpe.getTaskCount());
+                } else if ( ExecutorFactory.isForkJoinPool(executor) ) {
+                    pw.print("- active count : ");
+                    pw.println(ExecutorFactory.getForkJoinStatistic(executor, "getActiveThreadCount"));
+                    pw.print("- parallelism : ");
+                    pw.println(ExecutorFactory.getForkJoinStatistic(executor, "getParallelism"));
+                    pw.print("- pool size : ");
+                    pw.println(ExecutorFactory.getForkJoinStatistic(executor, "getPoolSize"));
+                    pw.print("- queued task count : ");
+                    pw.println(ExecutorFactory.getForkJoinStatistic(executor, "getQueuedTaskCount"));
+                    pw.print("- steal count : ");
+                    pw.println(ExecutorFactory.getForkJoinStatistic(executor, "getStealCount"));
+                }
+                final ThreadPoolStatistics stats = entry.getStatistics();
+                if ( stats != null ) {
+                    pw.print("- task wait time (mean/p50/p95/p99/max in us) : ");
+                    printHistogram(pw, stats.getWaitTime());
+                    pw.print("- task run time (mean/p50/p95/p99/max in us) : ");
+                    printHistogram(pw, stats.getRunTime());
+                    pw.print("- queued tasks (current/peak) : ");
+                    pw.print(stats.getQueuedCount());
+                    pw.print("/");
+                    pw.println(stats.getPeakQueuedCount());
+                    pw.print("- rejected tasks (total/caller runs/discarded) : ");
+                    pw.print(stats.getRejectedCount());
+                    pw.print("/");
+                    pw.print(stats.getCallerRunsCount());
+                    pw.print("/");
+                    pw.println(stats.getDiscardedCount());
                 }
                 pw.println();
             }
@@ -127,4 +159,19 @@ public class WebConsolePrinter {
             pw.println("No pools configured.");
         }
     }
+
+    private void printHistogram(final PrintWriter pw, final ThreadPoolStatistics.Histogram histogram) {
+        pw.print(histogram.getMeanMicros());
+        pw.print("/");
+        pw.print(histogram.getPercentileMicros(50));
+        pw.print("/");
+        pw.print(histogram.getPercentileMicros(95));
+        pw.print("/");
+        pw.print(histogram.getPercentileMicros(99));
+        pw.print("/");
+        pw.print(histogram.getMaxMicros());
+        pw.print(" (");
+        pw.print(histogram.getCount());
+        pw.println(" tasks)");
+    }
 }
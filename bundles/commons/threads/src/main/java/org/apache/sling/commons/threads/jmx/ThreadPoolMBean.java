@@ -79,6 +79,114 @@ public interface ThreadPoolMBean {
      */
     long getExecutorTaskCount();
 
+    /**
+     * Retrieve the steal count from the pool's Executor.
+     * 
+     * @return the steal count or -1 if the thread pool does not have a work stealing Executor
+     * @since 1.1
+     */
+    long getExecutorStealCount();
+
+    /**
+     * Return the number of tasks which have been started since the
+     * pool has been created.
+     * 
+     * @return the started task count or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getStartedTaskCount();
+
+    /**
+     * Return the mean time tasks waited between submission and start.
+     * 
+     * @return the mean wait time in microseconds or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getTaskWaitTimeMeanMicros();
+
+    /**
+     * Return the approximated 99th percentile of the time tasks waited
+     * between submission and start.
+     * 
+     * @return the wait time in microseconds or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getTaskWaitTime99thPercentileMicros();
+
+    /**
+     * Return the max time a task waited between submission and start.
+     * 
+     * @return the max wait time in microseconds or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getTaskWaitTimeMaxMicros();
+
+    /**
+     * Return the mean execution time of the tasks.
+     * 
+     * @return the mean run time in microseconds or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getTaskRunTimeMeanMicros();
+
+    /**
+     * Return the approximated 99th percentile of the execution time of the tasks.
+     * 
+     * @return the run time in microseconds or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getTaskRunTime99thPercentileMicros();
+
+    /**
+     * Return the max execution time of a task.
+     * 
+     * @return the max run time in microseconds or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getTaskRunTimeMaxMicros();
+
+    /**
+     * Return the number of tasks rejected by the pool. Depending on the
+     * block policy these tasks have been aborted, discarded or run by
+     * the calling thread.
+     * 
+     * @return the rejected task count or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getRejectedTaskCount();
+
+    /**
+     * Return the number of rejected tasks which have been run by the calling thread.
+     * 
+     * @return the caller runs count or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getCallerRunsTaskCount();
+
+    /**
+     * Return the number of discarded tasks.
+     * 
+     * @return the discarded task count or -1 if the pool is not active
+     * @since 1.1
+     */
+    long getDiscardedTaskCount();
+
+    /**
+     * Return the number of submitted tasks which have not been started yet.
+     * 
+     * @return the queued task count or -1 if the pool is not active
+     * @since 1.1
+     */
+    int getQueuedTaskCount();
+
+    /**
+     * Return the max number of submitted tasks which have not been started yet.
+     * 
+     * @return the peak queued task count or -1 if the pool is not active
+     * @since 1.1
+     */
+    int getPeakQueuedTaskCount();
+
     /**
      * Return the configured keep alive time.
      * 
@@ -114,6 +222,14 @@ public interface ThreadPoolMBean {
      */
     String getPid();
 
+    /**
+     * Return the type of the thread pool.
+     * 
+     * @return the pool type
+     * @since 1.1
+     */
+    String getPoolType();
+
     /**
      * Return the configured priority of the thread pool.
      * 
@@ -19,8 +19,11 @@
 package org.apache.sling.fsprovider.internal;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -30,15 +33,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class is a monitor for the file system
- * that periodically checks for changes.
+ * This class is a monitor for the file system.
+ * <p>
+ * If the platform provides a watch service (see {@link FileWatcher}) and the
+ * root is a directory, all directories are watched and only a directory
+ * reporting changes is checked. Otherwise the whole tree is checked
+ * periodically.
  */
 public class FileMonitor extends TimerTask {
 
+    /** The depth to check the complete tree. */
+    private static final int DEPTH_INFINITE = Integer.MAX_VALUE;
+
     /** The logger. */
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private final Timer timer = new Timer();
+    private final Object lock = new Object();
+    private volatile Timer timer;
     private boolean stop = false;
     private boolean stopped = true;
 
@@ -46,36 +57,104 @@ public class FileMonitor extends TimerTask {
 
     private final FsResourceProvider provider;
 
+    private final long interval;
+
+    /** The watcher or <code>null</code> if polling. */
+    private FileWatcher watcher;
+
+    /** The thread waiting for watch keys. */
+    private Thread watcherThread;
+
+    /** The watched directories by watch key, access is synchronized on this. */
+    private final Map<Object, Monitorable> watched = new HashMap<Object, Monitorable>();
+
     /**
      * Creates a new instance of this class.
      * @param provider The resource provider.
      * @param interval The interval between executions of the task, in milliseconds.
+     * @param watch Whether to use a watch service if available.
      */
-    public FileMonitor(final FsResourceProvider provider, final long interval) {
+    public FileMonitor(final FsResourceProvider provider, final long interval, final boolean watch) {
         this.provider = provider;
+        this.interval = interval;
         this.root = new Monitorable(this.provider.getProviderRoot(), this.provider.getRootFile());
         createStatus(this.root);
+        if ( watch && this.root.status instanceof DirStatus ) {
+            this.watcher = FileWatcher.open();
+        }
+        if ( this.watcher != null ) {
+            logger.debug("Starting file watcher for {}", this.root.file);
+            synchronized ( this ) {
+                this.watch(this.root, false);
+            }
+            this.watcherThread = new Thread(new Runnable() {
+                public void run() {
+                    FileMonitor.this.watch();
+                }
+            }, "Apache Sling Filesystem Resource Watcher " + this.root.file);
+            this.watcherThread.setDaemon(true);
+            this.watcherThread.start();
+        } else {
+            this.startPolling();
+        }
+    }
+
+    /**
+     * Creates a new instance of this class periodically checking for changes.
+     * @param provider The resource provider.
+     * @param interval The interval between executions of the task, in milliseconds.
+     */
+    public FileMonitor(final FsResourceProvider provider, final long interval) {
+        this(provider, interval, false);
+    }
+
+    private void startPolling() {
         logger.debug("Starting file monitor for {} with an interval of {}ms", this.root.file, interval);
-        timer.schedule(this, 0, interval);
+        synchronized (lock) {
+            if (!stop) {
+                timer = new Timer();
+                timer.schedule(this, 0, interval);
+            }
+        }
     }
 
     /**
-     * Stop periodically executing this task. If the task is currently executing it
+     * Stop watching and periodically executing this task. If the task is currently executing it
      * will never be run again after the current execution, otherwise it will simply
      * never run (again).
      */
     void stop() {
-        synchronized (timer) {
+        final FileWatcher localWatcher;
+        synchronized ( this ) {
+            localWatcher = this.watcher;
+        }
+        if ( localWatcher != null ) {
+            localWatcher.close();
+            boolean interrupted = false;
+            while ( this.watcherThread.isAlive() ) {
+                try {
+                    this.watcherThread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
             if (!stop) {
                 stop = true;
                 cancel();
-                timer.cancel();
+                if (timer != null) {
+                    timer.cancel();
+                }
             }
 
             boolean interrupted = false;
             while (!stopped) {
                 try {
-                    timer.wait();
+                    lock.wait();
                 }
                 catch (InterruptedException e) {
                     interrupted = true;
@@ -92,11 +171,11 @@ public class FileMonitor extends TimerTask {
      * @see java.util.TimerTask#run()
      */
     public void run() {
-        synchronized (timer) {
+        synchronized (lock) {
             stopped = false;
             if (stop) {
                 stopped = true;
-                timer.notifyAll();
+                lock.notifyAll();
                 return;
             }
         }
@@ -105,24 +184,112 @@ public class FileMonitor extends TimerTask {
                 // if we don't have an event admin, we just skip the check
                 final EventAdmin localEA = this.provider.getEventAdmin();
                 if ( localEA != null ) {
-                    this.check(this.root, localEA);
+                    this.check(this.root, localEA, DEPTH_INFINITE);
                 }
             } catch (Exception e) {
                 // ignore this
             }
         }
-        synchronized (timer) {
+        synchronized (lock) {
             stopped = true;
-            timer.notifyAll();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Process the watch keys until the watcher is closed.
+     */
+    private void watch() {
+        Object key;
+        while ( (key = this.watcher.take()) != null ) {
+            final boolean overflow = this.watcher.pollEvents(key);
+            synchronized ( this ) {
+                final Monitorable monitorable = this.watched.get(key);
+                // events are sent if possible, the status is always updated
+                final EventAdmin localEA = this.provider.getEventAdmin();
+                try {
+                    if ( overflow ) {
+                        logger.debug("Lost events for {}, checking all files", this.root.file);
+                        this.check(this.root, localEA, DEPTH_INFINITE);
+                        this.watch(this.root, true);
+                    } else if ( monitorable != null ) {
+                        this.check(monitorable, localEA, 1);
+                        this.watch(monitorable, true);
+                    }
+                } catch (Exception e) {
+                    // ignore this
+                }
+                if ( !this.watcher.reset(key) && this.watched.remove(key) != null ) {
+                    monitorable.watchKey = null;
+                }
+                if ( this.root.watchKey == null ) {
+                    // the root has gone, poll until it comes back
+                    this.unwatch(this.root);
+                    this.watcher.close();
+                    this.watcher = null;
+                    this.startPolling();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Watch the monitorable if it is a directory and all directories
+     * below which are not watched yet.
+     * @param monitorable The monitorable
+     * @param recheck Whether to check new directories again, this
+     *                detects changes before the directory was watched.
+     */
+    private void watch(final Monitorable monitorable, final boolean recheck) {
+        if ( monitorable.status instanceof DirStatus ) {
+            if ( monitorable.watchKey == null ) {
+                try {
+                    monitorable.watchKey = this.watcher.register(monitorable.file);
+                    this.watched.put(monitorable.watchKey, monitorable);
+                } catch (IOException ioe) {
+                    logger.debug("Cannot watch " + monitorable.file, ioe);
+                    return;
+                }
+                if ( recheck ) {
+                    this.check(monitorable, this.provider.getEventAdmin(), 1);
+                }
+            }
+            final DirStatus ds = (DirStatus)monitorable.status;
+            for(int i=0; i<ds.children.length; i++) {
+                if ( ds.children[i].watchKey == null ) {
+                    watch(ds.children[i], recheck);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop watching the monitorable and all directories below.
+     * @param monitorable The monitorable
+     */
+    private void unwatch(final Monitorable monitorable) {
+        if ( monitorable.watchKey != null ) {
+            this.watched.remove(monitorable.watchKey);
+            this.watcher.cancel(monitorable.watchKey);
+            monitorable.watchKey = null;
+        }
+        if ( monitorable.status instanceof DirStatus ) {
+            final DirStatus ds = (DirStatus)monitorable.status;
+            for(int i=0; i<ds.children.length; i++) {
+                unwatch(ds.children[i]);
+            }
         }
     }
 
     /**
      * Check the monitorable
      * @param monitorable The monitorable to check
-     * @param localEA The event admin
+     * @param localEA The event admin, if <code>null</code> only the status is updated
+     * @param depth The depth of directories to check below the monitorable,
+     *              the contents of directories are not checked at depth 0.
      */
-    private void check(final Monitorable monitorable, final EventAdmin localEA) {
+    private void check(final Monitorable monitorable, final EventAdmin localEA, final int depth) {
         logger.debug("Checking {}", monitorable.file);
         // if the file is non existing, check if it has been readded
         if ( monitorable.status instanceof NonExistingStatus ) {
@@ -140,10 +307,17 @@ public class FileMonitor extends TimerTask {
                 sendEvents(monitorable,
                            SlingConstants.TOPIC_RESOURCE_REMOVED,
                            localEA);
+                if ( this.watcher != null ) {
+                    this.unwatch(monitorable);
+                }
                 monitorable.status = NonExistingStatus.SINGLETON;
             } else {
                 // check for changes
                 final FileStatus fs = (FileStatus)monitorable.status;
+                if ( fs instanceof DirStatus && depth == 0 ) {
+                    // the directory is checked on its own
+                    return;
+                }
                 boolean changed = false;
                 if ( fs.lastModified < monitorable.file.lastModified() ) {
                     fs.lastModified = monitorable.file.lastModified();
@@ -157,7 +331,7 @@ public class FileMonitor extends TimerTask {
                     // directory
                     final DirStatus ds = (DirStatus)fs;
                     for(int i=0; i<ds.children.length; i++) {
-                        check(ds.children[i], localEA);
+                        check(ds.children[i], localEA, depth - 1);
                     }
                     // if the dir changed we have to update
                     if ( changed ) {
@@ -178,7 +352,7 @@ public class FileMonitor extends TimerTask {
                                         monitorable.path + '/'
                                             + files[i].getName(), files[i]);
                                     children[i].status = NonExistingStatus.SINGLETON;
-                                    check(children[i], localEA);
+                                    check(children[i], localEA, 0);
                                 }
                             }
                             ds.children = children;
@@ -198,6 +372,9 @@ public class FileMonitor extends TimerTask {
         if ( logger.isDebugEnabled() ) {
             logger.debug("Detected change for resource {} : {}", monitorable.path, topic);
         }
+        if ( localEA == null ) {
+            return;
+        }
 
         final Dictionary<String, String> properties = new Hashtable<String, String>();
         properties.put(SlingConstants.PROPERTY_PATH, monitorable.path);
@@ -225,6 +402,8 @@ public class FileMonitor extends TimerTask {
         public final String path;
         public final File   file;
         public Object status;
+        /** The watch key if the directory is watched. */
+        public Object watchKey;
 
         public Monitorable(final String path, final File file) {
             this.path = path;
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.fsprovider.internal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>FileWatcher</code> is a thin wrapper around a
+ * <code>java.nio.file.WatchService</code> of the default file system.
+ * <p>
+ * The watch service is only available as of Java 7 while this bundle still
+ * runs on Java 5, therefore the service is accessed through reflection. If
+ * the platform has no watch service, {@link #open()} returns
+ * <code>null</code> and the {@link FileMonitor} falls back to periodically
+ * checking the file system.
+ * <p>
+ * Watch keys are passed around as plain objects.
+ */
+class FileWatcher {
+
+    /** The reflective accessors, <code>null</code> if not supported. */
+    private static final Api API = Api.load();
+
+    /** The watch service, this is also a <code>Closeable</code>. */
+    private final Object service;
+
+    private FileWatcher(final Object service) {
+        this.service = service;
+    }
+
+    /**
+     * Opens a new watch service on the default file system.
+     * @return The watcher or <code>null</code> if the platform does not
+     *         support watching the file system.
+     */
+    static FileWatcher open() {
+        if ( API != null ) {
+            try {
+                return new FileWatcher(API.newWatchService.invoke(API.fileSystem));
+            } catch (final Exception e) {
+                LoggerFactory.getLogger(FileWatcher.class).info(
+                    "Cannot open a watch service, falling back to polling", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Watches the directory for created, deleted and modified entries.
+     * @param dir The directory
+     * @return The watch key
+     * @throws IOException If the directory cannot be watched
+     */
+    Object register(final File dir) throws IOException {
+        try {
+            final Object path = API.toPath.invoke(dir);
+            return API.register.invoke(path, this.service, API.kinds);
+        } catch (final InvocationTargetException ite) {
+            final Throwable cause = ite.getCause();
+            if ( cause instanceof IOException ) {
+                throw (IOException)cause;
+            }
+            throw (IOException)new IOException("Cannot watch " + dir).initCause(cause);
+        } catch (final IllegalAccessException iae) {
+            throw (IOException)new IOException("Cannot watch " + dir).initCause(iae);
+        }
+    }
+
+    /**
+     * Waits for the next signalled watch key.
+     * @return The key or <code>null</code> if the watcher has been closed or
+     *         the thread has been interrupted.
+     */
+    Object take() {
+        try {
+            return API.take.invoke(this.service);
+        } catch (final Exception e) {
+            // closed watch service or interrupted
+            return null;
+        }
+    }
+
+    /**
+     * Removes the pending events of the key.
+     * @param key The watch key
+     * @return <code>true</code> if events have been lost, that is the
+     *         directory of the key has to be checked completely.
+     */
+    boolean pollEvents(final Object key) {
+        try {
+            boolean overflow = false;
+            final List<?> events = (List<?>)API.pollEvents.invoke(key);
+            for(final Object event : events) {
+                if ( API.overflow == API.kind.invoke(event) ) {
+                    overflow = true;
+                }
+            }
+            return overflow;
+        } catch (final Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * Resets the key to receive further events.
+     * @param key The watch key
+     * @return <code>false</code> if the key is not valid anymore, e.g.
+     *         because the directory has been removed.
+     */
+    boolean reset(final Object key) {
+        try {
+            return (Boolean)API.reset.invoke(key);
+        } catch (final Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stops watching the directory of the key.
+     * @param key The watch key
+     */
+    void cancel(final Object key) {
+        try {
+            API.cancel.invoke(key);
+        } catch (final Exception e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Closes the watch service. Threads waiting in {@link #take()} return.
+     */
+    void close() {
+        try {
+            ((Closeable)this.service).close();
+        } catch (final IOException ioe) {
+            // ignore
+        }
+    }
+
+    /** The methods and constants of the <code>java.nio.file</code> API. */
+    private static final class Api {
+
+        Object fileSystem;
+        Object kinds;
+        Object overflow;
+        Method toPath;
+        Method newWatchService;
+        Method register;
+        Method take;
+        Method pollEvents;
+        Method kind;
+        Method reset;
+        Method cancel;
+
+        static Api load() {
+            final Logger logger = LoggerFactory.getLogger(FileWatcher.class);
+            try {
+                final Class<?> fileSystemsClass = Class.forName("java.nio.file.FileSystems");
+                final Class<?> fileSystemClass = Class.forName("java.nio.file.FileSystem");
+                final Class<?> pathClass = Class.forName("java.nio.file.Path");
+                final Class<?> serviceClass = Class.forName("java.nio.file.WatchService");
+                final Class<?> keyClass = Class.forName("java.nio.file.WatchKey");
+                final Class<?> eventClass = Class.forName("java.nio.file.WatchEvent");
+                final Class<?> kindClass = Class.forName("java.nio.file.WatchEvent$Kind");
+                final Class<?> kindsClass = Class.forName("java.nio.file.StandardWatchEventKinds");
+
+                final Api api = new Api();
+                api.fileSystem = fileSystemsClass.getMethod("getDefault").invoke(null);
+                api.kinds = Array.newInstance(kindClass, 3);
+                Array.set(api.kinds, 0, kindsClass.getField("ENTRY_CREATE").get(null));
+                Array.set(api.kinds, 1, kindsClass.getField("ENTRY_DELETE").get(null));
+                Array.set(api.kinds, 2, kindsClass.getField("ENTRY_MODIFY").get(null));
+                api.overflow = kindsClass.getField("OVERFLOW").get(null);
+                api.toPath = File.class.getMethod("toPath");
+                api.newWatchService = fileSystemClass.getMethod("newWatchService");
+                api.register = pathClass.getMethod("register", serviceClass, api.kinds.getClass());
+                api.take = serviceClass.getMethod("take");
+                api.pollEvents = keyClass.getMethod("pollEvents");
+                api.kind = eventClass.getMethod("kind");
+                api.reset = keyClass.getMethod("reset");
+                api.cancel = keyClass.getMethod("cancel");
+                return api;
+            } catch (final ClassNotFoundException cnfe) {
+                logger.debug("No watch service available: {}", cnfe.toString());
+            } catch (final Exception e) {
+                logger.info("Cannot access the watch service", e);
+            }
+            return null;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,7 +46,7 @@ import org.slf4j.LoggerFactory;
  */
 @Adaptable(adaptableClass=Resource.class, adapters={
     @Adapter({File.class, URL.class}),
-    @Adapter(condition="If the resource is an FsResource and is a readable file.", value=InputStream.class)
+    @Adapter(condition="If the resource is an FsResource and is a readable file.", value={InputStream.class, FileChannel.class})
 })
 public class FsResource extends AbstractResource implements Resource {
 
@@ -149,8 +150,9 @@ public class FsResource extends AbstractResource implements Resource {
 
     /**
      * Returns an adapter for this resource. This implementation supports
-     * <code>File</code>, <code>InputStream</code> and <code>URL</code>
-     * plus those supported by the adapter manager.
+     * <code>File</code>, <code>InputStream</code>, <code>FileChannel</code>
+     * and <code>URL</code> plus those supported by the adapter manager.
+     * The caller has to close a returned stream or channel.
      */
     @Override
     @SuppressWarnings("unchecked")
@@ -177,6 +179,24 @@ public class FsResource extends AbstractResource implements Resource {
 
             }
 
+        } else if (type == FileChannel.class) {
+
+            if (!file.isDirectory() && file.canRead()) {
+
+                try {
+                    return (AdapterType) new FileInputStream(file).getChannel();
+                } catch (IOException ioe) {
+                    getLog().info(
+                            "adaptTo: Cannot open a channel on the file " + file,
+                            ioe);
+                }
+
+            } else {
+
+                getLog().debug("adaptTo: File {} is not a readable file", file);
+
+            }
+
         } else if (type == URL.class) {
 
             try {
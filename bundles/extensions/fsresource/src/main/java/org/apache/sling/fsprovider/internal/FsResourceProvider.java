@@ -84,6 +84,16 @@ public class FsResourceProvider implements ResourceProvider {
 
     public static final long DEFAULT_CHECKINTERVAL = 1000;
 
+    /**
+     * The name of the configuration property enabling the detection of file
+     * changes through file system notifications instead of periodic checks
+     * where supported by the platform (value is "provider.watch").
+     */
+    @Property(boolValue=FsResourceProvider.DEFAULT_WATCH)
+    public static final String PROP_PROVIDER_WATCH = "provider.watch";
+
+    public static final boolean DEFAULT_WATCH = true;
+
     // The location in the resource tree where the resources are mapped
     private String providerRoot;
 
@@ -231,7 +241,14 @@ public class FsResourceProvider implements ResourceProvider {
             checkInterval = (Long)interval;
         }
         if ( checkInterval > 100 ) {
-            this.monitor = new FileMonitor(this, checkInterval);
+            boolean watch = DEFAULT_WATCH;
+            final Object watchProp = props.get(PROP_PROVIDER_WATCH);
+            if ( watchProp instanceof Boolean ) {
+                watch = (Boolean)watchProp;
+            } else if ( watchProp != null ) {
+                watch = Boolean.valueOf(watchProp.toString());
+            }
+            this.monitor = new FileMonitor(this, checkInterval, watch);
         }
     }
 
@@ -37,16 +37,15 @@ public abstract class AbstractNamespaceMappingRepository implements SlingReposit
     /** Namespace handler. */
     private Loader namespaceHandler;
 
-    /** Session proxy handler. */
-    private SessionProxyHandler sessionProxyHandler;
-
     private ServiceTracker namespaceMapperTracker;
 
+    /** The namespace mappers as of the tracking count of the tracker. */
+    private volatile NamespaceMappers namespaceMappers;
+
     protected void setup(final BundleContext bundleContext) {
         this.namespaceMapperTracker = new ServiceTracker(bundleContext, NamespaceMapper.class.getName(), null);
         this.namespaceMapperTracker.open();
         this.namespaceHandler = new Loader(this, bundleContext);
-        this.sessionProxyHandler = new SessionProxyHandler(this);
     }
 
     protected void tearDown() {
@@ -58,7 +57,7 @@ public abstract class AbstractNamespaceMappingRepository implements SlingReposit
             this.namespaceHandler.dispose();
             this.namespaceHandler = null;
         }
-        this.sessionProxyHandler = null;
+        this.namespaceMappers = null;
     }
 
     void defineNamespacePrefixes(final Session session) throws RepositoryException {
@@ -68,15 +67,37 @@ public abstract class AbstractNamespaceMappingRepository implements SlingReposit
             localHandler.defineNamespacePrefixes(session);
         }
 
-        if (namespaceMapperTracker != null) {
-            // call namespace mappers
-            final Object[] nsMappers = namespaceMapperTracker.getServices();
-            if (nsMappers != null) {
-                for (int i = 0; i < nsMappers.length; i++) {
-                    ((NamespaceMapper) nsMappers[i]).defineNamespacePrefixes(session);
-                }
+        // call namespace mappers
+        final NamespaceMapper[] nsMappers = getNamespaceMappers();
+        for (int i = 0; i < nsMappers.length; i++) {
+            nsMappers[i].defineNamespacePrefixes(session);
+        }
+    }
+
+    /**
+     * Returns the namespace mappers. The services are only collected from
+     * the tracker again if the tracked services have changed.
+     */
+    private NamespaceMapper[] getNamespaceMappers() {
+        final ServiceTracker tracker = this.namespaceMapperTracker;
+        if (tracker == null) {
+            return new NamespaceMapper[0];
+        }
+        final int trackingCount = tracker.getTrackingCount();
+        NamespaceMappers mappers = this.namespaceMappers;
+        if (mappers == null || mappers.trackingCount != trackingCount) {
+            final Object[] services = tracker.getServices();
+            final NamespaceMapper[] result;
+            if (services == null) {
+                result = new NamespaceMapper[0];
+            } else {
+                result = new NamespaceMapper[services.length];
+                System.arraycopy(services, 0, result, 0, services.length);
             }
+            mappers = new NamespaceMappers(trackingCount, result);
+            this.namespaceMappers = mappers;
         }
+        return mappers.mappers;
     }
 
     /**
@@ -89,11 +110,19 @@ public abstract class AbstractNamespaceMappingRepository implements SlingReposit
         defineNamespacePrefixes(session);
 
         // to support namespace prefixes if session.impersonate is called
-        // we have to use a proxy
-        final SessionProxyHandler localHandler = this.sessionProxyHandler;
-        if ( localHandler != null ) {
-            return localHandler.createProxy(session);
+        // we have to wrap the session
+        return NamespaceAwareSession.wrap(session, this);
+    }
+
+    private static final class NamespaceMappers {
+
+        final int trackingCount;
+
+        final NamespaceMapper[] mappers;
+
+        NamespaceMappers(final int trackingCount, final NamespaceMapper[] mappers) {
+            this.trackingCount = trackingCount;
+            this.mappers = mappers;
         }
-        return session;
     }
 }
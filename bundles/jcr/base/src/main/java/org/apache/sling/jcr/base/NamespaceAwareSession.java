@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.base;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.AccessControlException;
+
+import javax.jcr.AccessDeniedException;
+import javax.jcr.Credentials;
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.InvalidSerializedDataException;
+import javax.jcr.Item;
+import javax.jcr.ItemExistsException;
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.LoginException;
+import javax.jcr.NamespaceException;
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Property;
+import javax.jcr.ReferentialIntegrityException;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.UnsupportedRepositoryOperationException;
+import javax.jcr.ValueFactory;
+import javax.jcr.Workspace;
+import javax.jcr.lock.LockException;
+import javax.jcr.nodetype.ConstraintViolationException;
+import javax.jcr.nodetype.NoSuchNodeTypeException;
+import javax.jcr.retention.RetentionManager;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.version.VersionException;
+import javax.transaction.xa.XAResource;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.XASession;
+import org.apache.jackrabbit.api.security.principal.PrincipalManager;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * The <code>NamespaceAwareSession</code> delegates all calls to the
+ * session of the repository and applies the namespace mapping to sessions
+ * created by {@link #impersonate(Credentials)}.
+ * <p>
+ * This replaces the dynamic proxies of the {@link SessionProxyHandler}
+ * which dispatch every call by reflection. Sessions implementing the
+ * Jackrabbit API are wrapped by subclasses implementing the respective
+ * interfaces.
+ */
+class NamespaceAwareSession implements Session {
+
+    /** The session of the repository. */
+    private final Session delegatee;
+
+    /** The repository providing the namespace mapping. */
+    private final AbstractNamespaceMappingRepository repository;
+
+    /**
+     * Wraps the session with a namespace aware session implementing the
+     * same Jackrabbit API interfaces as the session.
+     */
+    static Session wrap(final Session session,
+            final AbstractNamespaceMappingRepository repository) {
+        if (session instanceof JackrabbitSession) {
+            if (session instanceof XASession) {
+                return new NamespaceAwareXASession(session, repository);
+            }
+            return new NamespaceAwareJackrabbitSession(session, repository);
+        }
+        return new NamespaceAwareSession(session, repository);
+    }
+
+    NamespaceAwareSession(final Session delegatee,
+            final AbstractNamespaceMappingRepository repository) {
+        this.delegatee = delegatee;
+        this.repository = repository;
+    }
+
+    /**
+     * Returns the session of the repository.
+     */
+    Session getDelegatee() {
+        return this.delegatee;
+    }
+
+    public Session impersonate(final Credentials credentials)
+    throws LoginException, RepositoryException {
+        final Session session = this.delegatee.impersonate(credentials);
+        this.repository.defineNamespacePrefixes(session);
+        return wrap(session, this.repository);
+    }
+
+    public Repository getRepository() {
+        return this.delegatee.getRepository();
+    }
+
+    public String getUserID() {
+        return this.delegatee.getUserID();
+    }
+
+    public String[] getAttributeNames() {
+        return this.delegatee.getAttributeNames();
+    }
+
+    public Object getAttribute(final String name) {
+        return this.delegatee.getAttribute(name);
+    }
+
+    public Workspace getWorkspace() {
+        return this.delegatee.getWorkspace();
+    }
+
+    public Node getRootNode() throws RepositoryException {
+        return this.delegatee.getRootNode();
+    }
+
+    @SuppressWarnings("deprecation")
+    public Node getNodeByUUID(final String uuid)
+    throws ItemNotFoundException, RepositoryException {
+        return this.delegatee.getNodeByUUID(uuid);
+    }
+
+    public Node getNodeByIdentifier(final String id)
+    throws ItemNotFoundException, RepositoryException {
+        return this.delegatee.getNodeByIdentifier(id);
+    }
+
+    public Item getItem(final String absPath)
+    throws PathNotFoundException, RepositoryException {
+        return this.delegatee.getItem(absPath);
+    }
+
+    public Node getNode(final String absPath)
+    throws PathNotFoundException, RepositoryException {
+        return this.delegatee.getNode(absPath);
+    }
+
+    public Property getProperty(final String absPath)
+    throws PathNotFoundException, RepositoryException {
+        return this.delegatee.getProperty(absPath);
+    }
+
+    public boolean itemExists(final String absPath) throws RepositoryException {
+        return this.delegatee.itemExists(absPath);
+    }
+
+    public boolean nodeExists(final String absPath) throws RepositoryException {
+        return this.delegatee.nodeExists(absPath);
+    }
+
+    public boolean propertyExists(final String absPath) throws RepositoryException {
+        return this.delegatee.propertyExists(absPath);
+    }
+
+    public void move(final String srcAbsPath, final String destAbsPath)
+    throws ItemExistsException, PathNotFoundException, VersionException,
+            ConstraintViolationException, LockException, RepositoryException {
+        this.delegatee.move(srcAbsPath, destAbsPath);
+    }
+
+    public void removeItem(final String absPath)
+    throws VersionException, LockException, ConstraintViolationException,
+            AccessDeniedException, RepositoryException {
+        this.delegatee.removeItem(absPath);
+    }
+
+    public void save()
+    throws AccessDeniedException, ItemExistsException,
+            ReferentialIntegrityException, ConstraintViolationException,
+            InvalidItemStateException, VersionException, LockException,
+            NoSuchNodeTypeException, RepositoryException {
+        this.delegatee.save();
+    }
+
+    public void refresh(final boolean keepChanges) throws RepositoryException {
+        this.delegatee.refresh(keepChanges);
+    }
+
+    public boolean hasPendingChanges() throws RepositoryException {
+        return this.delegatee.hasPendingChanges();
+    }
+
+    public ValueFactory getValueFactory()
+    throws UnsupportedRepositoryOperationException, RepositoryException {
+        return this.delegatee.getValueFactory();
+    }
+
+    public boolean hasPermission(final String absPath, final String actions)
+    throws RepositoryException {
+        return this.delegatee.hasPermission(absPath, actions);
+    }
+
+    public void checkPermission(final String absPath, final String actions)
+    throws AccessControlException, RepositoryException {
+        this.delegatee.checkPermission(absPath, actions);
+    }
+
+    public boolean hasCapability(final String methodName, final Object target,
+            final Object[] arguments) throws RepositoryException {
+        return this.delegatee.hasCapability(methodName, target, arguments);
+    }
+
+    public ContentHandler getImportContentHandler(final String parentAbsPath,
+            final int uuidBehavior)
+    throws PathNotFoundException, ConstraintViolationException,
+            VersionException, LockException, RepositoryException {
+        return this.delegatee.getImportContentHandler(parentAbsPath, uuidBehavior);
+    }
+
+    public void importXML(final String parentAbsPath, final InputStream in,
+            final int uuidBehavior)
+    throws IOException, PathNotFoundException, ItemExistsException,
+            ConstraintViolationException, VersionException,
+            InvalidSerializedDataException, LockException, RepositoryException {
+        this.delegatee.importXML(parentAbsPath, in, uuidBehavior);
+    }
+
+    public void exportSystemView(final String absPath,
+            final ContentHandler contentHandler, final boolean skipBinary,
+            final boolean noRecurse)
+    throws PathNotFoundException, SAXException, RepositoryException {
+        this.delegatee.exportSystemView(absPath, contentHandler, skipBinary, noRecurse);
+    }
+
+    public void exportSystemView(final String absPath, final OutputStream out,
+            final boolean skipBinary, final boolean noRecurse)
+    throws IOException, PathNotFoundException, RepositoryException {
+        this.delegatee.exportSystemView(absPath, out, skipBinary, noRecurse);
+    }
+
+    public void exportDocumentView(final String absPath,
+            final ContentHandler contentHandler, final boolean skipBinary,
+            final boolean noRecurse)
+    throws PathNotFoundException, SAXException, RepositoryException {
+        this.delegatee.exportDocumentView(absPath, contentHandler, skipBinary, noRecurse);
+    }
+
+    public void exportDocumentView(final String absPath, final OutputStream out,
+            final boolean skipBinary, final boolean noRecurse)
+    throws IOException, PathNotFoundException, RepositoryException {
+        this.delegatee.exportDocumentView(absPath, out, skipBinary, noRecurse);
+    }
+
+    public void setNamespacePrefix(final String prefix, final String uri)
+    throws NamespaceException, RepositoryException {
+        this.delegatee.setNamespacePrefix(prefix, uri);
+    }
+
+    public String[] getNamespacePrefixes() throws RepositoryException {
+        return this.delegatee.getNamespacePrefixes();
+    }
+
+    public String getNamespaceURI(final String prefix)
+    throws NamespaceException, RepositoryException {
+        return this.delegatee.getNamespaceURI(prefix);
+    }
+
+    public String getNamespacePrefix(final String uri)
+    throws NamespaceException, RepositoryException {
+        return this.delegatee.getNamespacePrefix(uri);
+    }
+
+    public void logout() {
+        this.delegatee.logout();
+    }
+
+    public boolean isLive() {
+        return this.delegatee.isLive();
+    }
+
+    public void addLockToken(final String lt) {
+        this.delegatee.addLockToken(lt);
+    }
+
+    public String[] getLockTokens() {
+        return this.delegatee.getLockTokens();
+    }
+
+    public void removeLockToken(final String lt) {
+        this.delegatee.removeLockToken(lt);
+    }
+
+    public AccessControlManager getAccessControlManager()
+    throws UnsupportedRepositoryOperationException, RepositoryException {
+        return this.delegatee.getAccessControlManager();
+    }
+
+    public RetentionManager getRetentionManager()
+    throws UnsupportedRepositoryOperationException, RepositoryException {
+        return this.delegatee.getRetentionManager();
+    }
+
+    @Override
+    public String toString() {
+        return this.delegatee.toString();
+    }
+
+    /**
+     * Namespace aware session of a <code>JackrabbitSession</code>.
+     */
+    static class NamespaceAwareJackrabbitSession extends NamespaceAwareSession
+            implements JackrabbitSession {
+
+        NamespaceAwareJackrabbitSession(final Session delegatee,
+                final AbstractNamespaceMappingRepository repository) {
+            super(delegatee, repository);
+        }
+
+        public PrincipalManager getPrincipalManager()
+        throws AccessDeniedException, UnsupportedRepositoryOperationException,
+                RepositoryException {
+            return ((JackrabbitSession) getDelegatee()).getPrincipalManager();
+        }
+
+        public UserManager getUserManager()
+        throws AccessDeniedException, UnsupportedRepositoryOperationException,
+                RepositoryException {
+            return ((JackrabbitSession) getDelegatee()).getUserManager();
+        }
+    }
+
+    /**
+     * Namespace aware session of a <code>JackrabbitSession</code> which is
+     * also an <code>XASession</code>.
+     */
+    static final class NamespaceAwareXASession extends NamespaceAwareJackrabbitSession
+            implements XASession {
+
+        NamespaceAwareXASession(final Session delegatee,
+                final AbstractNamespaceMappingRepository repository) {
+            super(delegatee, repository);
+        }
+
+        public XAResource getXAResource() {
+            return ((XASession) getDelegatee()).getXAResource();
+        }
+    }
+}
@@ -32,7 +32,11 @@ import javax.jcr.Session;
  * The session proxy handler creates session proxies to handle
  * the namespace mapping support if impersonate is called on
  * the session.
+ *
+ * @deprecated The {@link AbstractNamespaceMappingRepository} wraps sessions
+ *             without dynamic proxies. This class is not used anymore.
  */
+@Deprecated
 public class SessionProxyHandler  {
 
     /** The array of proxied interfaces. */
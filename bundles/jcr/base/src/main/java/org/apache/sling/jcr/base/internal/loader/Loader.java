@@ -63,9 +63,15 @@ public class Loader implements NamespaceMapper, BundleListener {
     // bundles whose registration failed and should be retried
     private final List<Bundle> delayedBundles;
 
-    /** Namespace prefix table. */
+    /** Namespace prefix table, access is synchronized on the table. */
     private final Map<Long, NamespaceEntry[]> namespaceTable = new HashMap<Long, NamespaceEntry[]>();
 
+    /** Incremented on each change of the namespace table. */
+    private volatile int namespaceTableVersion;
+
+    /** The prefix mappings resolved for the namespace table. */
+    private volatile PrefixMappings prefixMappings;
+
     public Loader(final SlingRepository repository, final BundleContext bundleContext) {
         this.bundleContext = bundleContext;
         this.slingRepository = repository;
@@ -91,45 +97,82 @@ public class Loader implements NamespaceMapper, BundleListener {
 
     //---------- NamespaceMapper interface
 
+    /**
+     * Defines the namespace prefixes of the namespace table for the session.
+     * The prefix mappings are resolved against the first session after the
+     * namespace table has changed. As the namespace registry is shared, the
+     * same mappings apply to all further sessions and are just set on them.
+     */
     public void defineNamespacePrefixes(Session session)
     throws RepositoryException {
-        final Iterator<NamespaceEntry[]> iter = this.namespaceTable.values().iterator();
-        while ( iter.hasNext() ) {
-            final NamespaceEntry[] entries = iter.next();
-            for(int i=0; i<entries.length; i++) {
-
-                // the namespace prefixing is a little bit tricky:
-                String mappedPrefix = null;
-                // first, we check if the namespace is registered with a prefix
+        final PrefixMappings mappings = this.prefixMappings;
+        boolean replayed = false;
+        if ( mappings != null && mappings.version == this.namespaceTableVersion ) {
+            try {
+                mappings.apply(session);
+                return;
+            } catch (NamespaceException ne) {
+                // the namespace registry has changed, resolve again
+                log.debug("defineNamespacePrefixes: Resolving prefix mappings again: {}", ne);
+                this.prefixMappings = null;
+                replayed = true;
+            }
+        }
+
+        final List<NamespaceEntry> entries = new ArrayList<NamespaceEntry>();
+        final int version;
+        synchronized ( this.namespaceTable ) {
+            version = this.namespaceTableVersion;
+            for(final NamespaceEntry[] bundleEntries : this.namespaceTable.values()) {
+                for(int i=0; i<bundleEntries.length; i++) {
+                    entries.add(bundleEntries[i]);
+                }
+            }
+        }
+
+        final List<PrefixMapping> resolved = new ArrayList<PrefixMapping>();
+        for(final NamespaceEntry entry : entries) {
+
+            // the namespace prefixing is a little bit tricky:
+            String mappedPrefix = null;
+            // first, we check if the namespace is registered with a prefix
+            try {
+                mappedPrefix = session.getNamespacePrefix(entry.namespace);
+            } catch (NamespaceException ne) {
+                // the namespace is not registered yet, so we should do this
+                // can we directly use the desired prefix?
+                mappedPrefix = entry.prefix + "_new";
                 try {
-                    mappedPrefix = session.getNamespacePrefix(entries[i].namespace);
-                } catch (NamespaceException ne) {
-                    // the namespace is not registered yet, so we should do this
-                    // can we directly use the desired prefix?
-                    mappedPrefix = entries[i].prefix + "_new";
-                    try {
-                        session.getNamespaceURI(entries[i].prefix);
-                    } catch (NamespaceException ne2) {
-                        // as an exception occured we can directly use the new prefix
-                        mappedPrefix = entries[i].prefix;
-                    }
-                    session.getWorkspace().getNamespaceRegistry().registerNamespace(mappedPrefix, entries[i].namespace);
+                    session.getNamespaceURI(entry.prefix);
+                } catch (NamespaceException ne2) {
+                    // as an exception occured we can directly use the new prefix
+                    mappedPrefix = entry.prefix;
                 }
-                // do we have to remap?
-                if ( mappedPrefix != null && !mappedPrefix.equals(entries[i].prefix ) ) {
-                    // check if the prefix is already used?
-                    String oldUri = null;
-                    try {
-                        oldUri = session.getNamespaceURI(entries[i].prefix);
-                        session.setNamespacePrefix(entries[i].prefix + "_old", oldUri);
-                    } catch (NamespaceException ne) {
-                        // ignore: prefix is not used
-                    }
-                    // finally set prefix
-                    session.setNamespacePrefix(entries[i].prefix, entries[i].namespace);
+                session.getWorkspace().getNamespaceRegistry().registerNamespace(mappedPrefix, entry.namespace);
+            }
+            // do we have to remap?
+            if ( mappedPrefix != null && !mappedPrefix.equals(entry.prefix ) ) {
+                // check if the prefix is already used?
+                String oldUri = null;
+                try {
+                    oldUri = session.getNamespaceURI(entry.prefix);
+                    session.setNamespacePrefix(entry.prefix + "_old", oldUri);
+                    resolved.add(new PrefixMapping(entry.prefix + "_old", oldUri));
+                } catch (NamespaceException ne) {
+                    // ignore: prefix is not used
                 }
+                // finally set prefix
+                session.setNamespacePrefix(entry.prefix, entry.namespace);
+                resolved.add(new PrefixMapping(entry.prefix, entry.namespace));
             }
         }
+
+        // only keep the mappings if they have been resolved for a session
+        // without any replayed mappings
+        if ( !replayed ) {
+            this.prefixMappings = new PrefixMappings(version,
+                resolved.toArray(new PrefixMapping[resolved.size()]));
+        }
     }
 
     // ---------- BundleListener ------------------------------------
@@ -219,7 +262,10 @@ public class Loader implements NamespaceMapper, BundleListener {
                 }
             }
             if ( entries.size() > 0 ) {
-                this.namespaceTable.put(bundle.getBundleId(), entries.toArray(new NamespaceEntry[entries.size()]));
+                synchronized ( this.namespaceTable ) {
+                    this.namespaceTable.put(bundle.getBundleId(), entries.toArray(new NamespaceEntry[entries.size()]));
+                    this.namespaceTableVersion++;
+                }
             }
         }
     }
@@ -229,7 +275,11 @@ public class Loader implements NamespaceMapper, BundleListener {
      * @param bundle The bundle.
      */
     protected void unregisterNamespaces(Bundle bundle) {
-        this.namespaceTable.remove(bundle.getBundleId());
+        synchronized ( this.namespaceTable ) {
+            if ( this.namespaceTable.remove(bundle.getBundleId()) != null ) {
+                this.namespaceTableVersion++;
+            }
+        }
     }
 
     private boolean registerBundleInternal (Bundle bundle, boolean isRetry) {
@@ -352,4 +402,36 @@ public class Loader implements NamespaceMapper, BundleListener {
             this.namespace = n;
         }
     }
+
+    private static final class PrefixMapping {
+
+        final String prefix;
+        final String namespace;
+
+        PrefixMapping(String p, String n) {
+            this.prefix = p;
+            this.namespace = n;
+        }
+    }
+
+    /**
+     * The session prefix mappings resolved for a version of the namespace
+     * table.
+     */
+    private static final class PrefixMappings {
+
+        final int version;
+        final PrefixMapping[] mappings;
+
+        PrefixMappings(int version, PrefixMapping[] mappings) {
+            this.version = version;
+            this.mappings = mappings;
+        }
+
+        void apply(Session session) throws RepositoryException {
+            for(int i=0; i<mappings.length; i++) {
+                session.setNamespacePrefix(mappings[i].prefix, mappings[i].namespace);
+            }
+        }
+    }
 }
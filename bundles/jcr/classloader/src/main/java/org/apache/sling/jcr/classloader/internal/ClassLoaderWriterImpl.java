@@ -24,7 +24,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.jcr.Item;
 import javax.jcr.Node;
@@ -90,6 +93,20 @@ public class ClassLoaderWriterImpl
     /** The owner of the class loader / jcr user. */
     private String classLoaderOwner;
 
+    private static final boolean BATCH_WRITES_DEFAULT = false;
+
+    @org.apache.felix.scr.annotations.Property(boolValue=BATCH_WRITES_DEFAULT)
+    private static final String BATCH_WRITES_PROP = "batch.writes";
+
+    /** Whether writes of a thread are collected and saved together. */
+    private boolean batchWrites;
+
+    /**
+     * The pending write batches, one per writing thread. Only used
+     * if {@link #batchWrites} is enabled.
+     */
+    private final Map<Thread, WriteBatch> pendingBatches = new ConcurrentHashMap<Thread, WriteBatch>();
+
     @Reference
     private SlingRepository repository;
 
@@ -136,6 +153,10 @@ public class ClassLoaderWriterImpl
         prop = properties.get(OWNER_PROP);
         this.classLoaderOwner = (prop instanceof String)? (String) prop : OWNER_DEFAULT;
 
+        prop = properties.get(BATCH_WRITES_PROP);
+        this.batchWrites = (prop instanceof Boolean) ? (Boolean) prop
+                : (prop != null ? Boolean.valueOf(prop.toString()) : BATCH_WRITES_DEFAULT);
+
         this.callerBundle = componentContext.getUsingBundle();
     }
 
@@ -144,6 +165,10 @@ public class ClassLoaderWriterImpl
      */
     @Deactivate
     protected void deactivate() {
+        for(final WriteBatch batch : this.pendingBatches.values()) {
+            this.commitBatch(batch);
+        }
+        this.pendingBatches.clear();
         destroyRepositoryClassLoader();
     }
 
@@ -211,6 +236,103 @@ public class ClassLoaderWriterImpl
         return this.repository != null;
     }
 
+    /**
+     * Return the session to use for modifying the repository.
+     * If batch writes are enabled, this is the session of the
+     * batch of the current thread, otherwise a new session.
+     */
+    private Session getWriteSession() throws RepositoryException {
+        if ( !this.batchWrites ) {
+            return this.createSession();
+        }
+        final Thread current = Thread.currentThread();
+        WriteBatch batch = this.pendingBatches.get(current);
+        if ( batch == null ) {
+            batch = new WriteBatch(this.createSession());
+            this.pendingBatches.put(current, batch);
+        }
+        return batch.session;
+    }
+
+    /**
+     * Persist the modifications done with a session obtained from
+     * {@link #getWriteSession()}. If batch writes are enabled, the
+     * save is deferred until the batch is committed.
+     */
+    private void save(final Session session, final String... paths)
+    throws RepositoryException {
+        final WriteBatch batch = this.batchWrites ? this.pendingBatches.get(Thread.currentThread()) : null;
+        if ( batch != null ) {
+            for(final String path : paths) {
+                batch.paths.add(path);
+            }
+        } else {
+            session.save();
+            this.invalidate(paths);
+        }
+    }
+
+    /**
+     * Release a session obtained from {@link #getWriteSession()}.
+     * If an error occured, a pending batch of the current thread
+     * is discarded as a whole.
+     */
+    private void release(final Session session, final boolean failed) {
+        if ( this.batchWrites ) {
+            if ( failed ) {
+                final WriteBatch batch = this.pendingBatches.remove(Thread.currentThread());
+                if ( batch != null ) {
+                    logger.warn("Discarding pending writes to {}", batch.paths);
+                    batch.session.logout();
+                }
+            }
+        } else {
+            session.logout();
+        }
+    }
+
+    /**
+     * Return the session of the pending batch of the current thread
+     * if any. Reading through this session makes pending writes visible
+     * to the writing thread.
+     */
+    private Session getBatchSession() {
+        if ( this.batchWrites ) {
+            final WriteBatch batch = this.pendingBatches.get(Thread.currentThread());
+            if ( batch != null ) {
+                return batch.session;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Save all pending writes of the given batch with a single
+     * save and invalidate the class loader once.
+     */
+    private void commitBatch(final WriteBatch batch) {
+        try {
+            batch.session.save();
+            this.invalidate(batch.paths.toArray(new String[batch.paths.size()]));
+        } catch (final RepositoryException re) {
+            logger.error("Cannot save pending writes to " + batch.paths, re);
+        } finally {
+            batch.session.logout();
+        }
+    }
+
+    /**
+     * Inform the repository class loader about modified paths.
+     */
+    private void invalidate(final String... paths) {
+        final RepositoryClassLoader loader = this.repositoryClassLoader;
+        if ( loader != null ) {
+            for(final String path : paths) {
+                loader.handleEvent(path);
+            }
+        }
+    }
+
     private synchronized ClassLoader getOrCreateClassLoader() {
         if ( this.repositoryClassLoader == null || !this.repositoryClassLoader.isLive() ) {
 
@@ -237,20 +359,22 @@ public class ClassLoaderWriterImpl
     public boolean delete(final String name) {
         final String path = cleanPath(name);
         Session session = null;
+        boolean failed = true;
         try {
-            session = createSession();
+            session = getWriteSession();
             if (session.itemExists(path)) {
                 Item fileItem = session.getItem(path);
                 fileItem.remove();
-                session.save();
-                this.repositoryClassLoader.handleEvent(path);
+                this.save(session, path);
+                failed = false;
                 return true;
             }
+            failed = false;
         } catch (final RepositoryException re) {
             logger.error("Cannot remove " + path, re);
         } finally {
             if ( session != null ) {
-                session.logout();
+                this.release(session, failed);
             }
         }
 
@@ -271,21 +395,21 @@ public class ClassLoaderWriterImpl
      */
     public boolean rename(final String oldName, final String newName) {
         Session session = null;
+        boolean failed = true;
         try {
             final String oldPath = cleanPath(oldName);
             final String newPath = cleanPath(newName);
 
-            session = this.createSession();
+            session = this.getWriteSession();
             session.move(oldPath, newPath);
-            session.save();
-            this.repositoryClassLoader.handleEvent(oldName);
-            this.repositoryClassLoader.handleEvent(newName);
+            this.save(session, oldPath, newPath);
+            failed = false;
             return true;
         } catch (final RepositoryException re) {
             logger.error("Cannot rename " + oldName + " to " + newName, re);
         } finally {
             if ( session != null ) {
-                session.logout();
+                this.release(session, failed);
             }
         }
 
@@ -394,9 +518,10 @@ public class ClassLoaderWriterImpl
             super.close();
 
             Session session = null;
+            boolean failed = true;
             try {
-                // get an own session for writing
-                session = repositoryOutputProvider.createSession();
+                // get an own session for writing (or the one of the current batch)
+                session = repositoryOutputProvider.getWriteSession();
                 final int lastPos = fileName.lastIndexOf('/');
                 final String path = (lastPos == -1 ? null : fileName.substring(0, lastPos));
                 final String name = (lastPos == -1 ? fileName : fileName.substring(lastPos + 1));
@@ -463,13 +588,13 @@ public class ClassLoaderWriterImpl
                 contentNode.setProperty("jcr:data", new ByteArrayInputStream(buf, 0, size()));
                 contentNode.setProperty("jcr:mimeType", mimeType);
 
-                session.save();
-                this.repositoryOutputProvider.repositoryClassLoader.handleEvent(fileName);
+                this.repositoryOutputProvider.save(session, fileName);
+                failed = false;
             } catch (final RepositoryException re) {
                 throw (IOException)new IOException("Cannot write file " + fileName + ", reason: " + re.toString()).initCause(re);
             } finally {
                 if ( session != null ) {
-                    session.logout();
+                    this.repositoryOutputProvider.release(session, failed);
                 }
             }
         }
@@ -481,9 +606,12 @@ public class ClassLoaderWriterImpl
     public InputStream getInputStream(final String name)
     throws IOException {
         final String path = cleanPath(name) + "/jcr:content/jcr:data";
-        Session session = null;
+        final Session batchSession = this.getBatchSession();
+        Session session = batchSession;
         try {
-            session = this.createSession();
+            if ( session == null ) {
+                session = this.createSession();
+            }
             if ( session.itemExists(path) ) {
                 final Property prop = (Property)session.getItem(path);
                 return prop.getStream();
@@ -493,7 +621,7 @@ public class ClassLoaderWriterImpl
             throw (IOException) new IOException(
                         "Failed to get InputStream for " + name).initCause(re);
         } finally {
-            if ( session != null ) {
+            if ( session != null && session != batchSession ) {
                 session.logout();
             }
         }
@@ -504,9 +632,12 @@ public class ClassLoaderWriterImpl
      */
     public long getLastModified(final String name) {
         final String path = cleanPath(name) + "/jcr:content/jcr:lastModified";
-        Session session = null;
+        final Session batchSession = this.getBatchSession();
+        Session session = batchSession;
         try {
-            session = this.createSession();
+            if ( session == null ) {
+                session = this.createSession();
+            }
             if ( session.itemExists(path) ) {
                 final Property prop = (Property)session.getItem(path);
                 return prop.getLong();
@@ -514,7 +645,7 @@ public class ClassLoaderWriterImpl
         } catch (final RepositoryException se) {
             logger.error("Cannot get last modification time for " + name, se);
         } finally {
-            if ( session != null ) {
+            if ( session != null && session != batchSession ) {
                 session.logout();
             }
         }
@@ -527,6 +658,31 @@ public class ClassLoaderWriterImpl
      * @see org.apache.sling.commons.classloader.ClassLoaderWriter#getClassLoader()
      */
     public ClassLoader getClassLoader() {
+        // the class loader reads with its own sessions, so all pending
+        // writes of this thread have to be visible now
+        if ( this.batchWrites ) {
+            final WriteBatch batch = this.pendingBatches.remove(Thread.currentThread());
+            if ( batch != null ) {
+                this.commitBatch(batch);
+            }
+        }
         return this.getOrCreateClassLoader();
     }
+
+    /**
+     * A write batch collects all modifications done by a single
+     * thread (like the compilation of a JSP) in one session. The
+     * modifications are saved at once when the writing thread
+     * requests the class loader to load the written classes.
+     */
+    private static final class WriteBatch {
+
+        final Session session;
+
+        final Set<String> paths = new LinkedHashSet<String>();
+
+        WriteBatch(final Session session) {
+            this.session = session;
+        }
+    }
 }
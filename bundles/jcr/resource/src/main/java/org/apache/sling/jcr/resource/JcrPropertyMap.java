@@ -70,6 +70,15 @@ public class JcrPropertyMap
     /** Has the node been read completly? */
     boolean fullyRead;
 
+    /**
+     * The number of single properties read from the node before all
+     * properties are read at once.
+     */
+    private static final int READ_FULLY_THRESHOLD = 4;
+
+    /** The number of single properties read from the node. */
+    private int singleReads;
+
     private final ClassLoader dynamicClassLoader;
 
     /**
@@ -340,6 +349,19 @@ public class JcrPropertyMap
             return cache.get(name);
         }
 
+        // the property might already have been read
+        final JcrPropertyMapCacheEntry cached = cache.get(name);
+        if ( cached != null ) {
+            return cached;
+        }
+
+        // once several properties are accessed, more will follow: read
+        // all properties in one go instead of one by one
+        if ( ++singleReads > READ_FULLY_THRESHOLD ) {
+            readFully();
+            return cache.get(name);
+        }
+
         try {
             final String key = escapeKeyName(name);
             if (node.hasProperty(key)) {
@@ -436,6 +458,12 @@ public class JcrPropertyMap
 
         try {
             final boolean array = type.isArray();
+            if (!array) {
+                final Object converted = entry.getConvertedValue(type);
+                if (converted != null) {
+                    return (T) converted;
+                }
+            }
 
             if (entry.isMulti) {
 
@@ -464,6 +492,10 @@ public class JcrPropertyMap
                 }
             }
 
+            if (!array) {
+                entry.setConvertedValue(type, result);
+            }
+
         } catch (ValueFormatException vfe) {
             LOGGER.info("converToType: Cannot convert value of " + entry.getDefaultValueOrNull()
                 + " to " + type, vfe);
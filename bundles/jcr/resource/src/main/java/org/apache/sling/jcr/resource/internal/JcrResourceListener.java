@@ -53,14 +53,25 @@ import org.slf4j.LoggerFactory;
  * The <code>JcrResourceListener</code> listens for JCR observation
  * events and creates resource events which are sent through the
  * OSGi event admin.
+ * <p>
+ * Events are only created for paths for which an event handler is
+ * registered. They are queued in a bounded queue and dispatched by a
+ * separate thread, which resolves the resources of the events. The
+ * observation thread only blocks if the queue is full.
  */
 public class JcrResourceListener implements EventListener {
 
+    /** The default max number of events waiting for dispatching. */
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
     /** Logger */
     private final Logger logger = LoggerFactory.getLogger(JcrResourceListener.class);
 
     private final ServiceTracker eventAdminTracker;
 
+    /** The registered event handlers, used to drop events nobody handles. */
+    private final ResourceEventHandlerIndex eventHandlerIndex;
+
     private ServiceReference resourceResolverFactoryReference;
 
     /** The admin resource resolver. */
@@ -98,6 +109,15 @@ public class JcrResourceListener implements EventListener {
                     final String mountPrefix,
                     final SlingRepository repository,
                     final BundleContext bundleContext)
+    throws RepositoryException {
+        this(startPath, mountPrefix, repository, bundleContext, DEFAULT_QUEUE_SIZE);
+    }
+
+    public JcrResourceListener(final String startPath,
+                    final String mountPrefix,
+                    final SlingRepository repository,
+                    final BundleContext bundleContext,
+                    final int queueSize)
     throws RepositoryException {
         boolean foundClass = false;
         try {
@@ -114,6 +134,12 @@ public class JcrResourceListener implements EventListener {
         this.eventAdminTracker = new ServiceTracker(bundleContext, EventAdmin.class.getName(), null);
         this.eventAdminTracker.open();
 
+        this.eventHandlerIndex = new ResourceEventHandlerIndex(bundleContext);
+        this.eventHandlerIndex.open();
+
+        this.osgiEventQueue = new LinkedBlockingQueue<Dictionary<String,Object>>(
+            queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE);
+
         this.session = repository.loginAdministrative(null);
         try {
             session.getWorkspace().getObservationManager().addEventListener(this,
@@ -121,10 +147,11 @@ public class JcrResourceListener implements EventListener {
                             this.startPath, true, null, null, false);
         } catch (final RepositoryException re) {
             session.logout();
+            this.eventHandlerIndex.close();
+            this.eventAdminTracker.close();
             throw re;
         }
 
-        this.osgiEventQueue = new LinkedBlockingQueue<Dictionary<String,Object>>();
         final Thread oeqt = new Thread(new Runnable() {
             public void run() {
                 processOsgiEventQueue();
@@ -155,12 +182,16 @@ public class JcrResourceListener implements EventListener {
         }
 
         // drop any remaining OSGi Events not processed yet
-        this.osgiEventQueue.clear();
-        this.osgiEventQueue.offer(TERMINATE_PROCESSING);
+        do {
+            this.osgiEventQueue.clear();
+        } while ( !this.osgiEventQueue.offer(TERMINATE_PROCESSING) );
 
         if ( this.eventAdminTracker != null ) {
             this.eventAdminTracker.close();
         }
+        if ( this.eventHandlerIndex != null ) {
+            this.eventHandlerIndex.close();
+        }
     }
 
     /**
@@ -299,6 +330,9 @@ public class JcrResourceListener implements EventListener {
      */
     private void sendOsgiEvent(final String path, final Event event, final String topic,
             final ChangedAttributes changedAttributes) {
+        if ( !this.hasHandler(topic, path) ) {
+            return;
+        }
 
         final Dictionary<String, Object> properties = new Hashtable<String, Object>();
         properties.put(SlingConstants.PROPERTY_USERID, event.getUserID());
@@ -313,8 +347,29 @@ public class JcrResourceListener implements EventListener {
         properties.put(SlingConstants.PROPERTY_PATH, path);
         properties.put(EventConstants.EVENT_TOPIC, topic);
 
-        // enqueue event for dispatching
-        this.osgiEventQueue.offer(properties);
+        // enqueue event for dispatching, waiting if the queue is full
+        try {
+            this.osgiEventQueue.put(properties);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            logger.warn("sendOsgiEvent: Interrupted, dropping event for {}", path);
+        }
+    }
+
+    /**
+     * Checks whether an event handler is registered for the topic and the
+     * path. Events for <code>jcr:content</code> nodes of files are sent for
+     * the file, so the path of the parent is checked as well.
+     */
+    private boolean hasHandler(final String topic, final String path) {
+        final ResourceEventHandlerIndex index = this.eventHandlerIndex;
+        if ( index == null || index.hasHandler(topic, path) ) {
+            return true;
+        }
+        if ( path.endsWith("/jcr:content") ) {
+            return index.hasHandler(topic, path.substring(0, path.length() - "/jcr:content".length()));
+        }
+        return false;
     }
 
     /**
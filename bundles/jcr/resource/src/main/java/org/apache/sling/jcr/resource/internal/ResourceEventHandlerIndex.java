@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.sling.api.SlingConstants;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+import org.osgi.util.tracker.ServiceTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>ResourceEventHandlerIndex</code> tracks the registered event
+ * handlers and their topics and filters. It is used to drop resource events
+ * for which no handler is registered before the resource is resolved.
+ * <p>
+ * Handler filters are only evaluated if they refer to the path and the
+ * topic of the event alone, as the other event properties are not known
+ * before the resource is resolved. Handlers with other filters are
+ * considered interested in all events of their topics.
+ */
+class ResourceEventHandlerIndex extends ServiceTracker {
+
+    /** Matches the attribute names of an LDAP filter. */
+    private static final Pattern FILTER_ATTRIBUTE = Pattern.compile("\\(\\s*([^=<>~()\\s]+)\\s*[<>~]?=");
+
+    /** Logger */
+    private final Logger logger = LoggerFactory.getLogger(ResourceEventHandlerIndex.class);
+
+    /** The handlers as of the tracking count of the tracker. */
+    private volatile Handlers handlers;
+
+    ResourceEventHandlerIndex(final BundleContext bundleContext) {
+        super(bundleContext, EventHandler.class.getName(), null);
+    }
+
+    /**
+     * The handlers are only inspected through their service properties,
+     * so the services are not retrieved.
+     */
+    @Override
+    public Object addingService(final ServiceReference reference) {
+        return reference;
+    }
+
+    @Override
+    public void removedService(final ServiceReference reference, final Object service) {
+        // nothing to do, the service has not been retrieved
+    }
+
+    /**
+     * Returns <code>true</code> if an event handler might be interested in an
+     * event of the topic for the path.
+     */
+    boolean hasHandler(final String topic, final String path) {
+        final int trackingCount = this.getTrackingCount();
+        Handlers current = this.handlers;
+        if (current == null || current.trackingCount != trackingCount) {
+            current = new Handlers(trackingCount, this.createHandlers(this.getServiceReferences()));
+            this.handlers = current;
+        }
+
+        if (current.handlers.length == 0) {
+            return false;
+        }
+        final Dictionary<String, Object> props = new Hashtable<String, Object>(4);
+        props.put(EventConstants.EVENT_TOPIC, topic);
+        props.put(SlingConstants.PROPERTY_PATH, path);
+        for (final Handler handler : current.handlers) {
+            if (handler.matches(topic, props)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Handler[] createHandlers(final ServiceReference[] references) {
+        final List<Handler> result = new ArrayList<Handler>();
+        if (references != null) {
+            for (final ServiceReference reference : references) {
+                final String[] topics = toArray(reference.getProperty(EventConstants.EVENT_TOPIC));
+                if (topics == null) {
+                    // handlers without topics do not receive any event
+                    continue;
+                }
+                final Object filter = reference.getProperty(EventConstants.EVENT_FILTER);
+                result.add(new Handler(topics, this.createFilter(filter)));
+            }
+        }
+        return result.toArray(new Handler[result.size()]);
+    }
+
+    /**
+     * Returns the filter if it can be evaluated with the topic and the path
+     * of an event, otherwise <code>null</code>.
+     */
+    private Filter createFilter(final Object filter) {
+        if (!(filter instanceof String)) {
+            return null;
+        }
+        final Matcher m = FILTER_ATTRIBUTE.matcher((String) filter);
+        while (m.find()) {
+            final String name = m.group(1);
+            if (!SlingConstants.PROPERTY_PATH.equalsIgnoreCase(name)
+                && !EventConstants.EVENT_TOPIC.equalsIgnoreCase(name)) {
+                return null;
+            }
+        }
+        try {
+            return this.context.createFilter((String) filter);
+        } catch (final InvalidSyntaxException ise) {
+            logger.debug("createFilter: Ignoring invalid filter {}", filter);
+            return null;
+        }
+    }
+
+    private static String[] toArray(final Object value) {
+        if (value instanceof String) {
+            return new String[] { (String) value };
+        } else if (value instanceof String[]) {
+            return (String[]) value;
+        }
+        return null;
+    }
+
+    /**
+     * The topics and the path filter of an event handler.
+     */
+    static final class Handler {
+
+        private final String[] topics;
+
+        /** The path filter or <code>null</code> to accept all events. */
+        private final Filter filter;
+
+        Handler(final String[] topics, final Filter filter) {
+            this.topics = topics;
+            this.filter = filter;
+        }
+
+        boolean matches(final String topic, final Dictionary<String, Object> props) {
+            for (final String pattern : this.topics) {
+                if (matches(pattern, topic)) {
+                    return this.filter == null || this.filter.match(props);
+                }
+            }
+            return false;
+        }
+
+        private static boolean matches(final String pattern, final String topic) {
+            if (pattern.endsWith("*")) {
+                return topic.startsWith(pattern.substring(0, pattern.length() - 1));
+            }
+            return pattern.equals(topic);
+        }
+    }
+
+    private static final class Handlers {
+
+        final int trackingCount;
+
+        final Handler[] handlers;
+
+        Handlers(final int trackingCount, final Handler[] handlers) {
+            this.trackingCount = trackingCount;
+            this.handlers = handlers;
+        }
+    }
+}
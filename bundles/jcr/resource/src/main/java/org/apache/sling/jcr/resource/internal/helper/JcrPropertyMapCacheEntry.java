@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.math.BigDecimal;
 
 import javax.jcr.Property;
 import javax.jcr.PropertyType;
@@ -37,6 +38,12 @@ public class JcrPropertyMapCacheEntry {
 
     private final Object defaultValue;
 
+    /** The type of the {@link #convertedValue}. */
+    private Class<?> convertedType;
+
+    /** The value last converted to an immutable type. */
+    private Object convertedValue;
+
     /**
      * Create a value for the object.
      * If the value type is supported directly through a jcr property type,
@@ -67,16 +74,16 @@ public class JcrPropertyMapCacheEntry {
     public JcrPropertyMapCacheEntry(final Property prop)
     throws RepositoryException {
         this.property = prop;
-        if ( prop.getDefinition().isMultiple() ) {
+        if ( prop.isMultiple() ) {
             isMulti = true;
             values = prop.getValues();
         } else {
             isMulti = false;
             values = new Value[] {prop.getValue()};
         }
-        Object tmp = JcrResourceUtil.toJavaObject(prop);
+        // binary values are not converted up front, as this opens streams
         if (isDefaultValueCacheable()) {
-            this.defaultValue = tmp;
+            this.defaultValue = JcrResourceUtil.toJavaObject(prop);
         } else {
             this.defaultValue = null;
         }
@@ -120,6 +127,33 @@ public class JcrPropertyMapCacheEntry {
         }
     }
 
+    /**
+     * Returns the value previously converted to the type by
+     * {@link #setConvertedValue(Class, Object)} or <code>null</code>.
+     */
+    public Object getConvertedValue(final Class<?> type) {
+        return this.convertedType == type ? this.convertedValue : null;
+    }
+
+    /**
+     * Keeps the value converted to the type if the type is immutable, so
+     * the value can be handed out again. Only the last converted value is
+     * kept, which is usually the only one as properties are mostly read
+     * with the same type.
+     */
+    public void setConvertedValue(final Class<?> type, final Object value) {
+        if ( value != null && isImmutable(type) ) {
+            this.convertedType = type;
+            this.convertedValue = value;
+        }
+    }
+
+    private static boolean isImmutable(final Class<?> type) {
+        return type == String.class || type == Long.class || type == Integer.class
+            || type == Short.class || type == Byte.class || type == Double.class
+            || type == Float.class || type == Boolean.class || type == BigDecimal.class;
+    }
+
     private boolean isDefaultValueCacheable() throws RepositoryException {
         return property.getType() != PropertyType.BINARY;
     }
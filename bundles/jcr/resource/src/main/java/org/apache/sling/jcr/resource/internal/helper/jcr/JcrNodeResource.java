@@ -22,6 +22,7 @@ import static org.apache.jackrabbit.JcrConstants.JCR_DATA;
 import static org.apache.jackrabbit.JcrConstants.JCR_ENCODING;
 import static org.apache.jackrabbit.JcrConstants.JCR_LASTMODIFIED;
 import static org.apache.jackrabbit.JcrConstants.JCR_MIMETYPE;
+import static org.apache.jackrabbit.JcrConstants.NT_BASE;
 import static org.apache.jackrabbit.JcrConstants.NT_FILE;
 
 import java.io.InputStream;
@@ -35,6 +36,7 @@ import javax.jcr.Item;
 import javax.jcr.ItemNotFoundException;
 import javax.jcr.Node;
 import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.ValueFormatException;
 
@@ -65,19 +67,31 @@ public class JcrNodeResource extends JcrItemResource {
     /** marker value for the resourceSupertType before trying to evaluate */
     private static final String UNSET_RESOURCE_SUPER_TYPE = "<unset>";
 
+    /** The properties of nt:resource (or similar) nodes read into the metadata */
+    private static final String[] METADATA_PROPERTIES = {
+        JCR_MIMETYPE, JCR_ENCODING, JCR_LASTMODIFIED, JCR_DATA };
+
     /** default log */
     private static final Logger LOGGER = LoggerFactory.getLogger(JcrNodeResource.class);
 
     private final Node node;
 
-    private final String resourceType;
+    private String resourceType;
 
     protected String resourceSuperType;
 
+    /** whether the metadata has been read from the node */
+    private boolean metadataInitialized;
+
+    /** The read-only value map, created on first use */
+    private ValueMap valueMap;
+
     private final ClassLoader dynamicClassLoader;
 
     /**
-     * Constructor
+     * Constructor. The resource type and the metadata are only read from the
+     * node when they are first accessed, so creating a resource, for example
+     * when listing children, only requires the path of the node.
      * @param resourceResolver
      * @param node
      * @param dynamicClassLoader Dynamic class loader for loading serialized objects.
@@ -90,17 +104,35 @@ public class JcrNodeResource extends JcrItemResource {
         super(resourceResolver, node.getPath());
         this.dynamicClassLoader = dynamicClassLoader;
         this.node = node;
-        resourceType = getResourceTypeForNode(node);
         resourceSuperType = UNSET_RESOURCE_SUPER_TYPE;
-
-        // check for nt:file metadata
-        setMetaData(node, getResourceMetadata());
     }
 
     public String getResourceType() {
+        if ( resourceType == null ) {
+            try {
+                resourceType = getResourceTypeForNode(node);
+            } catch (RepositoryException re) {
+                LOGGER.error("getResourceType: Cannot get resource type of "
+                    + getPath(), re);
+                // any node is of type nt:base
+                resourceType = NT_BASE;
+            }
+        }
         return resourceType;
     }
 
+    @Override
+    public ResourceMetadata getResourceMetadata() {
+        final ResourceMetadata metadata = super.getResourceMetadata();
+        if ( !metadataInitialized ) {
+            metadataInitialized = true;
+
+            // check for nt:file metadata
+            setMetaData(node, metadata);
+        }
+        return metadata;
+    }
+
     public String getResourceSuperType() {
         // Yes, this isn't how you're supposed to compare Strings, but this is intentional.
         if ( resourceSuperType == UNSET_RESOURCE_SUPER_TYPE ) {
@@ -127,8 +159,15 @@ public class JcrNodeResource extends JcrItemResource {
         } else if (type == URL.class) {
             return (Type) getURL(); // unchecked cast
         } else if (type == Map.class || type == ValueMap.class) {
-            return (Type) new JcrPropertyMap(getNode(), this.dynamicClassLoader); // unchecked cast
+            // the map caches the values read, so it is reused for this resource
+            if ( valueMap == null ) {
+                valueMap = new JcrPropertyMap(getNode(), this.dynamicClassLoader);
+            }
+            return (Type) valueMap; // unchecked cast
         } else if (type == PersistableValueMap.class ) {
+            // the node might be modified, which is not reflected by the
+            // read-only value map
+            valueMap = null;
             // check write
             try {
                 getNode().getSession().checkPermission(getNode().getPath(),
@@ -146,6 +185,9 @@ public class JcrNodeResource extends JcrItemResource {
                     this);
             }
         } else if (type == ModifiableValueMap.class ) {
+            // the node might be modified, which is not reflected by the
+            // read-only value map
+            valueMap = null;
             // check write
             try {
                 getNode().getSession().checkPermission(getNode().getPath(),
@@ -276,34 +318,35 @@ public class JcrNodeResource extends JcrItemResource {
                 node = node.getNode(JCR_CONTENT);
             }
 
-            // check stuff for nt:resource (or similar) nodes
-            if (node.hasProperty(JCR_MIMETYPE)) {
-                metadata.setContentType(node.getProperty(JCR_MIMETYPE).getString());
-            }
+            // check stuff for nt:resource (or similar) nodes, reading
+            // just the existing properties in one go
+            final PropertyIterator props = node.getProperties(METADATA_PROPERTIES);
+            while (props.hasNext()) {
+                final Property prop = props.nextProperty();
+                final String name = prop.getName();
+                if (JCR_MIMETYPE.equals(name)) {
+                    metadata.setContentType(prop.getString());
 
-            if (node.hasProperty(JCR_ENCODING)) {
-                metadata.setCharacterEncoding(node.getProperty(JCR_ENCODING).getString());
-            }
+                } else if (JCR_ENCODING.equals(name)) {
+                    metadata.setCharacterEncoding(prop.getString());
 
-            if (node.hasProperty(JCR_LASTMODIFIED)) {
-                // We don't check node type, so JCR_LASTMODIFIED might not be a long
-                final Property prop = node.getProperty(JCR_LASTMODIFIED);
-                try {
-                    metadata.setModificationTime(prop.getLong());
-                } catch(ValueFormatException vfe) {
-                    LOGGER.debug("Property {} cannot be converted to a long, ignored ({})",
-                            prop.getPath(), vfe);
-                }
-            }
+                } else if (JCR_LASTMODIFIED.equals(name)) {
+                    // We don't check node type, so JCR_LASTMODIFIED might not be a long
+                    try {
+                        metadata.setModificationTime(prop.getLong());
+                    } catch(ValueFormatException vfe) {
+                        LOGGER.debug("Property {} cannot be converted to a long, ignored ({})",
+                                prop.getPath(), vfe);
+                    }
 
-            if (node.hasProperty(JCR_DATA)) {
-                final Property prop = node.getProperty(JCR_DATA);
-                try {
-                    metadata.setContentLength(prop.getLength());
-                } catch (ValueFormatException vfe) {
-                    LOGGER.debug(
-                        "Length of Property {} cannot be retrieved, ignored ({})",
-                        prop.getPath(), vfe);
+                } else if (JCR_DATA.equals(name)) {
+                    try {
+                        metadata.setContentLength(prop.getLength());
+                    } catch (ValueFormatException vfe) {
+                        LOGGER.debug(
+                            "Length of Property {} cannot be retrieved, ignored ({})",
+                            prop.getPath(), vfe);
+                    }
                 }
             }
         } catch (RepositoryException re) {
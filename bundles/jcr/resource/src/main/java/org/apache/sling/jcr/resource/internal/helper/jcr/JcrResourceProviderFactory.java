@@ -61,10 +61,14 @@ import org.osgi.service.component.ComponentContext;
     @Property(name=ResourceProvider.ROOTS, value="/"),
     @Property(name = Constants.SERVICE_DESCRIPTION, value = "Apache Sling JCR Resource Provider Factory"),
     @Property(name = Constants.SERVICE_VENDOR, value = "The Apache Software Foundation"),
-    @Property(name = QueriableResourceProvider.LANGUAGES, value = {Query.XPATH, Query.SQL, Query.JCR_SQL2})
+    @Property(name = QueriableResourceProvider.LANGUAGES, value = {Query.XPATH, Query.SQL, Query.JCR_SQL2}),
+    @Property(name = JcrResourceProviderFactory.PROP_EVENT_QUEUE_SIZE, intValue = JcrResourceListener.DEFAULT_QUEUE_SIZE)
 })
 public class JcrResourceProviderFactory implements ResourceProviderFactory {
 
+    /** The max number of resource events waiting for dispatching. */
+    static final String PROP_EVENT_QUEUE_SIZE = "resource.event.queue.size";
+
     /** The dynamic class loader */
     @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY, policy = ReferencePolicy.DYNAMIC)
     private DynamicClassLoaderManager dynamicClassLoaderManager;
@@ -79,7 +83,9 @@ public class JcrResourceProviderFactory implements ResourceProviderFactory {
     protected void activate(final ComponentContext context)
     throws RepositoryException {
         final String root = PropertiesUtil.toString(context.getProperties().get(ResourceProvider.ROOTS), "/");
-        this.listener = new JcrResourceListener(root, null, this.repository, context.getBundleContext());
+        final int queueSize = PropertiesUtil.toInteger(context.getProperties().get(PROP_EVENT_QUEUE_SIZE),
+            JcrResourceListener.DEFAULT_QUEUE_SIZE);
+        this.listener = new JcrResourceListener(root, null, this.repository, context.getBundleContext(), queueSize);
     }
 
     @Deactivate
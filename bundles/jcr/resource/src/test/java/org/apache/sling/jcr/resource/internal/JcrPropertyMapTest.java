@@ -368,6 +368,25 @@ public class JcrPropertyMapTest extends RepositoryTestBase {
         assertTrue(vm.containsKey("./" + prop));
     }
 
+    public void testManyProperties() throws Exception {
+        this.rootNode.getSession().refresh(false);
+        for (int i = 0; i < 10; i++) {
+            this.rootNode.setProperty("prop" + i, (long) i);
+        }
+        final ValueMap vm = this.createPropertyMap(this.rootNode);
+        // more single reads than the threshold switch to reading all
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), vm.get("prop" + i, Integer.class));
+            assertNull(vm.get("missing" + i));
+        }
+        assertEquals(11, vm.size());
+
+        // converted values are kept
+        assertSame(vm.get("prop5", Integer.class), vm.get("prop5", Integer.class));
+        assertEquals(Long.valueOf(5), vm.get("prop5", Long.class));
+        assertEquals("5", vm.get("prop5", String.class));
+    }
+
     protected void search(Iterator<?> i, Object value) {
         boolean found = false;
         while ( !found && i.hasNext() ) {
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Dictionary;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.api.SlingConstants;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Filter;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.EventConstants;
+
+/**
+ * Test of ResourceEventHandlerIndex.
+ */
+public class ResourceEventHandlerIndexTest extends TestCase {
+
+    private BundleContext bundleContext;
+
+    private ServiceReference[] references;
+
+    private int trackingCount;
+
+    private ResourceEventHandlerIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bundleContext = mock(BundleContext.class);
+
+        // the path filter of the tests accepts paths below /content
+        final Filter filter = mock(Filter.class);
+        when(filter.match(any(Dictionary.class))).thenAnswer(new Answer<Boolean>() {
+            public Boolean answer(final InvocationOnMock invocation) {
+                final Dictionary<?, ?> props = (Dictionary<?, ?>) invocation.getArguments()[0];
+                return ((String) props.get(SlingConstants.PROPERTY_PATH)).startsWith("/content/");
+            }
+        });
+        when(bundleContext.createFilter("(path=/content/*)")).thenReturn(filter);
+
+        references = new ServiceReference[0];
+        index = new ResourceEventHandlerIndex(bundleContext) {
+            @Override
+            public ServiceReference[] getServiceReferences() {
+                return references;
+            }
+
+            @Override
+            public int getTrackingCount() {
+                return trackingCount;
+            }
+        };
+    }
+
+    public void testNoHandlers() {
+        assertFalse(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/content/a"));
+    }
+
+    public void testTopics() {
+        setHandlers(handler("org/apache/sling/api/resource/Resource/*", null));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/content/a"));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_REMOVED, "/apps/a"));
+
+        setHandlers(handler(SlingConstants.TOPIC_RESOURCE_CHANGED, null));
+        assertFalse(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/content/a"));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_CHANGED, "/content/a"));
+
+        setHandlers(handler("*", null));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/content/a"));
+    }
+
+    public void testPathFilter() {
+        setHandlers(handler(SlingConstants.TOPIC_RESOURCE_ADDED, "(path=/content/*)"));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/content/a"));
+        assertFalse(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/apps/a"));
+    }
+
+    public void testOtherFilter() {
+        // filters on other properties cannot be evaluated up front
+        setHandlers(handler(SlingConstants.TOPIC_RESOURCE_ADDED, "(resourceType=sling:Folder)"));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/apps/a"));
+
+        setHandlers(handler(SlingConstants.TOPIC_RESOURCE_ADDED, "(&(path=/content/*)(resourceType=a))"));
+        assertTrue(index.hasHandler(SlingConstants.TOPIC_RESOURCE_ADDED, "/apps/a"));
+    }
+
+    private void setHandlers(final ServiceReference... handlers) {
+        references = handlers;
+        trackingCount++;
+    }
+
+    private ServiceReference handler(final String topic, final String filter) {
+        final ServiceReference ref = mock(ServiceReference.class);
+        when(ref.getProperty(EventConstants.EVENT_TOPIC)).thenReturn(new String[] { topic });
+        when(ref.getProperty(EventConstants.EVENT_FILTER)).thenReturn(filter);
+        return ref;
+    }
+}
@@ -47,6 +47,9 @@ public class SynchronousJcrResourceListener extends JcrResourceListener implemen
         super("/", null, repo, bundleContext);
         PrivateAccessor.setField(this, "resourceResolver", resolver);
         PrivateAccessor.setField(this, "eventAdminTracker", tracker);
+        // no event handlers are registered with the mock bundle context,
+        // send all events to the mock event admin
+        PrivateAccessor.setField(this, "eventHandlerIndex", null);
     }
 
     public void dispose() {
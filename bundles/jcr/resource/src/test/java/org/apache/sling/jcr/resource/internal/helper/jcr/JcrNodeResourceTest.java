@@ -28,9 +28,11 @@ import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 
 import org.apache.jackrabbit.JcrConstants;
+import org.apache.sling.api.resource.ModifiableValueMap;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceMetadata;
 import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.jcr.resource.JcrResourceConstants;
 
 public class JcrNodeResourceTest extends JcrItemResourceTestBase {
@@ -220,6 +222,26 @@ public class JcrNodeResourceTest extends JcrItemResourceTestBase {
         assertTrue(crossCheck2.isEmpty());
     }
 
+    public void testAdaptToValueMapReused() throws Exception {
+
+        String name = "adaptableReused";
+        Node res = rootNode.addNode(name, JcrConstants.NT_UNSTRUCTURED);
+        setupResource(res);
+        getSession().save();
+
+        res = rootNode.getNode(name);
+        JcrNodeResource jnr = new JcrNodeResource(null, res, null);
+
+        final ValueMap props = jnr.adaptTo(ValueMap.class);
+        assertSame(props, jnr.adaptTo(ValueMap.class));
+        assertSame(props, jnr.adaptTo(Map.class));
+        assertEquals(TEST_TYPE, props.get(JcrConstants.JCR_MIMETYPE, String.class));
+
+        // modifications drop the read-only map
+        assertNotNull(jnr.adaptTo(ModifiableValueMap.class));
+        assertNotSame(props, jnr.adaptTo(ValueMap.class));
+    }
+
     public void testCorrectUTF8ByteLength() throws Exception {
         byte[] utf8bytes = "Übersättigung".getBytes("UTF-8");
         String name = "utf8file";
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import org.apache.sling.api.SlingConstants;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * The <code>CompiledScriptCache</code> caches the compiled form of scripts
+ * whose engine implements {@link Compilable}. Entries are keyed by the path
+ * of the script resource and are only valid for the modification time of
+ * the resource they have been compiled from. In addition entries are removed
+ * when a resource change event is received for the script or one of its
+ * parents.
+ * The cache is bounded: if the maximum size is reached, the least recently
+ * used entry is removed.
+ */
+class CompiledScriptCache implements EventHandler {
+
+    /** The default maximum number of cached scripts. */
+    static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** The cached scripts, the least recently used first. */
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    /** The statistics by engine name. */
+    private final ConcurrentMap<String, Statistics> statistics = new ConcurrentHashMap<String, Statistics>();
+
+    /** The event handler registration. */
+    private ServiceRegistration eventHandlerRegistration;
+
+    CompiledScriptCache(final int maxSize) {
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Registers the cache as an event handler for resource changes.
+     */
+    void register(final BundleContext bundleContext) {
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(Constants.SERVICE_DESCRIPTION, "Apache Sling Compiled Script Cache");
+        props.put(Constants.SERVICE_VENDOR, "The Apache Software Foundation");
+        props.put(EventConstants.EVENT_TOPIC, new String[] {
+                SlingConstants.TOPIC_RESOURCE_ADDED,
+                SlingConstants.TOPIC_RESOURCE_CHANGED,
+                SlingConstants.TOPIC_RESOURCE_REMOVED });
+        this.eventHandlerRegistration = bundleContext.registerService(
+            EventHandler.class.getName(), this, props);
+    }
+
+    /**
+     * Unregisters the event handler and clears the cache.
+     */
+    void dispose() {
+        if (this.eventHandlerRegistration != null) {
+            this.eventHandlerRegistration.unregister();
+            this.eventHandlerRegistration = null;
+        }
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if scripts of the engine can be cached. This
+     * requires the engine to be {@link Compilable} and to declare that it
+     * can be used by several threads.
+     */
+    static boolean isCacheable(final ScriptEngine engine) {
+        return engine instanceof Compilable
+            && engine.getFactory().getParameter("THREADING") != null;
+    }
+
+    /**
+     * Returns the compiled script or <code>null</code> if the script is not
+     * cached or has been compiled from an older or different resource.
+     * @param path The path of the script resource
+     * @param lastModified The modification time of the script resource
+     * @param engine The script engine
+     */
+    CompiledScript get(final String path, final long lastModified, final ScriptEngine engine) {
+        final ScriptEngineFactory factory = engine.getFactory();
+        final CacheEntry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(path);
+        }
+        final Statistics stats = this.getStatistics(factory.getEngineName());
+        if (entry != null && entry.lastModified == lastModified && entry.factory == factory) {
+            stats.hits.incrementAndGet();
+            return entry.script;
+        }
+        stats.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds a compiled script to the cache.
+     * @param path The path of the script resource
+     * @param lastModified The modification time of the script resource
+     * @param engine The script engine which compiled the script
+     * @param script The compiled script
+     */
+    void put(final String path, final long lastModified, final ScriptEngine engine,
+            final CompiledScript script) {
+        final CacheEntry entry = new CacheEntry(script, engine.getFactory(), lastModified);
+        synchronized (this.entries) {
+            this.entries.put(path, entry);
+        }
+    }
+
+    /**
+     * Removes the script and all scripts below the path from the cache.
+     */
+    void remove(final String path) {
+        final String prefix = path.endsWith("/") ? path : path + "/";
+        synchronized (this.entries) {
+            this.entries.remove(path);
+            final Iterator<String> i = this.entries.keySet().iterator();
+            while (i.hasNext()) {
+                if (i.next().startsWith(prefix)) {
+                    i.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached scripts.
+     */
+    int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Returns the statistics for the engine.
+     */
+    Statistics getStatistics(final String engineName) {
+        Statistics stats = this.statistics.get(engineName);
+        if (stats == null) {
+            stats = new Statistics();
+            final Statistics existing = this.statistics.putIfAbsent(engineName, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @see org.osgi.service.event.EventHandler#handleEvent(org.osgi.service.event.Event)
+     */
+    public void handleEvent(final Event event) {
+        final Object path = event.getProperty(SlingConstants.PROPERTY_PATH);
+        if (path != null) {
+            this.remove(path.toString());
+        }
+    }
+
+    /**
+     * The hit and miss counters of an engine.
+     */
+    static final class Statistics {
+
+        final AtomicLong hits = new AtomicLong();
+
+        final AtomicLong misses = new AtomicLong();
+
+        long getHits() {
+            return this.hits.get();
+        }
+
+        long getMisses() {
+            return this.misses.get();
+        }
+    }
+
+    private static final class CacheEntry {
+
+        final CompiledScript script;
+
+        final ScriptEngineFactory factory;
+
+        final long lastModified;
+
+        CacheEntry(final CompiledScript script, final ScriptEngineFactory factory,
+                final long lastModified) {
+            this.script = script;
+            this.factory = factory;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -46,6 +46,8 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -72,7 +74,7 @@ import org.apache.sling.api.scripting.SlingScript;
 import org.apache.sling.api.scripting.SlingScriptConstants;
 import org.apache.sling.api.scripting.SlingScriptHelper;
 import org.apache.sling.scripting.api.BindingsValuesProvider;
-import org.apache.sling.scripting.core.impl.helper.ProtectedBindings;
+import org.apache.sling.scripting.core.impl.helper.LazyBindings;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -116,6 +118,9 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
     /** The cache for services. */
     private final ServiceCache cache;
 
+    /** The cache for compiled scripts (optional). */
+    private final CompiledScriptCache scriptCache;
+
     /**
      * Constructor
      * @param bundleContext The bundle context
@@ -123,17 +128,20 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
      * @param scriptEngine The script engine
      * @param bindingsValuesProviders additional bindings values providers
      * @param cache serviceCache
+     * @param scriptCache The cache for compiled scripts or <code>null</code>
      */
     DefaultSlingScript(final BundleContext bundleContext,
             final Resource scriptResource,
             final ScriptEngine scriptEngine,
             final Collection<BindingsValuesProvider> bindingsValuesProviders,
-            final ServiceCache cache) {
+            final ServiceCache cache,
+            final CompiledScriptCache scriptCache) {
         this.scriptResource = scriptResource;
         this.scriptEngine = scriptEngine;
         this.bundleContext = bundleContext;
         this.bindingsValuesProviders = bindingsValuesProviders;
         this.cache = cache;
+        this.scriptCache = scriptCache;
         this.scriptName = this.scriptResource.getPath();
         // Now know how to get the input stream, we still have to decide
         // on the encoding of the stream's data. Primarily we assume it is
@@ -352,13 +360,19 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
             ctx.setAttribute(SlingScriptConstants.ATTR_SCRIPT_RESOURCE_RESOLVER,
                     this.scriptResource.getResourceResolver(), SlingScriptConstants.SLING_SCOPE);
 
-            reader = getScriptReader();
-            if ( method != null && !(this.scriptEngine instanceof Invocable)) {
-                reader = getWrapperReader(reader, method, args);
-            }
+            // evaluate the script, use the compiled script if available
+            final Object result;
+            final CompiledScript compiledScript = (method == null ? getCompiledScript() : null);
+            if ( compiledScript != null ) {
+                result = compiledScript.eval(ctx);
+            } else {
+                reader = getScriptReader();
+                if ( method != null && !(this.scriptEngine instanceof Invocable)) {
+                    reader = getWrapperReader(reader, method, args);
+                }
 
-            // evaluate the script
-            final Object result = scriptEngine.eval(reader, ctx);
+                result = scriptEngine.eval(reader, ctx);
+            }
 
             // call method - if supplied and script engine supports direct invocation
             if ( method != null && (this.scriptEngine instanceof Invocable)) {
@@ -533,6 +547,36 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
 
     // ---------- internal -----------------------------------------------------
 
+    /**
+     * Returns the compiled script from the cache or compiles and caches
+     * the script if the engine supports this.
+     * @return The compiled script or <code>null</code> if the script can't
+     *         be compiled.
+     */
+    private CompiledScript getCompiledScript() throws IOException, ScriptException {
+        if ( this.scriptCache == null || !CompiledScriptCache.isCacheable(this.scriptEngine) ) {
+            return null;
+        }
+        final long lastModified = this.scriptResource.getResourceMetadata().getModificationTime();
+        CompiledScript compiledScript = this.scriptCache.get(this.scriptName, lastModified, this.scriptEngine);
+        if ( compiledScript == null ) {
+            // the engine might need the name to decide how to compile the script
+            this.scriptEngine.put(ScriptEngine.FILENAME, this.scriptName);
+            final Reader reader = getScriptReader();
+            try {
+                compiledScript = ((Compilable)this.scriptEngine).compile(reader);
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // don't care
+                }
+            }
+            this.scriptCache.put(this.scriptName, lastModified, this.scriptEngine, compiledScript);
+        }
+        return compiledScript;
+    }
+
     private Reader getScriptReader() throws IOException {
         // access the value as a stream and return a buffered reader
         // converting the stream data using UTF-8 encoding, which is
@@ -690,10 +734,9 @@ class DefaultSlingScript implements SlingScript, Servlet, ServletConfig {
             Set<String> protectedKeys = new HashSet<String>();
             protectedKeys.addAll(PROTECTED_KEYS);
 
-            ProtectedBindings protectedBindings = new ProtectedBindings(bindings, protectedKeys);
-            for (BindingsValuesProvider provider : bindingsValuesProviders) {
-                provider.addBindings(protectedBindings);
-            }
+            // the providers are called when their values are requested
+            return new LazyBindings(bindings, protectedKeys, bindingsValuesProviders,
+                    request != null ? request.getRequestProgressTracker() : null);
         }
 
         return bindings;
@@ -23,10 +23,12 @@ import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
 
+import org.apache.sling.scripting.core.impl.helper.SlingScriptEngineManager;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceRegistration;
@@ -37,6 +39,9 @@ public class ScriptEngineConsolePlugin {
 
     private static ScriptEngineConsolePlugin INSTANCE;
 
+    /** The cache for compiled scripts (if enabled). */
+    private static volatile CompiledScriptCache SCRIPT_CACHE;
+
     static void initPlugin(BundleContext context,
             ScriptEngineManagerFactory scriptEngineManagerFactory) {
         if (INSTANCE == null) {
@@ -57,6 +62,10 @@ public class ScriptEngineConsolePlugin {
         }
     }
 
+    static void setScriptCache(final CompiledScriptCache scriptCache) {
+        SCRIPT_CACHE = scriptCache;
+    }
+
     private ServiceRegistration serviceRegistration;
 
     private final ScriptEngineManagerFactory scriptEngineManagerFactory;
@@ -99,6 +108,38 @@ public class ScriptEngineConsolePlugin {
 
             pw.print("- Names : ");
             printArray(pw, factory.getNames());
+
+            final CompiledScriptCache scriptCache = SCRIPT_CACHE;
+            if (scriptCache != null) {
+                final CompiledScriptCache.Statistics stats = scriptCache.getStatistics(factory.getEngineName());
+                pw.print("- Compiled Script Cache : hits ");
+                pw.print(stats.getHits());
+                pw.print(", misses ");
+                pw.println(stats.getMisses());
+            }
+        }
+
+        if (manager instanceof SlingScriptEngineManager) {
+            pw.println();
+            pw.println("Script Extensions");
+            pw.println("=================");
+            final Map<String, ScriptEngineFactory> index = ((SlingScriptEngineManager) manager).getExtensionIndex();
+            for (final Map.Entry<String, ScriptEngineFactory> entry : index.entrySet()) {
+                pw.print("- ");
+                pw.print(entry.getKey());
+                pw.print(" : ");
+                pw.print(entry.getValue().getEngineName());
+                pw.print(" ");
+                pw.println(entry.getValue().getEngineVersion());
+            }
+        }
+
+        final CompiledScriptCache scriptCache = SCRIPT_CACHE;
+        if (scriptCache != null) {
+            pw.println();
+            pw.print("Compiled Script Cache : ");
+            pw.print(scriptCache.size());
+            pw.println(" scripts");
         }
     }
 
@@ -112,6 +112,8 @@ public class ScriptEngineManagerFactory implements BundleListener {
             }
         }
 
+        // create the extension index before the manager is used
+        tmp.getExtensionIndex();
         scriptEngineManager.setDelegatee(tmp);
 
         // Log messages to verify which ScriptEngine is actually used
@@ -87,14 +87,11 @@ public class ServiceCache implements ServiceListener {
             }
 
             // check to see whether another thread has not done the same thing
-            synchronized (this) {
-                Reference existing = this.cache.get(key);
-                if (existing == null) {
-                    this.cache.put(key, reference);
-                    ref = null;
-                } else {
-                    reference = existing;
-                }
+            final Reference existing = this.cache.putIfAbsent(key, reference);
+            if (existing == null) {
+                ref = null;
+            } else {
+                reference = existing;
             }
 
             // unget the service if another thread was faster
@@ -114,10 +111,7 @@ public class ServiceCache implements ServiceListener {
         final String[] objectClasses = (String[])event.getServiceReference().getProperty(Constants.OBJECTCLASS);
         if ( objectClasses != null) {
             for(final String key : objectClasses) {
-                Reference ref = null;
-                synchronized ( this ) {
-                    ref = this.cache.remove(key);
-                }
+                final Reference ref = this.cache.remove(key);
                 if ( ref != null && ref != NULL_REFERENCE ) {
                     this.bundleContext.ungetService(ref.reference);
                 }
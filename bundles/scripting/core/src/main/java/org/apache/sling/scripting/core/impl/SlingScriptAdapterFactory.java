@@ -38,6 +38,7 @@ import org.apache.sling.commons.mime.MimeTypeProvider;
 import org.apache.sling.commons.osgi.PropertiesUtil;
 import org.apache.sling.scripting.api.BindingsValuesProvider;
 import org.apache.sling.scripting.core.impl.helper.SlingScriptEngineManager;
+import org.apache.sling.scripting.core.impl.helper.TrackedBindingsValuesProvider;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.framework.Filter;
@@ -61,12 +62,19 @@ import org.slf4j.LoggerFactory;
     @Property(name="adaptables", value="org.apache.sling.api.resource.Resource"),
     @Property(name="adapters", value={"org.apache.sling.api.scripting.SlingScript",
                                       "javax.servlet.Servlet"}),
-    @Property(name="adapter.condition", value="If the resource's path ends in an extension registered by a script engine.")
+    @Property(name="adapter.condition", value="If the resource's path ends in an extension registered by a script engine."),
+    @Property(name=SlingScriptAdapterFactory.PROP_SCRIPT_CACHE_SIZE, intValue=CompiledScriptCache.DEFAULT_MAX_SIZE)
 })
 public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvider {
 
     private final Logger log = LoggerFactory.getLogger(SlingScriptAdapterFactory.class);
 
+    /**
+     * The maximum number of compiled scripts to cache. A value less than 1
+     * disables the cache.
+     */
+    static final String PROP_SCRIPT_CACHE_SIZE = "scriptCache.size";
+
     /** list of service property values which indicate 'any' script engine */
     private static final List<String> ANY_ENGINE = Arrays.asList("*", "ANY");
 
@@ -97,6 +105,11 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
      */
     private ServiceCache serviceCache;
 
+    /**
+     * The cache for compiled scripts (or <code>null</code> if disabled).
+     */
+    private CompiledScriptCache scriptCache;
+
     /**
      * The script engine manager.
      */
@@ -117,7 +130,7 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
             Collection<BindingsValuesProvider> bindingsValuesProviders = getBindingsValuesProviders(engine.getFactory());
             // unchecked cast
             return (AdapterType) new DefaultSlingScript(this.bundleContext,
-                    resource, engine, bindingsValuesProviders, this.serviceCache);
+                    resource, engine, bindingsValuesProviders, this.serviceCache, this.scriptCache);
         }
 
         return null;
@@ -194,9 +207,22 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
             log.warn("Unable to create ServiceTracker for Map-based script bindiings", e);
         }
         this.serviceCache = new ServiceCache(this.bundleContext);
+
+        final int scriptCacheSize = PropertiesUtil.toInteger(context.getProperties().get(PROP_SCRIPT_CACHE_SIZE),
+                CompiledScriptCache.DEFAULT_MAX_SIZE);
+        if (scriptCacheSize > 0) {
+            this.scriptCache = new CompiledScriptCache(scriptCacheSize);
+            this.scriptCache.register(this.bundleContext);
+            ScriptEngineConsolePlugin.setScriptCache(this.scriptCache);
+        }
     }
 
     protected void deactivate(ComponentContext context) {
+        if (this.scriptCache != null) {
+            ScriptEngineConsolePlugin.setScriptCache(null);
+            this.scriptCache.dispose();
+            this.scriptCache = null;
+        }
         this.serviceCache.dispose();
         this.serviceCache = null;
 
@@ -247,9 +273,13 @@ public class SlingScriptAdapterFactory implements AdapterFactory, MimeTypeProvid
             final Object serviceId = ref.getProperty(Constants.SERVICE_ID);
             Object service = bundleContext.getService(ref);
             if (service != null) {
+                final Object pid = ref.getProperty(Constants.SERVICE_PID);
+                final String name = (pid != null ? pid.toString() : service.getClass().getName());
                 if (service instanceof Map) {
                     service = new MapWrappingBindingsValuesProvider((Map<String, Object>) service);
                 }
+                // remember the provided keys to call the provider on demand
+                service = new TrackedBindingsValuesProvider((BindingsValuesProvider) service, name);
                 if (engineNames.length == 0) {
                     genericBindingsValuesProviders.put(serviceId, (BindingsValuesProvider) service);
                 } else if (engineNames.length == 1 && ANY_ENGINE.contains(engineNames[0].toUpperCase())) {
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl.helper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.script.Bindings;
+
+import org.apache.sling.api.request.RequestProgressTracker;
+import org.apache.sling.scripting.api.BindingsValuesProvider;
+
+/**
+ * Bindings calling the bindings values providers on demand.
+ *
+ * Providers whose keys are known from previous calls (see
+ * {@link TrackedBindingsValuesProvider}) are only called when one of
+ * their keys is requested. If an unknown key is requested or the
+ * bindings are iterated, all remaining providers are called. The values
+ * of a provider are therefore computed at most once for these bindings.
+ *
+ * If a request progress tracker is available, the time spent in each
+ * provider is logged.
+ */
+public class LazyBindings implements Bindings {
+
+    private final Bindings wrapped;
+
+    /** The bindings handed to the providers. */
+    private final Bindings protectedBindings;
+
+    private final RequestProgressTracker tracker;
+
+    /** The providers which have not been called yet. */
+    private final Set<TrackedBindingsValuesProvider> pending = new LinkedHashSet<TrackedBindingsValuesProvider>();
+
+    /** The pending providers by the keys they provide. */
+    private final Map<String, List<TrackedBindingsValuesProvider>> providersByKey =
+        new HashMap<String, List<TrackedBindingsValuesProvider>>();
+
+    /** The provider currently called. */
+    private TrackedBindingsValuesProvider current;
+
+    /**
+     * Create the bindings.
+     * @param wrapped The bindings containing the base values.
+     * @param protectedKeys The keys which can't be changed by the providers.
+     * @param providers The providers.
+     * @param tracker The request progress tracker or <code>null</code>.
+     */
+    public LazyBindings(final Bindings wrapped,
+            final Set<String> protectedKeys,
+            final Collection<BindingsValuesProvider> providers,
+            final RequestProgressTracker tracker) {
+        this.wrapped = wrapped;
+        this.protectedBindings = new ProtectedBindings(this, protectedKeys);
+        this.tracker = tracker;
+        final List<BindingsValuesProvider> eager = new ArrayList<BindingsValuesProvider>();
+        for(final BindingsValuesProvider provider : providers) {
+            if ( provider instanceof TrackedBindingsValuesProvider
+                 && ((TrackedBindingsValuesProvider)provider).isCalled() ) {
+                final TrackedBindingsValuesProvider tracked = (TrackedBindingsValuesProvider)provider;
+                this.pending.add(tracked);
+                for(final String key : tracked.getKeys()) {
+                    List<TrackedBindingsValuesProvider> list = this.providersByKey.get(key);
+                    if ( list == null ) {
+                        list = new ArrayList<TrackedBindingsValuesProvider>(1);
+                        this.providersByKey.put(key, list);
+                    }
+                    list.add(tracked);
+                }
+            } else {
+                eager.add(provider);
+            }
+        }
+        // providers with unknown keys are called right away
+        for(final BindingsValuesProvider provider : eager) {
+            this.call(provider);
+        }
+    }
+
+    /**
+     * Call all providers which have not been called yet.
+     */
+    public void callAll() {
+        while ( !this.pending.isEmpty() ) {
+            final Iterator<TrackedBindingsValuesProvider> i = this.pending.iterator();
+            final TrackedBindingsValuesProvider provider = i.next();
+            i.remove();
+            this.call(provider);
+        }
+    }
+
+    /**
+     * Make sure the value for the key is available.
+     */
+    private void resolve(final Object key) {
+        if ( this.pending.isEmpty() ) {
+            return;
+        }
+        if ( !this.callProviders(key) && !this.wrapped.containsKey(key) ) {
+            // the key might be provided by a provider with changing keys
+            this.callAll();
+        }
+    }
+
+    /**
+     * Call the pending providers known to provide the key.
+     * @return <code>true</code> if there are such providers.
+     */
+    private boolean callProviders(final Object key) {
+        final List<TrackedBindingsValuesProvider> providers = this.providersByKey.remove(key);
+        if ( providers != null ) {
+            for(final TrackedBindingsValuesProvider provider : providers) {
+                if ( this.pending.remove(provider) ) {
+                    this.call(provider);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void call(final BindingsValuesProvider provider) {
+        final TrackedBindingsValuesProvider previous = this.current;
+        final String timerName;
+        if ( provider instanceof TrackedBindingsValuesProvider ) {
+            this.current = (TrackedBindingsValuesProvider)provider;
+            timerName = "BindingsValuesProvider " + this.current.getName();
+        } else {
+            this.current = null;
+            timerName = "BindingsValuesProvider " + provider.getClass().getName();
+        }
+        if ( this.tracker != null ) {
+            this.tracker.startTimer(timerName);
+        }
+        try {
+            provider.addBindings(this.protectedBindings);
+        } finally {
+            this.current = previous;
+            if ( this.tracker != null ) {
+                this.tracker.logTimer(timerName);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object put(final String key, final Object value) {
+        if ( this.current != null ) {
+            this.current.addKey(key);
+        } else {
+            // a value set by the script overwrites the value of a provider
+            this.callProviders(key);
+        }
+        return this.wrapped.put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void putAll(final Map<? extends String, ? extends Object> toMerge) {
+        for(final Map.Entry<? extends String, ? extends Object> entry : toMerge.entrySet()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean containsKey(final Object key) {
+        this.resolve(key);
+        return this.wrapped.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object get(final Object key) {
+        this.resolve(key);
+        return this.wrapped.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Object remove(final Object key) {
+        this.resolve(key);
+        return this.wrapped.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int size() {
+        this.callAll();
+        return this.wrapped.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isEmpty() {
+        this.callAll();
+        return this.wrapped.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean containsValue(final Object value) {
+        this.callAll();
+        return this.wrapped.containsValue(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void clear() {
+        this.pending.clear();
+        this.providersByKey.clear();
+        this.wrapped.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> keySet() {
+        this.callAll();
+        return this.wrapped.keySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Collection<Object> values() {
+        this.callAll();
+        return this.wrapped.values();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<Map.Entry<String, Object>> entrySet() {
+        this.callAll();
+        return this.wrapped.entrySet();
+    }
+}
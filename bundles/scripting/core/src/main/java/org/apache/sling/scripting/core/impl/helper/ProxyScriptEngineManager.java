@@ -27,7 +27,7 @@ import javax.script.ScriptEngineFactory;
 
 public class ProxyScriptEngineManager extends SlingScriptEngineManager {
 
-    private SlingScriptEngineManager delegatee;
+    private volatile SlingScriptEngineManager delegatee;
 
     public ProxyScriptEngineManager() {
         setDelegatee(null);
@@ -47,6 +47,14 @@ public class ProxyScriptEngineManager extends SlingScriptEngineManager {
         return delegatee.getEngineByExtension(extension);
     }
 
+    public ScriptEngineFactory getEngineFactoryByExtension(String extension) {
+        return delegatee.getEngineFactoryByExtension(extension);
+    }
+
+    public Map<String, ScriptEngineFactory> getExtensionIndex() {
+        return delegatee.getExtensionIndex();
+    }
+
     public ScriptEngine getEngineByMimeType(String mimeType) {
         return delegatee.getEngineByMimeType(mimeType);
     }
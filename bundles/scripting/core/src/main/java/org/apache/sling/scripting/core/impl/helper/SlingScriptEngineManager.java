@@ -19,10 +19,14 @@
 package org.apache.sling.scripting.core.impl.helper;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
 
@@ -30,6 +34,12 @@ import javax.script.ScriptEngineManager;
 public class SlingScriptEngineManager extends ScriptEngineManager {
 
     private final List<ScriptEngineFactory> factories = new ArrayList<ScriptEngineFactory>();
+    /** The explicitly registered extensions. */
+    private final Map<String, ScriptEngineFactory> extensions = new HashMap<String, ScriptEngineFactory>();
+
+    /** The extension index or <code>null</code> if it needs to be created. */
+    private volatile Map<String, ScriptEngineFactory> extensionIndex;
+
     private final Map<ScriptEngineFactory, Map<Object, Object>> factoryProperties = new HashMap<ScriptEngineFactory, Map<Object, Object>>();
 
     public SlingScriptEngineManager(ClassLoader classLoader) {
@@ -50,6 +60,64 @@ public class SlingScriptEngineManager extends ScriptEngineManager {
         return result;
     }
 
+    /**
+     * Returns the script engine for the extension using the extension
+     * index.
+     * @see #getEngineFactoryByExtension(String)
+     */
+    @Override
+    public ScriptEngine getEngineByExtension(String extension) {
+        final ScriptEngineFactory factory = getEngineFactoryByExtension(extension);
+        if (factory == null) {
+            return null;
+        }
+        final ScriptEngine engine = factory.getScriptEngine();
+        engine.setBindings(getBindings(), ScriptContext.GLOBAL_SCOPE);
+        return engine;
+    }
+
+    /**
+     * Returns the script engine factory for the extension.
+     * This is a single read of an immutable map.
+     */
+    public ScriptEngineFactory getEngineFactoryByExtension(String extension) {
+        return getExtensionIndex().get(extension);
+    }
+
+    /**
+     * Returns the immutable index of the script engine factories by
+     * extension. The index is created on first use after a registration.
+     * Registered factories take precedence over discovered ones.
+     */
+    public Map<String, ScriptEngineFactory> getExtensionIndex() {
+        Map<String, ScriptEngineFactory> index = this.extensionIndex;
+        if (index == null) {
+            final Map<String, ScriptEngineFactory> tmp = new TreeMap<String, ScriptEngineFactory>();
+            for (ScriptEngineFactory factory : super.getEngineFactories()) {
+                for (Object ext : factory.getExtensions()) {
+                    if (!tmp.containsKey(ext)) {
+                        tmp.put((String) ext, factory);
+                    }
+                }
+            }
+            synchronized (this.extensions) {
+                tmp.putAll(this.extensions);
+            }
+            index = Collections.unmodifiableMap(tmp);
+            this.extensionIndex = index;
+        }
+        return index;
+    }
+
+    @Override
+    public void registerEngineExtension(String extension, ScriptEngineFactory factory) {
+        super.registerEngineExtension(extension, factory);
+        synchronized (this.extensions) {
+            this.extensions.put(extension, factory);
+        }
+        this.extensionIndex = null;
+    }
+
     public Map<Object, Object> getProperties(ScriptEngineFactory factory) {
         return factoryProperties.get(factory);
     }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl.helper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.script.Bindings;
+
+import org.apache.sling.scripting.api.BindingsValuesProvider;
+
+/**
+ * A bindings values provider remembering the keys added by the
+ * wrapped provider. This allows {@link LazyBindings} to call the
+ * provider only if one of its values is requested.
+ */
+public class TrackedBindingsValuesProvider implements BindingsValuesProvider {
+
+    private final BindingsValuesProvider delegatee;
+
+    private final String name;
+
+    /** The keys added by the provider so far. */
+    private final ConcurrentMap<String, Boolean> keys = new ConcurrentHashMap<String, Boolean>();
+
+    /** Has the provider been called at least once? */
+    private volatile boolean called;
+
+    public TrackedBindingsValuesProvider(final BindingsValuesProvider delegatee, final String name) {
+        this.delegatee = delegatee;
+        this.name = name;
+    }
+
+    /**
+     * @see org.apache.sling.scripting.api.BindingsValuesProvider#addBindings(javax.script.Bindings)
+     */
+    public void addBindings(final Bindings bindings) {
+        this.delegatee.addBindings(bindings);
+        this.called = true;
+    }
+
+    /**
+     * The name of the provider used for the timing.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Are the keys added by this provider known?
+     */
+    public boolean isCalled() {
+        return this.called;
+    }
+
+    /**
+     * Return the keys added by this provider so far.
+     */
+    public Iterable<String> getKeys() {
+        return this.keys.keySet();
+    }
+
+    /**
+     * Remember a key added by this provider.
+     */
+    void addKey(final String key) {
+        if ( !this.keys.containsKey(key) ) {
+            this.keys.put(key, Boolean.TRUE);
+        }
+    }
+}
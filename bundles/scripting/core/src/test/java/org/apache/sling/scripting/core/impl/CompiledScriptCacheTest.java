@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.api.SlingConstants;
+import org.osgi.service.event.Event;
+
+public class CompiledScriptCacheTest extends TestCase {
+
+    private final ScriptEngine engine = new DummyScriptEngineFactory().getScriptEngine();
+
+    public void testHitAndMiss() {
+        final CompiledScriptCache cache = new CompiledScriptCache(10);
+        assertNull(cache.get("/apps/a/a.dummy", 1, engine));
+
+        final CompiledScript script = new TestScript();
+        cache.put("/apps/a/a.dummy", 1, engine, script);
+        assertSame(script, cache.get("/apps/a/a.dummy", 1, engine));
+
+        // modified script
+        assertNull(cache.get("/apps/a/a.dummy", 2, engine));
+
+        final CompiledScriptCache.Statistics stats = cache.getStatistics(engine.getFactory().getEngineName());
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    public void testMaxSize() {
+        final CompiledScriptCache cache = new CompiledScriptCache(2);
+        cache.put("/apps/a/a.dummy", 1, engine, new TestScript());
+        cache.put("/apps/b/b.dummy", 1, engine, new TestScript());
+        // access a, so b is the least recently used one
+        assertNotNull(cache.get("/apps/a/a.dummy", 1, engine));
+        cache.put("/apps/c/c.dummy", 1, engine, new TestScript());
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("/apps/a/a.dummy", 1, engine));
+        assertNull(cache.get("/apps/b/b.dummy", 1, engine));
+        assertNotNull(cache.get("/apps/c/c.dummy", 1, engine));
+    }
+
+    public void testInvalidation() {
+        final CompiledScriptCache cache = new CompiledScriptCache(10);
+        cache.put("/apps/a/a.dummy", 1, engine, new TestScript());
+        cache.put("/apps/a/b.dummy", 1, engine, new TestScript());
+        cache.put("/apps/ab/c.dummy", 1, engine, new TestScript());
+
+        cache.handleEvent(new Event(SlingConstants.TOPIC_RESOURCE_CHANGED,
+            pathProperties("/apps/a/a.dummy")));
+        assertNull(cache.get("/apps/a/a.dummy", 1, engine));
+        assertNotNull(cache.get("/apps/a/b.dummy", 1, engine));
+
+        cache.handleEvent(new Event(SlingConstants.TOPIC_RESOURCE_REMOVED,
+            pathProperties("/apps/a")));
+        assertNull(cache.get("/apps/a/b.dummy", 1, engine));
+        assertNotNull(cache.get("/apps/ab/c.dummy", 1, engine));
+    }
+
+    public void testIsCacheable() {
+        assertFalse(CompiledScriptCache.isCacheable(engine));
+    }
+
+    private Dictionary<String, Object> pathProperties(final String path) {
+        final Dictionary<String, Object> props = new Hashtable<String, Object>();
+        props.put(SlingConstants.PROPERTY_PATH, path);
+        return props;
+    }
+
+    private final class TestScript extends CompiledScript {
+
+        @Override
+        public Object eval(ScriptContext context) {
+            return null;
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+            return engine;
+        }
+    }
+}
@@ -16,8 +16,10 @@
  */
 package org.apache.sling.scripting.core.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -26,6 +28,7 @@ import java.util.Dictionary;
 
 import javax.script.ScriptEngineManager;
 
+import org.apache.sling.scripting.core.impl.helper.SlingScriptEngineManager;
 import org.jmock.Expectations;
 import org.jmock.Mockery;
 import org.jmock.integration.junit4.JMock;
@@ -129,6 +132,13 @@ public class ScriptEngineManagerFactoryTest {
         ScriptEngineManager second = factory.getScriptEngineManager();
 
         assertNotNull(second.getEngineByName("dummy"));
+
+        // the extensions are indexed
+        final SlingScriptEngineManager manager = (SlingScriptEngineManager) second;
+        assertNotNull(manager.getEngineFactoryByExtension("dum"));
+        assertEquals(SCRIPT_ENGINE_FACTORY, manager.getEngineFactoryByExtension("dum").getClass());
+        assertTrue(manager.getExtensionIndex().containsKey("dummy"));
+        assertNotNull(second.getEngineByExtension("dummy"));
     }
 
     private File createFactoryFile() throws IOException {
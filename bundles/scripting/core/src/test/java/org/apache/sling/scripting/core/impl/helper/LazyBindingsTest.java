@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.core.impl.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.script.Bindings;
+import javax.script.SimpleBindings;
+
+import org.apache.sling.scripting.api.BindingsValuesProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test of LazyBindings.
+ */
+public class LazyBindingsTest {
+
+    private CountingProvider first;
+
+    private CountingProvider second;
+
+    private Collection<BindingsValuesProvider> providers;
+
+    @Before
+    public void setup() {
+        first = new CountingProvider("first", "a");
+        second = new CountingProvider("second", "b");
+        providers = new ArrayList<BindingsValuesProvider>();
+        providers.add(new TrackedBindingsValuesProvider(first, "first"));
+        providers.add(new TrackedBindingsValuesProvider(second, "second"));
+    }
+
+    private Bindings createBindings() {
+        final SimpleBindings inner = new SimpleBindings();
+        inner.put("resource", "theResource");
+        return new LazyBindings(inner, Collections.singleton("resource"), providers, null);
+    }
+
+    @Test
+    public void testUnknownProvidersAreCalledEagerly() {
+        createBindings();
+        assertEquals(1, first.calls);
+        assertEquals(1, second.calls);
+    }
+
+    @Test
+    public void testKnownProvidersAreCalledOnDemand() {
+        createBindings();
+        final Bindings bindings = createBindings();
+        assertEquals(1, first.calls);
+        assertEquals(1, second.calls);
+
+        assertEquals("theResource", bindings.get("resource"));
+        assertEquals(1, first.calls);
+        assertEquals(1, second.calls);
+
+        assertEquals("first", bindings.get("a"));
+        assertEquals("first", bindings.get("a"));
+        assertEquals(2, first.calls);
+        assertEquals(1, second.calls);
+    }
+
+    @Test
+    public void testUnknownKeyCallsAllProviders() {
+        createBindings();
+        final Bindings bindings = createBindings();
+        assertNull(bindings.get("unknown"));
+        assertEquals(2, first.calls);
+        assertEquals(2, second.calls);
+    }
+
+    @Test
+    public void testIterationCallsAllProviders() {
+        createBindings();
+        final Bindings bindings = createBindings();
+        assertEquals(3, bindings.size());
+        assertTrue(bindings.keySet().contains("b"));
+        assertEquals(2, first.calls);
+        assertEquals(2, second.calls);
+    }
+
+    @Test
+    public void testPutOverwritesProvidedValue() {
+        createBindings();
+        final Bindings bindings = createBindings();
+        bindings.put("b", "script");
+        assertEquals("script", bindings.get("b"));
+        assertEquals(2, second.calls);
+        bindings.put("c", "script");
+        assertEquals(1, first.calls);
+    }
+
+    @Test
+    public void testProtectedKeys() {
+        providers.add(new BindingsValuesProvider() {
+            public void addBindings(Bindings bindings) {
+                try {
+                    bindings.put("resource", "other");
+                } catch (IllegalArgumentException expected) {
+                    // expected
+                }
+            }
+        });
+        assertEquals("theResource", createBindings().get("resource"));
+    }
+
+    @Test
+    public void testRemove() {
+        createBindings();
+        final Bindings bindings = createBindings();
+        assertEquals("second", bindings.remove("b"));
+        assertFalse(bindings.containsKey("b"));
+    }
+
+    private static final class CountingProvider implements BindingsValuesProvider {
+
+        private final String value;
+
+        private final String key;
+
+        int calls;
+
+        CountingProvider(final String value, final String key) {
+            this.value = value;
+            this.key = key;
+        }
+
+        public void addBindings(final Bindings bindings) {
+            calls++;
+            bindings.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.scripting.javascript.internal;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.mozilla.javascript.Script;
+
+/**
+ * The <code>RhinoCompiledScript</code> is a script compiled by the
+ * {@link RhinoJavaScriptEngine}. The compiled script does not depend
+ * on a scope and can therefore be executed by several threads at the
+ * same time.
+ */
+class RhinoCompiledScript extends CompiledScript {
+
+    private final RhinoJavaScriptEngine engine;
+
+    private final Script script;
+
+    private final String scriptName;
+
+    RhinoCompiledScript(final RhinoJavaScriptEngine engine,
+            final Script script, final String scriptName) {
+        this.engine = engine;
+        this.script = script;
+        this.scriptName = scriptName;
+    }
+
+    /**
+     * Executes the script with a new engine of the factory to always use
+     * the current root scope, which is replaced if host objects change.
+     * @see javax.script.CompiledScript#eval(javax.script.ScriptContext)
+     */
+    @Override
+    public Object eval(final ScriptContext context) throws ScriptException {
+        final RhinoJavaScriptEngine current =
+            (RhinoJavaScriptEngine) this.engine.getFactory().getScriptEngine();
+        return current.eval(this.script, this.scriptName, context);
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return this.engine;
+    }
+}
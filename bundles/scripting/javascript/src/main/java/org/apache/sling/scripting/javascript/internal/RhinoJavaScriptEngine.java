@@ -16,13 +16,18 @@
  */
 package org.apache.sling.scripting.javascript.internal;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 
@@ -33,6 +38,8 @@ import org.apache.sling.scripting.javascript.io.EspReader;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ImporterTopLevel;
 import org.mozilla.javascript.JavaScriptException;
+import org.mozilla.javascript.RhinoException;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.ScriptRuntime;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
@@ -43,8 +50,12 @@ import org.slf4j.Logger;
 /**
  * A ScriptEngine that uses the Rhino interpreter to process Sling requests with
  * server-side javascript.
+ * Scripts can be compiled once into a Rhino {@link Script} which is then
+ * executed for each request without parsing the source again.
  */
-public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine {
+public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine implements Compilable {
+
+    private static final String NO_SCRIPT_NAME = "NO_SCRIPT_NAME";
 
     private Scriptable rootScope;
 
@@ -57,7 +68,7 @@ public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine {
     public Object eval(Reader scriptReader, ScriptContext scriptContext)
             throws ScriptException {
         Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
-        String scriptName = "NO_SCRIPT_NAME";
+        String scriptName = NO_SCRIPT_NAME;
         {
             SlingScriptHelper helper = (SlingScriptHelper) bindings.get(SlingBindings.SLING);
             if (helper != null) {
@@ -70,6 +81,75 @@ public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine {
             scriptReader = new EspReader(scriptReader);
         }
 
+        return eval(null, scriptReader, scriptName, scriptContext);
+    }
+
+    /**
+     * @see javax.script.Compilable#compile(java.lang.String)
+     */
+    public CompiledScript compile(String script) throws ScriptException {
+        return compile(new StringReader(script));
+    }
+
+    /**
+     * Compiles the script. The name of the script is taken from the
+     * {@link ScriptEngine#FILENAME} attribute of this engine, if the name
+     * ends with the ESP extension, the script is converted from ESP first.
+     * @see javax.script.Compilable#compile(java.io.Reader)
+     */
+    public CompiledScript compile(Reader scriptReader) throws ScriptException {
+        final Object fileName = get(ScriptEngine.FILENAME);
+        final String scriptName = (fileName != null) ? fileName.toString() : NO_SCRIPT_NAME;
+
+        // wrap the reader in an EspReader for ESP scripts
+        if (scriptName.endsWith(RhinoJavaScriptEngineFactory.ESP_SCRIPT_EXTENSION)) {
+            scriptReader = new EspReader(scriptReader);
+        }
+
+        final Context rhinoContext = Context.enter();
+        try {
+            setOptimizationLevel(rhinoContext);
+
+            final int lineNumber = 1;
+            final Object securityDomain = null;
+
+            final Script script = rhinoContext.compileReader(scriptReader,
+                scriptName, lineNumber, securityDomain);
+            return new RhinoCompiledScript(this, script, scriptName);
+
+        } catch (RhinoException re) {
+            final ScriptException se = new ScriptException(re.details(),
+                re.sourceName(), re.lineNumber());
+            se.initCause(re);
+            throw se;
+
+        } catch (IOException ioe) {
+            final ScriptException se = new ScriptException(
+                "Failure compiling script " + scriptName + ": " + ioe.getMessage());
+            se.initCause(ioe);
+            throw se;
+
+        } finally {
+            Context.exit();
+        }
+    }
+
+    /**
+     * Executes a script compiled by {@link #compile(Reader)}.
+     */
+    Object eval(final Script script, final String scriptName,
+            final ScriptContext scriptContext) throws ScriptException {
+        return eval(script, null, scriptName, scriptContext);
+    }
+
+    /**
+     * Executes either the compiled script or the script read from the reader.
+     */
+    private Object eval(final Script script, final Reader scriptReader,
+            final String scriptName, final ScriptContext scriptContext)
+            throws ScriptException {
+        Bindings bindings = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+
         // container for replaced properties
         Map<String, Object> replacedProperties = null;
         Scriptable scope = null;
@@ -79,6 +159,7 @@ public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine {
         try {
 
             final Context rhinoContext = Context.enter();
+            setOptimizationLevel(rhinoContext);
 
             if (ScriptRuntime.hasTopCall(rhinoContext)) {
                 // reuse the top scope if we are included
@@ -108,6 +189,10 @@ public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine {
             // add initial properties to the scope
             replacedProperties = setBoundProperties(scope, bindings);
 
+            if (script != null) {
+                return script.exec(rhinoContext, scope);
+            }
+
             final int lineNumber = 1;
             final Object securityDomain = null;
 
@@ -168,6 +253,20 @@ public class RhinoJavaScriptEngine extends AbstractSlingScriptEngine {
         }
     }
 
+    /**
+     * Applies the optimization level configured in the factory (if any).
+     */
+    private void setOptimizationLevel(final Context rhinoContext) {
+        final ScriptEngineFactory factory = getFactory();
+        if (factory instanceof RhinoJavaScriptEngineFactory) {
+            final int level = ((RhinoJavaScriptEngineFactory) factory).getOptimizationLevel();
+            if (level != RhinoJavaScriptEngineFactory.OPTIMIZATION_LEVEL_DEFAULT
+                    && rhinoContext.getOptimizationLevel() != level) {
+                rhinoContext.setOptimizationLevel(level);
+            }
+        }
+    }
+
     private Map<String, Object> setBoundProperties(Scriptable scope,
             Bindings bindings) {
         Map<String, Object> replacedProperties = new HashMap<String, Object>();
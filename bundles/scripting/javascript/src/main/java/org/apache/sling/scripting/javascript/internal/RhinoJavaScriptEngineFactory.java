@@ -72,6 +72,15 @@ public class RhinoJavaScriptEngineFactory extends AbstractScriptEngineFactory
 
     public final static String ESP_SCRIPT_EXTENSION = "esp";
 
+    /**
+     * The name of the property to set the optimization level of the Rhino
+     * compiler (-1 for interpreted mode, 0 to 9 for compiled mode).
+     */
+    public final static String PROP_OPTIMIZATION_LEVEL = "org.apache.sling.scripting.javascript.optimization.level";
+
+    /** The optimization level value leaving the Rhino default untouched. */
+    static final int OPTIMIZATION_LEVEL_DEFAULT = Integer.MIN_VALUE;
+
     private static final Class<?>[] HOSTOBJECT_CLASSES = {
         ScriptableResource.class, ScriptableNode.class,
         ScriptableProperty.class, ScriptableItemMap.class,
@@ -87,6 +96,8 @@ public class RhinoJavaScriptEngineFactory extends AbstractScriptEngineFactory
 
     private Scriptable rootScope;
 
+    private int optimizationLevel = OPTIMIZATION_LEVEL_DEFAULT;
+
     private final Set<RhinoHostObjectProvider> hostObjectProvider = new HashSet<RhinoHostObjectProvider>();
 
     @Reference
@@ -120,6 +131,14 @@ public class RhinoJavaScriptEngineFactory extends AbstractScriptEngineFactory
         return wrapFactory;
     }
 
+    /**
+     * Returns the configured optimization level or
+     * {@link #OPTIMIZATION_LEVEL_DEFAULT} if not configured.
+     */
+    int getOptimizationLevel() {
+        return optimizationLevel;
+    }
+
     @SuppressWarnings("unchecked")
     private Scriptable getRootScope() {
         if (rootScope == null) {
@@ -177,6 +196,8 @@ public class RhinoJavaScriptEngineFactory extends AbstractScriptEngineFactory
         boolean debugging = getProperty(
             "org.apache.sling.scripting.javascript.debug", props,
             context.getBundleContext(), false);
+        optimizationLevel = getOptimizationLevel(props,
+            context.getBundleContext());
 
         // setup the wrap factory
         wrapFactory = new SlingWrapFactory();
@@ -306,4 +327,26 @@ public class RhinoJavaScriptEngineFactory extends AbstractScriptEngineFactory
                 ? Boolean.parseBoolean(String.valueOf(value))
                 : defaultValue;
     }
+
+    private int getOptimizationLevel(Dictionary<?, ?> props,
+            BundleContext bundleContext) {
+        Object value = props.get(PROP_OPTIMIZATION_LEVEL);
+        if (value == null) {
+            value = bundleContext.getProperty(PROP_OPTIMIZATION_LEVEL);
+        }
+
+        if (value != null) {
+            try {
+                final int level = Integer.parseInt(String.valueOf(value).trim());
+                if (Context.isValidOptimizationLevel(level)) {
+                    return level;
+                }
+            } catch (NumberFormatException nfe) {
+                // fall through to the warning
+            }
+            log.warn("Ignoring invalid optimization level {}", value);
+        }
+
+        return OPTIMIZATION_LEVEL_DEFAULT;
+    }
 }
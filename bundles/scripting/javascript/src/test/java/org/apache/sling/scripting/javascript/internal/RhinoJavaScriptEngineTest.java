@@ -18,10 +18,16 @@
  */
 package org.apache.sling.scripting.javascript.internal;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
 
 import junit.framework.TestCase;
 
@@ -47,10 +53,115 @@ public class RhinoJavaScriptEngineTest extends TestCase {
         assertEquals(2.0, result);
     }
 
+    public void testCompileAndEval() throws ScriptException {
+        MockRhinoJavaScriptEngineFactory factory = new MockRhinoJavaScriptEngineFactory();
+        ScriptEngine engine = factory.getScriptEngine();
+        assertTrue(engine instanceof Compilable);
+
+        CompiledScript script = ((Compilable) engine).compile("f * 2");
+        assertSame(engine, script.getEngine());
+
+        Bindings bindings = new SimpleBindings();
+        bindings.put("f", 2);
+        assertEquals(4.0, script.eval(bindings));
+
+        // the compiled script can be evaluated again with other bindings
+        bindings = new SimpleBindings();
+        bindings.put("f", 5);
+        assertEquals(10.0, script.eval(bindings));
+    }
+
+    public void testCompileEsp() throws ScriptException {
+        MockRhinoJavaScriptEngineFactory factory = new MockRhinoJavaScriptEngineFactory();
+        ScriptEngine engine = factory.getScriptEngine();
+        engine.put(ScriptEngine.FILENAME, "/apps/test/html.esp");
+        CompiledScript script = ((Compilable) engine).compile("<p><%= title %></p>");
+
+        StringWriter writer = new StringWriter();
+        Bindings bindings = new SimpleBindings();
+        bindings.put("title", "Hello");
+        bindings.put("response", new MockResponse(new PrintWriter(writer)));
+        script.eval(createContext(bindings));
+        assertEquals("<p>Hello</p>", writer.toString());
+    }
+
+    public void testCompileSyntaxError() {
+        MockRhinoJavaScriptEngineFactory factory = new MockRhinoJavaScriptEngineFactory();
+        ScriptEngine engine = factory.getScriptEngine();
+        try {
+            ((Compilable) engine).compile("var = ;");
+            fail("Expected ScriptException");
+        } catch (ScriptException se) {
+            assertNotNull(se.getMessage());
+        }
+    }
+
+    public void testSharedRootScope() throws ScriptException {
+        RootScopeRhinoJavaScriptEngineFactory factory = new RootScopeRhinoJavaScriptEngineFactory();
+
+        // java packages are still available
+        ScriptEngine engine = factory.getScriptEngine();
+        assertEquals("java.util.HashMap", engine.eval(
+            "String(new java.util.HashMap().getClass().getName())"));
+        assertEquals(2.0, engine.eval(
+            "var l = new java.util.ArrayList(); l.add('a'); l.add('b'); Number(l.size())"));
+
+        // global variables do not leak into the shared root scope
+        engine.eval("var leaked = 1");
+        assertEquals("undefined", factory.getScriptEngine().eval("typeof leaked"));
+    }
+
+    public void testOptimizationLevel() throws ScriptException {
+        MockRhinoJavaScriptEngineFactory factory = new MockRhinoJavaScriptEngineFactory();
+        assertEquals(RhinoJavaScriptEngineFactory.OPTIMIZATION_LEVEL_DEFAULT,
+            factory.getOptimizationLevel());
+        factory.optimizationLevel = -1;
+        ScriptEngine engine = factory.getScriptEngine();
+        CompiledScript script = ((Compilable) engine).compile("1 + 2");
+        assertEquals(3.0, script.eval());
+    }
+
+    private static SimpleScriptContext createContext(Bindings bindings) {
+        SimpleScriptContext ctx = new SimpleScriptContext();
+        ctx.setBindings(bindings, SimpleScriptContext.ENGINE_SCOPE);
+        return ctx;
+    }
+
+    public static class MockResponse {
+
+        private final PrintWriter writer;
+
+        public MockResponse(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        public PrintWriter getWriter() {
+            return writer;
+        }
+    }
+
+    /**
+     * A factory using the shared root scope of the factory.
+     */
+    private static class RootScopeRhinoJavaScriptEngineFactory extends RhinoJavaScriptEngineFactory {
+
+        protected SlingWrapFactory wrapFactory;
+
+        @Override
+        SlingWrapFactory getWrapFactory() {
+            if (wrapFactory == null) {
+                wrapFactory = new SlingWrapFactory();
+            }
+            return wrapFactory;
+        }
+    }
+
     private static class MockRhinoJavaScriptEngineFactory extends RhinoJavaScriptEngineFactory {
 
         protected SlingWrapFactory wrapFactory;
 
+        protected Integer optimizationLevel;
+
         @Override
         public ScriptEngine getScriptEngine() {
             final Context rhinoContext = Context.enter();
@@ -65,6 +176,14 @@ public class RhinoJavaScriptEngineTest extends TestCase {
             }
             return wrapFactory;
         }
+
+        @Override
+        int getOptimizationLevel() {
+            if (optimizationLevel != null) {
+                return optimizationLevel;
+            }
+            return super.getOptimizationLevel();
+        }
     }
 
 }
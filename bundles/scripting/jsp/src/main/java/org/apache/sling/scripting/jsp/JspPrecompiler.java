@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.jsp;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>JspPrecompiler</code> compiles all JSP scripts found below the
+ * search paths in the background, so requests don't have to wait for the
+ * compilation. A run is started after activation and after a script has
+ * been changed. Runs are delayed a little to collect bursts of changes,
+ * like installing a content package, into a single run.
+ * <p>
+ * The scripts are compiled in parallel by a bounded number of threads,
+ * each thread using its own resource resolver.
+ */
+class JspPrecompiler extends StandardMBean implements JspPrecompilerMBean {
+
+    /**
+     * The callback compiling a single script.
+     */
+    interface ScriptCompiler {
+
+        /**
+         * Compile and load the script.
+         * @return <code>true</code> if the script is ready to be used.
+         */
+        boolean compile(ResourceResolver resolver, String scriptName);
+    }
+
+    /** Delay of a run in ms to collect bursts of changes. */
+    private static final long RUN_DELAY = 2000;
+
+    /** The extensions of the scripts to compile (fragments are included only). */
+    private static final String[] EXTENSIONS = { ".jsp", ".jspx" };
+
+    /** The name of the content child of file resources, which is not traversed. */
+    private static final String JCR_CONTENT = "jcr:content";
+
+    private final Logger logger = LoggerFactory.getLogger(JspPrecompiler.class);
+
+    private final ResourceResolverFactory resourceResolverFactory;
+
+    private final ScriptCompiler compiler;
+
+    private final int threads;
+
+    /** Schedules and coordinates the runs. */
+    private final ScheduledExecutorService coordinator;
+
+    /** Compiles the scripts. */
+    private final ExecutorService workers;
+
+    /** Incremented for each scheduled run, a run stops if outdated. */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private final AtomicLong runCount = new AtomicLong();
+
+    private final AtomicInteger compiledCount = new AtomicInteger();
+
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    private final Queue<String> failedScripts = new ConcurrentLinkedQueue<String>();
+
+    private volatile boolean running;
+
+    private volatile int scriptCount;
+
+    private volatile long lastRunDuration = -1;
+
+    JspPrecompiler(final ResourceResolverFactory resourceResolverFactory,
+            final ScriptCompiler compiler,
+            final int threads)
+    throws NotCompliantMBeanException {
+        super(JspPrecompilerMBean.class);
+        this.resourceResolverFactory = resourceResolverFactory;
+        this.compiler = compiler;
+        this.threads = Math.max(1, threads);
+        this.coordinator = Executors.newSingleThreadScheduledExecutor(
+            new PrecompilerThreadFactory("Apache Sling JSP Precompiler"));
+        this.workers = Executors.newFixedThreadPool(this.threads,
+            new PrecompilerThreadFactory("Apache Sling JSP Precompiler Worker #"));
+    }
+
+    /**
+     * Schedule a new run. A run in progress is stopped.
+     */
+    void schedule() {
+        final int gen = generation.incrementAndGet();
+        try {
+            coordinator.schedule(new Runnable() {
+                public void run() {
+                    if ( gen == generation.get() ) {
+                        runPrecompilation(gen);
+                    }
+                }
+            }, RUN_DELAY, TimeUnit.MILLISECONDS);
+        } catch (final RuntimeException re) {
+            // rejected as we are shutting down
+            logger.debug("Unable to schedule JSP precompilation", re);
+        }
+    }
+
+    /**
+     * Stop all runs and the threads.
+     */
+    void dispose() {
+        generation.incrementAndGet();
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void runPrecompilation(final int gen) {
+        final List<String> scripts = new ArrayList<String>();
+        ResourceResolver resolver = getResourceResolver();
+        if ( resolver == null ) {
+            return;
+        }
+        try {
+            for(final String searchPath : resolver.getSearchPath()) {
+                final Resource root = resolver.getResource(searchPath);
+                if ( root != null ) {
+                    findScripts(resolver, root, scripts);
+                }
+            }
+        } catch (final RuntimeException re) {
+            logger.warn("Unable to find JSP scripts for precompilation", re);
+            return;
+        } finally {
+            resolver.close();
+        }
+
+        final long start = System.currentTimeMillis();
+        runCount.incrementAndGet();
+        compiledCount.set(0);
+        failedCount.set(0);
+        failedScripts.clear();
+        scriptCount = scripts.size();
+        running = true;
+        logger.info("Precompiling {} JSP scripts with {} threads", scripts.size(), threads);
+        try {
+            final Queue<String> queue = new ConcurrentLinkedQueue<String>(scripts);
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for(int i = 0; i < Math.min(threads, scripts.size()); i++) {
+                futures.add(workers.submit(new Runnable() {
+                    public void run() {
+                        compileScripts(queue, gen);
+                    }
+                }));
+            }
+            for(final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (final ExecutionException ee) {
+            logger.warn("JSP precompilation failed", ee.getCause());
+        } catch (final RuntimeException re) {
+            // rejected as we are shutting down
+            logger.debug("JSP precompilation stopped", re);
+        } finally {
+            running = false;
+        }
+        if ( gen == generation.get() ) {
+            lastRunDuration = System.currentTimeMillis() - start;
+            logger.info("Precompiled {} JSP scripts in {}ms, {} failed",
+                new Object[] {compiledCount.get(), lastRunDuration, failedCount.get()});
+        }
+    }
+
+    private void compileScripts(final Queue<String> queue, final int gen) {
+        final ResourceResolver resolver = getResourceResolver();
+        if ( resolver == null ) {
+            return;
+        }
+        try {
+            String scriptName;
+            while ( gen == generation.get() && (scriptName = queue.poll()) != null ) {
+                boolean compiled = false;
+                try {
+                    compiled = compiler.compile(resolver, scriptName);
+                } catch (final RuntimeException re) {
+                    logger.debug("Unable to precompile " + scriptName, re);
+                }
+                if ( compiled ) {
+                    compiledCount.incrementAndGet();
+                } else {
+                    failedCount.incrementAndGet();
+                    failedScripts.add(scriptName);
+                }
+            }
+        } finally {
+            resolver.close();
+        }
+    }
+
+    /**
+     * Collect the JSP scripts below the resource.
+     */
+    private void findScripts(final ResourceResolver resolver,
+            final Resource parent,
+            final List<String> scripts) {
+        final Iterator<Resource> children = resolver.listChildren(parent);
+        while ( children.hasNext() ) {
+            final Resource child = children.next();
+            final String path = child.getPath();
+            if ( isScript(path) ) {
+                scripts.add(path);
+            } else if ( !path.endsWith(JCR_CONTENT) ) {
+                findScripts(resolver, child, scripts);
+            }
+        }
+    }
+
+    private boolean isScript(final String path) {
+        for(final String ext : EXTENSIONS) {
+            if ( path.endsWith(ext) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResourceResolver getResourceResolver() {
+        try {
+            return resourceResolverFactory.getAdministrativeResourceResolver(null);
+        } catch (final LoginException le) {
+            logger.warn("Unable to get resource resolver for JSP precompilation", le);
+        } catch (final RuntimeException re) {
+            // the factory might be gone
+            logger.debug("Unable to get resource resolver for JSP precompilation", re);
+        }
+        return null;
+    }
+
+    // ---------- JspPrecompilerMBean -------------------------------------------
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getRunCount() {
+        return runCount.get();
+    }
+
+    public int getScriptCount() {
+        return scriptCount;
+    }
+
+    public int getCompiledCount() {
+        return compiledCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getProgressPercent() {
+        final int total = scriptCount;
+        if ( total == 0 ) {
+            return running ? 0 : 100;
+        }
+        return (compiledCount.get() + failedCount.get()) * 100 / total;
+    }
+
+    public long getLastRunDurationMsec() {
+        return lastRunDuration;
+    }
+
+    public String[] getFailedScripts() {
+        return failedScripts.toArray(new String[0]);
+    }
+
+    public void precompile() {
+        schedule();
+    }
+
+    private static final class PrecompilerThreadFactory implements ThreadFactory {
+
+        private final String name;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        PrecompilerThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(final Runnable r) {
+            final Thread t = new Thread(r, name.endsWith("#") ? name + counter.incrementAndGet() : name);
+            t.setDaemon(true);
+            // requests have precedence
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }
+    }
+}
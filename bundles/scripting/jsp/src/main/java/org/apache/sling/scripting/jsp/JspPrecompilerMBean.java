@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.jsp;
+
+/**
+ * This is the management interface for the background precompilation
+ * of the JSP scripts.
+ */
+public interface JspPrecompilerMBean {
+
+    /**
+     * Returns <code>true</code> while a precompilation run is in progress.
+     */
+    boolean isRunning();
+
+    /**
+     * Returns the number of runs started since activation.
+     */
+    long getRunCount();
+
+    /**
+     * Returns the number of scripts found by the current or last run.
+     */
+    int getScriptCount();
+
+    /**
+     * Returns the number of scripts successfully compiled and loaded by the
+     * current or last run.
+     */
+    int getCompiledCount();
+
+    /**
+     * Returns the number of scripts which failed to compile in the current
+     * or last run.
+     */
+    int getFailedCount();
+
+    /**
+     * Returns the progress of the current or last run in percent.
+     */
+    int getProgressPercent();
+
+    /**
+     * Returns the duration in milliseconds of the last completed run.
+     */
+    long getLastRunDurationMsec();
+
+    /**
+     * Returns the paths of the scripts which failed to compile in the
+     * current or last run.
+     */
+    String[] getFailedScripts();
+
+    /**
+     * Starts a new precompilation run. A run in progress is stopped.
+     */
+    void precompile();
+}
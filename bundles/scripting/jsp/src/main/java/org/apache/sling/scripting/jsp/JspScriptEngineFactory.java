@@ -21,7 +21,9 @@ import static org.apache.sling.api.scripting.SlingBindings.SLING;
 import java.io.Reader;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.Map;
 
+import javax.management.NotCompliantMBeanException;
 import javax.script.Bindings;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -34,13 +36,17 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.sling.api.SlingConstants;
 import org.apache.sling.api.SlingException;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingIOException;
 import org.apache.sling.api.SlingServletException;
+import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.scripting.SlingBindings;
 import org.apache.sling.api.scripting.SlingScript;
 import org.apache.sling.api.scripting.SlingScriptConstants;
@@ -81,7 +87,8 @@ import org.slf4j.LoggerFactory;
    @Property(name="jasper.keepgenerated",boolValue=true),
    @Property(name="jasper.mappedfile",boolValue=true),
    @Property(name="jasper.trimSpaces",boolValue=false),
-   @Property(name="jasper.displaySourceFragments",boolValue=false)
+   @Property(name="jasper.displaySourceFragments",boolValue=false),
+   @Property(name="jasper.tagpoolClassName",value="org.apache.sling.scripting.jsp.jasper.runtime.TagHandlerPool")
 })
 public class JspScriptEngineFactory
     extends AbstractScriptEngineFactory
@@ -90,6 +97,16 @@ public class JspScriptEngineFactory
     @Property(boolValue = true)
     private static final String PROP_DEFAULT_IS_SESSION = "default.is.session";
 
+    private static final boolean DEFAULT_PRECOMPILE = true;
+
+    @Property(boolValue = DEFAULT_PRECOMPILE)
+    private static final String PROP_PRECOMPILE = "precompile";
+
+    private static final int DEFAULT_PRECOMPILE_THREADS = 2;
+
+    @Property(intValue = DEFAULT_PRECOMPILE_THREADS)
+    private static final String PROP_PRECOMPILE_THREADS = "precompile.threads";
+
     /** Default logger */
     private final Logger logger = LoggerFactory.getLogger(JspScriptEngineFactory.class);
 
@@ -102,6 +119,9 @@ public class JspScriptEngineFactory
     @Reference
     private DynamicClassLoaderManager dynamicClassLoaderManager;
 
+    @Reference(cardinality=ReferenceCardinality.OPTIONAL_UNARY, policy=ReferencePolicy.DYNAMIC)
+    private volatile ResourceResolverFactory resourceResolverFactory;
+
     private ClassLoader dynamicClassLoader;
 
     /** The io provider for reading and writing. */
@@ -109,7 +129,7 @@ public class JspScriptEngineFactory
 
     private SlingTldLocationsCache tldLocationsCache;
 
-    private JspRuntimeContext jspRuntimeContext;
+    private volatile JspRuntimeContext jspRuntimeContext;
 
     private Options options;
 
@@ -119,6 +139,11 @@ public class JspScriptEngineFactory
 
     private ServiceRegistration eventHandlerRegistration;
 
+    /** The background compilation of the scripts (if enabled). */
+    private JspPrecompiler precompiler;
+
+    private ServiceRegistration precompilerRegistration;
+
     private boolean defaultIsSession;
 
     /** The handler for the jsp factories. */
@@ -176,8 +201,7 @@ public class JspScriptEngineFactory
                                   final SlingScriptHelper scriptHelper,
                                   final ScriptContext context,
                                   final String scriptName) {
-    	final SlingBindings slingBindings = new SlingBindings();
-        slingBindings.putAll(bindings);
+    	final SlingBindings slingBindings = new LazySlingBindings(bindings);
 
         ResourceResolver resolver = (ResourceResolver) context.getAttribute(SlingScriptConstants.ATTR_SCRIPT_RESOURCE_RESOLVER,
                 SlingScriptConstants.SLING_SCOPE);
@@ -233,8 +257,8 @@ public class JspScriptEngineFactory
         final ResourceResolver oldResolver = io.setRequestResourceResolver(resolver);
         jspFactoryHandler.incUsage();
         try {
-            final SlingBindings slingBindings = new SlingBindings();
-            slingBindings.putAll(bindings);
+            // the values are copied on demand
+            final SlingBindings slingBindings = new LazySlingBindings(bindings);
 
             final JspServletWrapper jsp = getJspWrapper(scriptHelper, slingBindings);
             // create a SlingBindings object
@@ -266,6 +290,81 @@ public class JspScriptEngineFactory
         return wrapper;
     }
 
+    /**
+     * Compile and load the script in the background.
+     * @see JspPrecompiler.ScriptCompiler#compile(ResourceResolver, String)
+     */
+    private boolean precompile(final ResourceResolver resolver, final String scriptName) {
+        final SlingIOProvider io = this.ioProvider;
+        final JspRuntimeContext.JspFactoryHandler factoryHandler = this.jspFactoryHandler;
+        if ( io == null || factoryHandler == null ) {
+            // deactivated
+            return false;
+        }
+        final ClassLoader old = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(this.dynamicClassLoader);
+        final ResourceResolver oldResolver = io.setRequestResourceResolver(resolver);
+        factoryHandler.incUsage();
+        try {
+            return getJspWrapper(scriptName, null).compile();
+        } finally {
+            factoryHandler.decUsage();
+            io.resetRequestResourceResolver(oldResolver);
+            Thread.currentThread().setContextClassLoader(old);
+        }
+    }
+
+    /**
+     * Start the background compilation and register its management
+     * interface.
+     */
+    private void startPrecompiler(final ComponentContext componentContext, final int threads) {
+        final ResourceResolverFactory factory = new ResourceResolverFactory() {
+
+            public ResourceResolver getResourceResolver(final Map<String, Object> authenticationInfo)
+            throws LoginException {
+                return getResourceResolverFactory().getResourceResolver(authenticationInfo);
+            }
+
+            public ResourceResolver getAdministrativeResourceResolver(final Map<String, Object> authenticationInfo)
+            throws LoginException {
+                return getResourceResolverFactory().getAdministrativeResourceResolver(authenticationInfo);
+            }
+        };
+        try {
+            this.precompiler = new JspPrecompiler(factory, new JspPrecompiler.ScriptCompiler() {
+
+                public boolean compile(final ResourceResolver resolver, final String scriptName) {
+                    return precompile(resolver, scriptName);
+                }
+            }, threads);
+        } catch (final NotCompliantMBeanException e) {
+            logger.warn("Unable to create JSP precompiler", e);
+            return;
+        }
+
+        final Dictionary<String, String> mbeanProps = new Hashtable<String, String>();
+        mbeanProps.put("jmx.objectname", "org.apache.sling:type=scripting,service=JspPrecompiler");
+        mbeanProps.put("service.description","JSP Precompiler");
+        mbeanProps.put("service.vendor","The Apache Software Foundation");
+        this.precompilerRegistration = componentContext.getBundleContext()
+                .registerService(JspPrecompilerMBean.class.getName(), this.precompiler, mbeanProps);
+
+        this.precompiler.schedule();
+    }
+
+    /**
+     * Returns the resource resolver factory.
+     * @throws LoginException if the factory is not available.
+     */
+    private ResourceResolverFactory getResourceResolverFactory() throws LoginException {
+        final ResourceResolverFactory factory = this.resourceResolverFactory;
+        if ( factory == null ) {
+            throw new LoginException("ResourceResolverFactory not available");
+        }
+        return factory;
+    }
+
     private JspServletWrapper getJspWrapper(final SlingScriptHelper scriptHelper, final SlingBindings bindings)
     throws SlingException {
         final SlingScript script = scriptHelper.getScript();
@@ -320,6 +419,12 @@ public class JspScriptEngineFactory
         this.eventHandlerRegistration = componentContext.getBundleContext()
                   .registerService(EventHandler.class.getName(), this, props);
 
+        // start the background compilation
+        if ( PropertiesUtil.toBoolean(properties.get(PROP_PRECOMPILE), DEFAULT_PRECOMPILE) ) {
+            this.startPrecompiler(componentContext, PropertiesUtil.toInteger(
+                    properties.get(PROP_PRECOMPILE_THREADS), DEFAULT_PRECOMPILE_THREADS));
+        }
+
         logger.debug("IMPORTANT: Do not modify the generated servlets");
     }
 
@@ -337,6 +442,14 @@ public class JspScriptEngineFactory
             this.eventHandlerRegistration.unregister();
             this.eventHandlerRegistration = null;
         }
+        if ( this.precompilerRegistration != null ) {
+            this.precompilerRegistration.unregister();
+            this.precompilerRegistration = null;
+        }
+        if ( this.precompiler != null ) {
+            this.precompiler.dispose();
+            this.precompiler = null;
+        }
         if (jspRuntimeContext != null) {
             this.destroyJspRuntimeContext(this.jspRuntimeContext);
             jspRuntimeContext = null;
@@ -531,21 +644,49 @@ public class JspScriptEngineFactory
         final String path = (String)event.getProperty(SlingConstants.PROPERTY_PATH);
         if ( path != null ) {
             final JspRuntimeContext rctxt = this.jspRuntimeContext;
+            boolean modified = false;
             if ( rctxt != null && rctxt.handleModification(path) ) {
                 renewJspRuntimeContext();
+                modified = true;
+            }
+            // compile the changed scripts before they are requested
+            final JspPrecompiler pc = this.precompiler;
+            if ( pc != null && (modified || isScript(path)) ) {
+                pc.schedule();
             }
         }
     }
 
+    /**
+     * Is the path a JSP script?
+     */
+    private boolean isScript(final String path) {
+        final int pos = path.lastIndexOf('.');
+        if ( pos != -1 ) {
+            final String ext = path.substring(pos + 1);
+            for(final String type : SCRIPT_TYPE) {
+                if ( type.equals(ext) ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Renew the jsp runtime context.
-     * A new context is created, the old context is destroyed in the background
+     * A new context is created, the old context is destroyed in the background.
+     * The new context takes over the dependencies from the old one, so
+     * only the scripts affected by the modification are checked again.
      */
     private void renewJspRuntimeContext() {
         final JspRuntimeContext jrc;
         synchronized ( this ) {
             jrc = this.jspRuntimeContext;
-            this.jspRuntimeContext = null;
+            if ( jrc != null ) {
+                this.jspRuntimeContext = new JspRuntimeContext(slingServletContext,
+                        options, ioProvider, jrc);
+            }
         }
         final Thread t = new Thread() {
             public void run() {
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.jsp;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.script.Bindings;
+
+import org.apache.sling.api.scripting.SlingBindings;
+
+/**
+ * Sling bindings copying the values from the script bindings on
+ * demand. The script bindings might compute the values of bindings
+ * values providers lazily, so copying all values up front would
+ * defeat this. Iterating the bindings copies all values.
+ */
+class LazySlingBindings extends SlingBindings {
+
+    private static final long serialVersionUID = 2540375582401476377L;
+
+    /** The script bindings or <code>null</code> if all values are copied. */
+    private transient Bindings source;
+
+    /** The keys already looked up in the script bindings. */
+    private final Set<Object> resolved = new HashSet<Object>();
+
+    LazySlingBindings(final Bindings source) {
+        this.source = source;
+    }
+
+    private void resolve(final Object key) {
+        if ( this.source != null && key instanceof String && this.resolved.add(key) ) {
+            if ( !super.containsKey(key) && this.source.containsKey(key) ) {
+                super.put((String)key, this.source.get(key));
+            }
+        }
+    }
+
+    private void resolveAll() {
+        if ( this.source != null ) {
+            for(final Map.Entry<String, Object> entry : this.source.entrySet()) {
+                if ( this.resolved.add(entry.getKey()) && !super.containsKey(entry.getKey()) ) {
+                    super.put(entry.getKey(), entry.getValue());
+                }
+            }
+            this.source = null;
+        }
+    }
+
+    @Override
+    public Object get(final Object key) {
+        this.resolve(key);
+        return super.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        this.resolve(key);
+        return super.containsKey(key);
+    }
+
+    @Override
+    public Object put(final String key, final Object value) {
+        this.resolved.add(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ? extends Object> m) {
+        for(final Map.Entry<? extends String, ? extends Object> entry : m.entrySet()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        this.resolve(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        this.source = null;
+        super.clear();
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        this.resolveAll();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public int size() {
+        this.resolveAll();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        this.resolveAll();
+        return super.isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        this.resolveAll();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        this.resolveAll();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        this.resolveAll();
+        return super.entrySet();
+    }
+
+    @Override
+    public Object clone() {
+        this.resolveAll();
+        return super.clone();
+    }
+}
@@ -85,6 +85,11 @@ public class Constants {
      */
     public static final int DEFAULT_TAG_BUFFER_SIZE = 512;
 
+    /**
+     * Max size for the tag buffers kept for reuse.
+     */
+    public static final int MAX_TAG_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Default tag handler pool size.
      */
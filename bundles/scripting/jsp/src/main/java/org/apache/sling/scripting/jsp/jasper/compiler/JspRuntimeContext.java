@@ -27,6 +27,7 @@ import java.security.cert.Certificate;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -200,11 +201,36 @@ public final class JspRuntimeContext {
      * @param context ServletContext for web application
      */
     public JspRuntimeContext(ServletContext context, Options options, final IOProvider ioProvider) {
+        this(context, options, ioProvider, null);
+    }
+
+    /**
+     * Create a JspRuntimeContext replacing a previous context.
+     *
+     * The dependencies and the up to date state of the jsps are taken
+     * over from the previous context, so jsps not affected by the
+     * modifications handled by the previous context are not checked
+     * again.
+     *
+     * @param context ServletContext for web application
+     * @param previous The previous context or <code>null</code>
+     */
+    public JspRuntimeContext(ServletContext context, Options options, final IOProvider ioProvider,
+            final JspRuntimeContext previous) {
 
         this.context = context;
         this.options = options;
         this.ioProvider = ioProvider;
 
+        if ( previous != null ) {
+            synchronized ( previous.depToJsp ) {
+                for(final Map.Entry<String, Set<String>> entry : previous.depToJsp.entrySet()) {
+                    this.depToJsp.put(entry.getKey(), new HashSet<String>(entry.getValue()));
+                }
+            }
+            this.upToDate.putAll(previous.upToDate);
+        }
+
         if (Constants.IS_SECURITY_ENABLED) {
             initSecurity();
         }
@@ -229,6 +255,14 @@ public final class JspRuntimeContext {
      */
     private final Map<String, Set<String>> depToJsp = new HashMap<String, Set<String>>();
 
+    /**
+     * The jsps whose generated class has been checked against the jsp
+     * and its dependencies. Modifications are reported through
+     * {@link #handleModification(String)}, therefore the time stamps
+     * of these jsps do not need to be checked again.
+     */
+    private final ConcurrentHashMap<String, Boolean> upToDate = new ConcurrentHashMap<String, Boolean>();
+
     // ------------------------------------------------------ Public Methods
 
     public void addJspDependencies(final JspServletWrapper jsw, final List<String> deps) {
@@ -256,23 +290,54 @@ public final class JspRuntimeContext {
         }
 
         JspServletWrapper wrapper = jsps.remove(scriptName);
+        upToDate.remove(scriptName);
 
         // first check if jsps contains this
         boolean removed = this.invalidate(wrapper);
 
-        final Set<String> deps;
+        // invalidate all jsps using the script - directly or
+        // through other includes or tag files
+        final Set<String> affected = new HashSet<String>();
         synchronized ( depToJsp ) {
-            deps = depToJsp.remove(scriptName);
-        }
-        if ( deps != null ) {
-            for(final String dep : deps) {
-                wrapper = jsps.remove(dep);
-                removed |= this.invalidate(wrapper);
+            final LinkedList<String> todo = new LinkedList<String>();
+            todo.add(scriptName);
+            while ( !todo.isEmpty() ) {
+                final Set<String> deps = depToJsp.remove(todo.removeFirst());
+                if ( deps != null ) {
+                    for(final String dep : deps) {
+                        if ( affected.add(dep) ) {
+                            todo.add(dep);
+                        }
+                    }
+                }
             }
         }
+        for(final String dep : affected) {
+            upToDate.remove(dep);
+            wrapper = jsps.remove(dep);
+            removed |= this.invalidate(wrapper);
+        }
         return removed;
     }
 
+    /**
+     * Is the generated class of the jsp known to be up to date?
+     * This is the case if it has been checked or compiled and no
+     * modification of the jsp or one of its dependencies has been
+     * handled since then.
+     */
+    public boolean isUpToDate(final String jspUri) {
+        return upToDate.containsKey(jspUri);
+    }
+
+    /**
+     * Mark the generated class of the jsp as up to date.
+     * @see #isUpToDate(String)
+     */
+    public void setUpToDate(final String jspUri) {
+        upToDate.put(jspUri, Boolean.TRUE);
+    }
+
     /**
      * Invalidate a wrapper and destroy it.
      */
@@ -333,6 +398,7 @@ public final class JspRuntimeContext {
         synchronized ( depToJsp ) {
             depToJsp.clear();
         }
+        upToDate.clear();
     }
 
     /**
@@ -46,6 +46,8 @@ public class BodyContentImpl extends BodyContent {
     
     private char[] cb;
     private int nextChar;
+    // max number of chars buffered since the last push
+    private int peakChars;
     private boolean closed;
     
     // Enclosed writer to which any output is written
@@ -58,8 +60,15 @@ public class BodyContentImpl extends BodyContent {
      * Constructor.
      */
     public BodyContentImpl(JspWriter enclosingWriter) {
+        this(enclosingWriter, Constants.DEFAULT_TAG_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor with an initial buffer size.
+     */
+    public BodyContentImpl(JspWriter enclosingWriter, int initialSize) {
         super(enclosingWriter);
-        bufferSize = Constants.DEFAULT_TAG_BUFFER_SIZE;
+        bufferSize = initialSize > 0 ? initialSize : Constants.DEFAULT_TAG_BUFFER_SIZE;
         cb = new char[bufferSize];
         nextChar = 0;
         closed = false;
@@ -470,6 +479,9 @@ public class BodyContentImpl extends BodyContent {
         if (writer != null) {
             throw new IOException();
         } else {
+            if (nextChar > peakChars) {
+                peakChars = nextChar;
+            }
             nextChar = 0;
             if (LIMIT_BUFFER && (cb.length > Constants.DEFAULT_TAG_BUFFER_SIZE)) {
                 bufferSize = Constants.DEFAULT_TAG_BUFFER_SIZE;
@@ -576,8 +588,35 @@ public class BodyContentImpl extends BodyContent {
             bufferSize = bufferSizeSave;
             clearBody();
         }
+        peakChars = 0;
     }
     
+    /**
+     * Returns the max number of chars buffered since this body content
+     * has been pushed.
+     */
+    int getPeakSize() {
+        return Math.max(peakChars, nextChar);
+    }
+
+    /**
+     * Reset this body content for reuse by the next request. The buffer
+     * is replaced if it is much larger than the expected size.
+     */
+    void recycle(final int expectedSize) {
+        if (writer != null) {
+            writer = null;
+            bufferSize = bufferSizeSave;
+        }
+        nextChar = 0;
+        peakChars = 0;
+        closed = false;
+        if (cb.length > 2 * expectedSize) {
+            bufferSize = expectedSize;
+            cb = new char[bufferSize];
+        }
+    }
+
     private void ensureOpen() throws IOException {
         if (closed) throw new IOException("Stream closed");
     }
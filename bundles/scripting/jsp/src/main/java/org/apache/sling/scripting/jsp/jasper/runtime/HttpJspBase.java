@@ -27,6 +27,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.jsp.HttpJspPage;
 import javax.servlet.jsp.JspFactory;
 
+import org.apache.sling.scripting.jsp.jasper.Constants;
 import org.apache.sling.scripting.jsp.jasper.compiler.Localizer;
 
 /**
@@ -41,6 +42,12 @@ public abstract class HttpJspBase
     
 {
     
+    /**
+     * The estimated size of the body contents of this page, used as the
+     * initial size of the tag buffers.
+     */
+    private volatile int bodyContentSize = Constants.DEFAULT_TAG_BUFFER_SIZE;
+
     protected HttpJspBase() {
     }
 
@@ -82,6 +89,28 @@ public abstract class HttpJspBase
     protected void _jspDestroy() {
     }
 
+    /**
+     * Returns the estimated size of the body contents of this page.
+     */
+    int getBodyContentSize() {
+        return bodyContentSize;
+    }
+
+    /**
+     * Update the estimated size of the body contents with the size of
+     * a rendered body content. The estimate grows immediately but
+     * shrinks slowly.
+     */
+    void updateBodyContentSize(final int size) {
+        final int current = bodyContentSize;
+        int estimate = (size > current ? size : current - (current - size) / 8);
+        estimate = Math.max(Constants.DEFAULT_TAG_BUFFER_SIZE,
+                Math.min(Constants.MAX_TAG_BUFFER_SIZE, estimate));
+        if ( estimate != current ) {
+            bodyContentSize = estimate;
+        }
+    }
+
     public abstract void _jspService(HttpServletRequest request, 
 				     HttpServletResponse response) 
 	throws ServletException, IOException;
@@ -44,6 +44,36 @@ public class JspFactoryImpl extends JspFactory {
 
     private static final String SPEC_VERSION = "2.1";
 
+    private static final int POOL_SIZE =
+        Integer.valueOf(System.getProperty("org.apache.sling.scripting.jsp.jasper.runtime.JspFactoryImpl.POOL_SIZE", "8")).intValue();
+
+    /**
+     * The page contexts of the current thread which can be reused.
+     * Each page context keeps its buffers, so they are recycled across
+     * requests. Page contexts are used in a nested way (includes),
+     * therefore a small stack is used per thread.
+     */
+    private final ThreadLocal<PageContextPool> localPool = new ThreadLocal<PageContextPool>();
+
+    private final int poolSize;
+
+    /**
+     * Creates a factory using a page context pool of the size configured
+     * by the system property <code>org.apache.sling.scripting.jsp.jasper.runtime.JspFactoryImpl.POOL_SIZE</code>
+     * (default 8).
+     */
+    public JspFactoryImpl() {
+        this(POOL_SIZE);
+    }
+
+    /**
+     * Creates a factory using a page context pool of the given size per
+     * thread. A size of 0 disables pooling.
+     */
+    public JspFactoryImpl(final int poolSize) {
+        this.poolSize = poolSize;
+    }
+
     public PageContext getPageContext(Servlet servlet, ServletRequest request,
             ServletResponse response, String errorPageURL, boolean needsSession,
             int bufferSize, boolean autoflush) {
@@ -84,7 +114,16 @@ public class JspFactoryImpl extends JspFactory {
             ServletResponse response, String errorPageURL, boolean needsSession,
             int bufferSize, boolean autoflush) {
         try {
-            PageContext pc = new PageContextImpl();
+            PageContext pc = null;
+            if (poolSize > 0) {
+                final PageContextPool pool = localPool.get();
+                if (pool != null) {
+                    pc = pool.get();
+                }
+            }
+            if (pc == null) {
+                pc = new PageContextImpl();
+            }
             pc.initialize(servlet, request, response, errorPageURL,
                     needsSession, bufferSize, autoflush);
             return pc;
@@ -97,6 +136,43 @@ public class JspFactoryImpl extends JspFactory {
 
     private void internalReleasePageContext(PageContext pc) {
         pc.release();
+        if (poolSize > 0 && pc instanceof PageContextImpl) {
+            PageContextPool pool = localPool.get();
+            if (pool == null) {
+                pool = new PageContextPool(poolSize);
+                localPool.set(pool);
+            }
+            pool.put(pc);
+        }
+    }
+
+    /**
+     * A bounded stack of page contexts used by a single thread.
+     */
+    private static final class PageContextPool {
+
+        private final PageContext[] pool;
+
+        private int current = -1;
+
+        PageContextPool(final int size) {
+            this.pool = new PageContext[size];
+        }
+
+        void put(final PageContext pc) {
+            if (current < (pool.length - 1)) {
+                pool[++current] = pc;
+            }
+        }
+
+        PageContext get() {
+            if (current >= 0) {
+                final PageContext pc = pool[current];
+                pool[current--] = null;
+                return pc;
+            }
+            return null;
+        }
     }
 
     private class PrivilegedGetPageContext implements PrivilegedAction {
@@ -194,7 +194,6 @@ public class PageContextImpl extends PageContext {
             IllegalStateException ise = new IllegalStateException(Localizer.getMessage("jsp.error.flush"), ex);
             throw ise;
 		} finally {
-		    servlet = null;
 		    config = null;
 		    context = null;
 		    applicationContext = null;
@@ -202,9 +201,15 @@ public class PageContextImpl extends PageContext {
 		    errorPageURL = null;
 		    request = null;
 		    response = null;
+		    // keep the body contents for the next request
+		    final int bodyContentSize = getBodyContentSize();
+		    for (int i = 0; i < outs.length; i++) {
+		        outs[i].recycle(bodyContentSize);
+		    }
 		    depth = -1;
 		    baseOut.recycle();
 		    session = null;
+		    servlet = null;
 		    attributes.clear();
         }
 	}
@@ -750,6 +755,16 @@ public class PageContextImpl extends PageContext {
         throw new SlingPageException(path);
     }
 
+	/**
+	 * Returns the expected size of the body contents of the current page.
+	 */
+	private int getBodyContentSize() {
+		if (servlet instanceof HttpJspBase) {
+			return ((HttpJspBase) servlet).getBodyContentSize();
+		}
+		return Constants.DEFAULT_TAG_BUFFER_SIZE;
+	}
+
 	public BodyContent pushBody() {
 		return (BodyContent) pushBody(null);
 	}
@@ -761,7 +776,7 @@ public class PageContextImpl extends PageContext {
 			for (int i = 0; i < outs.length; i++) {
 				newOuts[i] = outs[i];
 			}
-			newOuts[depth] = new BodyContentImpl(out);
+			newOuts[depth] = new BodyContentImpl(out, getBodyContentSize());
 			outs = newOuts;
 		}
 
@@ -776,6 +791,9 @@ public class PageContextImpl extends PageContext {
 	}
 
 	public JspWriter popBody() {
+		if (depth >= 0 && servlet instanceof HttpJspBase) {
+			((HttpJspBase) servlet).updateBodyContentSize(outs[depth].getPeakSize());
+		}
 		depth--;
 		if (depth >= 0) {
 			out = outs[depth];
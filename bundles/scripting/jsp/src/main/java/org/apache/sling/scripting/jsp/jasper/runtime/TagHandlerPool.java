@@ -43,27 +43,34 @@ public class TagHandlerPool {
     private int current;
     protected AnnotationProcessor annotationProcessor = null;
 
+    /**
+     * Creates the tag handler pool. If the <code>tagpoolClassName</code>
+     * option is set, an instance of this class is created, otherwise
+     * a default tag handler pool is used.
+     */
     public static TagHandlerPool getTagHandlerPool( ServletConfig config) {
-        final TagHandlerPool result = new TagHandlerPool();
+        TagHandlerPool result = null;
+        final String tpClassName = getOption(config, OPTION_TAGPOOL, null);
+        if ( tpClassName != null && !TagHandlerPool.class.getName().equals(tpClassName) ) {
+            try {
+                final Class<?> c = TagHandlerPool.class.getClassLoader().loadClass(tpClassName);
+                result = (TagHandlerPool) c.newInstance();
+            } catch (Exception e) {
+                LogFactory.getLog(TagHandlerPool.class).warn(
+                        "Unable to create tag handler pool " + tpClassName + ", using default pool.", e);
+                result = null;
+            }
+        }
+        if ( result == null ) {
+            result = new TagHandlerPool();
+        }
         result.init(config);
 
         return result;
     }
 
     protected void init( ServletConfig config ) {
-        int maxSize=-1;
-        String maxSizeS=getOption(config, OPTION_MAXSIZE, null);
-        if( maxSizeS != null ) {
-            try {
-                maxSize=Integer.parseInt(maxSizeS);
-            } catch( Exception ex) {
-                maxSize=-1;
-            }
-        }
-        if( maxSize <0  ) {
-            maxSize=Constants.MAX_POOL_SIZE;
-        }
-        this.handlers = new Tag[maxSize];
+        this.handlers = new Tag[getMaxSize(config)];
         this.current = -1;
         this.annotationProcessor =
             (AnnotationProcessor) config.getServletContext().getAttribute(AnnotationProcessor.class.getName());
@@ -110,13 +117,7 @@ public class TagHandlerPool {
 
         // Out of sync block - there is no need for other threads to
         // wait for us to construct a tag for this thread.
-        try {
-            Tag instance = (Tag) handlerClass.newInstance();
-            AnnotationHelper.postConstruct(annotationProcessor, instance);
-            return instance;
-        } catch (Exception e) {
-            throw new JspException(e.getMessage(), e);
-        }
+        return newHandler(handlerClass);
     }
 
     /**
@@ -134,15 +135,7 @@ public class TagHandlerPool {
             }
         }
         // There is no need for other threads to wait for us to release
-        handler.release();
-        if (annotationProcessor != null) {
-            try {
-                AnnotationHelper.preDestroy(annotationProcessor, handler);
-            } catch (Exception e) {
-                log.warn("Error processing preDestroy on tag instance of "
-                        + handler.getClass().getName(), e);
-            }
-        }
+        releaseHandler(handler);
     }
 
     /**
@@ -151,14 +144,53 @@ public class TagHandlerPool {
      */
     public synchronized void release() {
         for (int i = current; i >= 0; i--) {
-            handlers[i].release();
-            if (annotationProcessor != null) {
-                try {
-                    AnnotationHelper.preDestroy(annotationProcessor, handlers[i]);
-                } catch (Exception e) {
-                    log.warn("Error processing preDestroy on tag instance of "
-                            + handlers[i].getClass().getName(), e);
-                }
+            releaseHandler(handlers[i]);
+        }
+    }
+
+    /**
+     * Returns the configured max size of the pool.
+     */
+    protected static int getMaxSize( ServletConfig config ) {
+        int maxSize=-1;
+        String maxSizeS=getOption(config, OPTION_MAXSIZE, null);
+        if( maxSizeS != null ) {
+            try {
+                maxSize=Integer.parseInt(maxSizeS);
+            } catch( Exception ex) {
+                maxSize=-1;
+            }
+        }
+        if( maxSize <0  ) {
+            maxSize=Constants.MAX_POOL_SIZE;
+        }
+        return maxSize;
+    }
+
+    /**
+     * Instantiates a new tag handler.
+     */
+    protected Tag newHandler(Class handlerClass) throws JspException {
+        try {
+            Tag instance = (Tag) handlerClass.newInstance();
+            AnnotationHelper.postConstruct(annotationProcessor, instance);
+            return instance;
+        } catch (Exception e) {
+            throw new JspException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Calls the release() method of the tag handler which is not pooled.
+     */
+    protected void releaseHandler(Tag handler) {
+        handler.release();
+        if (annotationProcessor != null) {
+            try {
+                AnnotationHelper.preDestroy(annotationProcessor, handler);
+            } catch (Exception e) {
+                log.warn("Error processing preDestroy on tag instance of "
+                        + handler.getClass().getName(), e);
             }
         }
     }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.scripting.jsp.jasper.runtime;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.Tag;
+
+/**
+ * Pool of tag handlers which does not use any locks.
+ *
+ * Each thread has a small cache of tag handlers which serves the
+ * handlers needed for nested tags. Handlers not fitting into this
+ * cache are put into a shared, lock free overflow queue which is
+ * bounded by the configured max size.
+ *
+ * This pool is used if the <code>tagpoolClassName</code> option
+ * (<code>jasper.tagpoolClassName</code> in the configuration of the
+ * JSP script handler) is set to the name of this class.
+ */
+public class ThreadLocalTagHandlerPool extends TagHandlerPool {
+
+    /** The max number of handlers cached per thread. */
+    private static final int LOCAL_SIZE = 4;
+
+    /** The handlers cached for the current thread. */
+    private final ThreadLocal<LocalCache> localCache = new ThreadLocal<LocalCache>() {
+
+        @Override
+        protected LocalCache initialValue() {
+            final LocalCache cache = new LocalCache(localSize);
+            allCaches.add(cache);
+            return cache;
+        }
+    };
+
+    /** All thread caches - used to release the handlers. */
+    private final Queue<LocalCache> allCaches = new ConcurrentLinkedQueue<LocalCache>();
+
+    /** The shared overflow. */
+    private final Queue<Tag> shared = new ConcurrentLinkedQueue<Tag>();
+
+    /** The number of handlers in the shared overflow. */
+    private final AtomicInteger sharedSize = new AtomicInteger();
+
+    private int localSize;
+
+    private int maxSize;
+
+    /** Set once the pool is released. */
+    private volatile boolean released;
+
+    /**
+     * Constructs a tag handler pool - the pool is initialized
+     * by {@link #init(ServletConfig)}.
+     */
+    public ThreadLocalTagHandlerPool() {
+        // nothing to do
+    }
+
+    @Override
+    protected void init(ServletConfig config) {
+        this.maxSize = getMaxSize(config);
+        this.localSize = Math.min(LOCAL_SIZE, this.maxSize);
+        this.annotationProcessor =
+            (AnnotationProcessor) config.getServletContext().getAttribute(AnnotationProcessor.class.getName());
+    }
+
+    /**
+     * @see org.apache.sling.scripting.jsp.jasper.runtime.TagHandlerPool#get(java.lang.Class)
+     */
+    @Override
+    public Tag get(Class handlerClass) throws JspException {
+        final Tag handler = this.localCache.get().pop();
+        if ( handler != null ) {
+            return handler;
+        }
+        final Tag sharedHandler = this.shared.poll();
+        if ( sharedHandler != null ) {
+            this.sharedSize.decrementAndGet();
+            return sharedHandler;
+        }
+        return newHandler(handlerClass);
+    }
+
+    /**
+     * @see org.apache.sling.scripting.jsp.jasper.runtime.TagHandlerPool#reuse(javax.servlet.jsp.tagext.Tag)
+     */
+    @Override
+    public void reuse(Tag handler) {
+        if ( !this.released ) {
+            if ( this.localCache.get().push(handler) ) {
+                return;
+            }
+            if ( this.sharedSize.incrementAndGet() <= this.maxSize ) {
+                this.shared.offer(handler);
+                return;
+            }
+            this.sharedSize.decrementAndGet();
+        }
+        releaseHandler(handler);
+    }
+
+    /**
+     * @see org.apache.sling.scripting.jsp.jasper.runtime.TagHandlerPool#release()
+     */
+    @Override
+    public void release() {
+        this.released = true;
+        LocalCache cache;
+        while ( (cache = this.allCaches.poll()) != null ) {
+            Tag handler;
+            while ( (handler = cache.pop()) != null ) {
+                releaseHandler(handler);
+            }
+        }
+        Tag handler;
+        while ( (handler = this.shared.poll()) != null ) {
+            this.sharedSize.decrementAndGet();
+            releaseHandler(handler);
+        }
+    }
+
+    /**
+     * The handlers of a single thread. A cache is only accessed by
+     * its thread except for {@link ThreadLocalTagHandlerPool#release()}
+     * which is called when the page is not used anymore.
+     */
+    private static final class LocalCache {
+
+        private final Tag[] handlers;
+
+        // index of next available tag handler
+        private int current = -1;
+
+        LocalCache(final int size) {
+            this.handlers = new Tag[size];
+        }
+
+        Tag pop() {
+            if ( current >= 0 ) {
+                final Tag handler = handlers[current];
+                handlers[current--] = null;
+                return handler;
+            }
+            return null;
+        }
+
+        boolean push(final Tag handler) {
+            if ( current < handlers.length - 1 ) {
+                handlers[++current] = handler;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -363,7 +363,10 @@ public class JspServletWrapper {
     }
 
     /**
-     * Check if the compiled class is still current
+     * Check if the compiled class is still current.
+     * If the runtime context knows that neither the jsp nor any of its
+     * dependencies has been modified since the last check, only the
+     * existence of the class file is checked.
      */
     private boolean isOutDated() {
         // check if class file exists
@@ -372,6 +375,9 @@ public class JspServletWrapper {
         if (targetLastModified < 0) {
             return true;
         }
+        if ( ctxt.getRuntimeContext().isUpToDate(this.jspUri) ) {
+            return false;
+        }
 
         // compare jsp time stamp with class file time stamp
         final String jsp = ctxt.getJspFile();
@@ -432,6 +438,33 @@ public class JspServletWrapper {
 
         // (Re)load servlet class file
         this.theServlet = this.loadServlet();
+        // from now on modifications are tracked by the runtime context
+        this.ctxt.getRuntimeContext().setUpToDate(this.jspUri);
+    }
+
+    /**
+     * Compile (if needed) and load the servlet without servicing a request.
+     * This is used to compile the JSP in the background before the first
+     * request for it arrives.
+     * @return <code>true</code> if the servlet is loaded, <code>false</code>
+     *         if compiling or loading failed.
+     */
+    public boolean compile() {
+        if ( theServlet == null ) {
+            synchronized ( this ) {
+                if ( theServlet == null ) {
+                    try {
+                        this.prepareServlet(null, null);
+                    } catch (final Exception e) {
+                        if ( log.isDebugEnabled() ) {
+                            log.debug("Unable to compile " + this.jspUri, e);
+                        }
+                        return false;
+                    }
+                }
+            }
+        }
+        return compileException == null;
     }
 
     /**
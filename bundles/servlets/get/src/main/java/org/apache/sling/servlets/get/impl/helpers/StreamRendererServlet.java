@@ -26,6 +26,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
@@ -131,11 +134,16 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
             }
         }
 
-        // fall back to plain text rendering if the resource has no stream
-        InputStream stream = resource.adaptTo(InputStream.class);
+        // file backed resources are transferred from the channel, all
+        // others are streamed; fall back to plain text rendering if the
+        // resource has no stream
+        final FileChannel channel = resource.adaptTo(FileChannel.class);
+        final InputStream stream = (channel != null)
+                ? Channels.newInputStream(channel)
+                : resource.adaptTo(InputStream.class);
         if (stream != null) {
 
-            streamResource(resource, stream, included, request, response);
+            streamResource(resource, stream, channel, included, request, response);
 
         } else {
 
@@ -190,8 +198,17 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         return false;
     }
 
+    /**
+     * Streams the resource to the client.
+     *
+     * @param stream The stream of the resource, closed by this method
+     * @param channel The file channel of the stream if the resource is file
+     *            backed or <code>null</code>. The full resource and single
+     *            ranges are transferred from the channel.
+     */
     private void streamResource(final Resource resource,
-            final InputStream stream, final boolean included,
+            final InputStream stream, final FileChannel channel,
+            final boolean included,
             final SlingHttpServletRequest request,
             final SlingHttpServletResponse response) throws IOException {
         // finally stream the resource
@@ -225,10 +242,14 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                 // return full resource
                 setContentLength(response,
                     resource.getResourceMetadata().getContentLength());
-                byte[] buf = new byte[IO_BUFFER_SIZE];
-                int rd;
-                while ((rd = stream.read(buf)) >= 0) {
-                    out.write(buf, 0, rd);
+                if (channel != null) {
+                    transfer(channel, out, 0, channel.size());
+                } else {
+                    byte[] buf = new byte[IO_BUFFER_SIZE];
+                    int rd;
+                    while ((rd = stream.read(buf)) >= 0) {
+                        out.write(buf, 0, rd);
+                    }
                 }
 
             } else {
@@ -243,7 +264,12 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
                         + "-" + range.end + "/" + range.length);
                     setContentLength(response, range.end - range.start + 1);
 
-                    copy(stream, out, range);
+                    if (channel != null) {
+                        transfer(channel, out, range.start, range.end
+                            - range.start + 1);
+                    } else {
+                        copy(stream, out, range);
+                    }
 
                 } else {
 
@@ -519,6 +545,38 @@ public class StreamRendererServlet extends SlingSafeMethodsServlet {
         }
     }
 
+    /**
+     * Transfers the given number of bytes starting at the given position of
+     * the file channel to the output stream. This lets the platform copy the
+     * data without reading it into a buffer of this servlet first.
+     *
+     * @param channel The file channel to read from
+     * @param ostream The output stream to write to, this is not closed
+     * @param start The position of the first byte to transfer
+     * @param count The number of bytes to transfer
+     * @exception IOException if an input/output error occurs
+     */
+    private void transfer(final FileChannel channel,
+            final OutputStream ostream, final long start, final long count)
+            throws IOException {
+
+        log.debug("transfer: Serving bytes: {}-{}", start, start + count - 1);
+
+        final WritableByteChannel target = Channels.newChannel(ostream);
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            final long transferred = channel.transferTo(position, remaining,
+                target);
+            if (transferred <= 0) {
+                // end of file, the file has been truncated
+                break;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
     /**
      * Copy the contents of the specified input stream to the specified output
      * stream.
@@ -155,6 +155,20 @@ public interface SlingPostConstants {
      */
     public static final String OPERATION_IMPORT = "import";
 
+    /**
+     * Name of the predefined batch operation (value is "batch").
+     * <p>
+     * The batch operation requires the {@link #RP_BATCH} request parameter
+     * listing the operations to execute. All operations are executed in the
+     * session of the request and committed together at the end unless the
+     * {@link #RP_CHUNK_SIZE} parameter asks for intermediate commits. The
+     * batch stops at the first failing operation reverting all changes not
+     * committed yet.
+     *
+     * @since 2.1.4
+     */
+    public static final String OPERATION_BATCH = "batch";
+
     /**
      * Name of the request parameter used to indicate the resource to apply the
      * operation to (value is ":applyTo").
@@ -193,6 +207,45 @@ public interface SlingPostConstants {
      */
     public static final String RP_REPLACE_PROPERTIES = RP_PREFIX + "replaceProperties";
 
+    /**
+     * Name of the request parameter containing the operations of a
+     * {@link #OPERATION_BATCH batch} operation (value is ":batch"). The
+     * parameter may be a form field or an uploaded file containing a JSON
+     * array. Each entry is an object with the absolute <code>path</code> of
+     * the resource to operate on and the request <code>params</code> of the
+     * operation, for example:
+     *
+     * <pre>
+     * [ { "path" : "/content/a", "params" : { "title" : "A" } },
+     *   { "path" : "/content/b", "params" : { ":operation" : "delete" } } ]
+     * </pre>
+     *
+     * Parameter values may be strings, numbers, booleans or arrays of
+     * those. File uploads are not supported within a batch.
+     *
+     * @since 2.1.4
+     */
+    public static final String RP_BATCH = RP_PREFIX + "batch";
+
+    /**
+     * Optional request parameter for the {@link #OPERATION_COPY} and
+     * {@link #OPERATION_MOVE} operations indicating that the changes may be
+     * persisted in chunks of the given number of nodes (value is
+     * ":chunkSize"). For the {@link #OPERATION_BATCH} operation this is the
+     * number of operations after which the changes are committed.
+     * <p>
+     * If this parameter is set to a positive number, the operation is not
+     * atomic anymore: if the session has no pending changes the tree is
+     * copied or moved directly in the workspace, otherwise the tree is
+     * copied node by node and the session is saved every time the given
+     * number of nodes has been copied. This allows to copy large trees with
+     * a bounded amount of memory. Note that a copy in the workspace also
+     * copies protected content like access control policies.
+     *
+     * @since 2.1.4
+     */
+    public static final String RP_CHUNK_SIZE = RP_PREFIX + "chunkSize";
+
     /**
      * Optional request parameter indicating the order of newly created nodes in
      * creation, copy and move operation requests (value is ":order").
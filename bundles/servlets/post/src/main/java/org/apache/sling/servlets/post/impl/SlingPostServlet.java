@@ -57,6 +57,7 @@ import org.apache.sling.servlets.post.VersioningConfiguration;
 import org.apache.sling.servlets.post.impl.helper.DateParser;
 import org.apache.sling.servlets.post.impl.helper.DefaultNodeNameGenerator;
 import org.apache.sling.servlets.post.impl.helper.MediaRangeList;
+import org.apache.sling.servlets.post.impl.operations.BatchOperation;
 import org.apache.sling.servlets.post.impl.operations.CheckinOperation;
 import org.apache.sling.servlets.post.impl.operations.CheckoutOperation;
 import org.apache.sling.servlets.post.impl.operations.CopyOperation;
@@ -439,6 +440,8 @@ public class SlingPostServlet extends SlingAllMethodsServlet {
             SlingPostConstants.OPERATION_CHECKOUT, new CheckoutOperation()));
         providedServices.add(registerOperation(bundleContext,
             SlingPostConstants.OPERATION_IMPORT, importOperation));
+        providedServices.add(registerOperation(bundleContext,
+            SlingPostConstants.OPERATION_BATCH, new BatchOperation(postOperations)));
 
         internalOperations = providedServices.toArray(new ServiceRegistration[providedServices.size()]);
     }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.servlets.post.impl.helper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.nodetype.PropertyDefinition;
+
+/**
+ * Caches the effective property definitions of the node types of a
+ * repository keyed by the primary type, the mixin types and the name of
+ * the property.
+ * <p>
+ * As JCR does not send events for node type registrations, the cache of
+ * a repository is dropped once the number of registered node types
+ * changes. This is checked once per request by
+ * {@link #getDefinitions(Session)}.
+ */
+public class PropertyDefinitionCache {
+
+    /** The cached definitions per repository. */
+    private final Map<Repository, Definitions> repositories =
+        Collections.synchronizedMap(new WeakHashMap<Repository, Definitions>());
+
+    /**
+     * Returns the definitions of the repository of the session. If node
+     * types have been registered since the definitions have been cached,
+     * new empty definitions are returned.
+     *
+     * @param session The session
+     * @return The definitions
+     * @throws RepositoryException if a repository error occurs
+     */
+    public Definitions getDefinitions(final Session session)
+    throws RepositoryException {
+        final Repository repository = session.getRepository();
+        final long typeCount = session.getWorkspace().getNodeTypeManager().getAllNodeTypes().getSize();
+
+        Definitions definitions = this.repositories.get(repository);
+        if ( definitions == null || definitions.typeCount != typeCount ) {
+            definitions = new Definitions(typeCount);
+            this.repositories.put(repository, definitions);
+        }
+        return definitions;
+    }
+
+    /**
+     * Drops all cached definitions.
+     */
+    public void clear() {
+        this.repositories.clear();
+    }
+
+    /**
+     * The cached property definitions of a single repository.
+     */
+    public static final class Definitions {
+
+        private final long typeCount;
+
+        /** Mandatory flag by type and property name key. */
+        private final ConcurrentMap<String, Boolean> mandatory = new ConcurrentHashMap<String, Boolean>();
+
+        Definitions(final long typeCount) {
+            this.typeCount = typeCount;
+        }
+
+        /**
+         * Returns <code>true</code> if the property with the given name is
+         * mandatory for the node. Only named definitions can be mandatory,
+         * therefore the result does not depend on the property itself.
+         *
+         * @param node The node
+         * @param name The property name
+         * @return <code>true</code> if the property is mandatory
+         * @throws RepositoryException if a repository error occurs
+         */
+        public boolean isMandatory(final Node node, final String name)
+        throws RepositoryException {
+            final NodeType primaryType = node.getPrimaryNodeType();
+            final NodeType[] mixinTypes = node.getMixinNodeTypes();
+
+            final String key = getKey(primaryType, mixinTypes, name);
+            Boolean result = this.mandatory.get(key);
+            if ( result == null ) {
+                result = isMandatory(primaryType, name);
+                for (int i = 0; !result && i < mixinTypes.length; i++) {
+                    result = isMandatory(mixinTypes[i], name);
+                }
+                this.mandatory.put(key, result);
+            }
+            return result;
+        }
+
+        int size() {
+            return this.mandatory.size();
+        }
+
+        private static boolean isMandatory(final NodeType type, final String name) {
+            for (final PropertyDefinition def : type.getPropertyDefinitions()) {
+                if ( def.isMandatory() && name.equals(def.getName()) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String getKey(final NodeType primaryType,
+                final NodeType[] mixinTypes, final String name) {
+            final StringBuilder sb = new StringBuilder(primaryType.getName());
+            if ( mixinTypes.length > 0 ) {
+                final String[] mixins = new String[mixinTypes.length];
+                for (int i = 0; i < mixinTypes.length; i++) {
+                    mixins[i] = mixinTypes[i].getName();
+                }
+                Arrays.sort(mixins);
+                for (final String mixin : mixins) {
+                    sb.append(',').append(mixin);
+                }
+            }
+            return sb.append('|').append(name).toString();
+        }
+    }
+}
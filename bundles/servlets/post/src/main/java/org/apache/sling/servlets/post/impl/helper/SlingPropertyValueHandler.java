@@ -69,6 +69,11 @@ public class SlingPropertyValueHandler {
 
     private final ReferenceParser referenceParser;
 
+    /**
+     * the cached property definitions or <code>null</code>
+     */
+    private final PropertyDefinitionCache.Definitions definitions;
+
     /**
      * current date for all properties in this request
      */
@@ -82,9 +87,19 @@ public class SlingPropertyValueHandler {
      * Constructs a propert value handler
      */
     public SlingPropertyValueHandler(DateParser dateParser, ReferenceParser referenceParser, List<Modification> changes) {
+        this(dateParser, referenceParser, changes, null);
+    }
+
+    /**
+     * Constructs a propert value handler using the cached property
+     * definitions instead of the definitions of the properties.
+     */
+    public SlingPropertyValueHandler(DateParser dateParser, ReferenceParser referenceParser, List<Modification> changes,
+            PropertyDefinitionCache.Definitions definitions) {
         this.dateParser = dateParser;
         this.referenceParser = referenceParser;
         this.changes = changes;
+        this.definitions = definitions;
     }
 
 
@@ -191,7 +206,7 @@ public class SlingPropertyValueHandler {
         if (parent.valueMap.containsKey(name) ) {
             if ( parent.node != null ) {
                 final Property prop = parent.node.getProperty(name);
-                if (!prop.getDefinition().isMandatory()) {
+                if (!isMandatory(parent.node, prop)) {
                     final String path = prop.getPath();
                     prop.remove();
                     return path;
@@ -204,6 +219,18 @@ public class SlingPropertyValueHandler {
         return null;
     }
 
+    /**
+     * Checks whether the property is mandatory, consulting the cached
+     * definitions if available.
+     */
+    private boolean isMandatory(final Node node, final Property prop)
+            throws RepositoryException {
+        if ( definitions != null ) {
+            return definitions.isMandatory(node, prop.getName());
+        }
+        return prop.getDefinition().isMandatory();
+    }
+
     /**
      * set property without processing, except for type hints
      *
@@ -276,7 +303,7 @@ public class SlingPropertyValueHandler {
                 final Property p = parent.node.getProperty(name);
 
                 // can only patch multi-value props
-                if (!p.getDefinition().isMultiple()) {
+                if (!p.isMultiple()) {
                     return null;
                 }
 
@@ -375,7 +402,7 @@ public class SlingPropertyValueHandler {
         // nothing in the request, so check the current JCR property definition
         if ( parent.node != null ) {
             if (parent.node.hasProperty(prop.getName()) ) {
-                return parent.node.getProperty(prop.getName()).getDefinition().isMultiple();
+                return parent.node.getProperty(prop.getName()).isMultiple();
             }
         } else {
             final Object value = parent.valueMap.get(prop.getName());
@@ -394,7 +421,7 @@ public class SlingPropertyValueHandler {
             throws RepositoryException, PersistenceException {
         if (parent.valueMap.containsKey(prop.getName())) {
             if ( parent.node != null ) {
-                if (parent.node.getProperty(prop.getName()).getDefinition().isMultiple()) {
+                if (parent.node.getProperty(prop.getName()).isMultiple()) {
                     //the existing property is multi-valued, so just delete it?
                     final String removePath = removePropertyIfExists(parent, prop.getName());
                     if ( removePath != null ) {
@@ -431,7 +458,7 @@ public class SlingPropertyValueHandler {
                     throws RepositoryException, PersistenceException {
         if (parent.valueMap.containsKey(prop.getName())) {
             if ( parent.node != null ) {
-                if (!parent.node.getProperty(prop.getName()).getDefinition().isMultiple()) {
+                if (!parent.node.getProperty(prop.getName()).isMultiple()) {
                     // the existing property is single-valued, so we have to delete it before setting the
                     // multi-value variation
                     final String removePath = removePropertyIfExists(parent, prop.getName());
@@ -106,6 +106,12 @@ abstract class AbstractCopyMoveOperation extends AbstractPostOperation {
             response.setCreateRequest(true);
         }
 
+        // chunked operation if requested
+        final CopyMoveProgress progress = getProgress(request);
+        if (progress != null) {
+            request.setAttribute(CopyMoveProgress.class.getName(), progress);
+        }
+
         Iterator<Resource> resources = getApplyToResources(request);
         Item destItem = null;
         if (resources == null) {
@@ -119,7 +125,7 @@ abstract class AbstractCopyMoveOperation extends AbstractPostOperation {
             }
 
             String dstName = trailingSlash ? null : ResourceUtil.getName(dest);
-            destItem = execute(changes, item, dstParent, dstName, versioningConfiguration);
+            destItem = execute(changes, item, dstParent, dstName, versioningConfiguration, progress);
 
         } else {
 
@@ -138,7 +144,7 @@ abstract class AbstractCopyMoveOperation extends AbstractPostOperation {
                 Resource applyTo = resources.next();
                 Item item = applyTo.adaptTo(Item.class);
                 if (item != null) {
-                    execute(changes, item, dstParent, null, versioningConfiguration);
+                    execute(changes, item, dstParent, null, versioningConfiguration, progress);
                 }
             }
             destItem = session.getItem(dest);
@@ -149,6 +155,29 @@ abstract class AbstractCopyMoveOperation extends AbstractPostOperation {
         orderNode(request, destItem, changes);
     }
 
+    /**
+     * Returns the progress handle if the changes may be saved in chunks
+     * or <code>null</code> if the operation has to be atomic.
+     */
+    private CopyMoveProgress getProgress(SlingHttpServletRequest request) {
+        final String chunkSize = request.getParameter(SlingPostConstants.RP_CHUNK_SIZE);
+        if (chunkSize == null || chunkSize.length() == 0
+            || isSkipSessionHandling(request)) {
+            return null;
+        }
+        final int size;
+        try {
+            size = Integer.parseInt(chunkSize);
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid "
+                + SlingPostConstants.RP_CHUNK_SIZE + ": " + chunkSize);
+        }
+        if (size <= 0) {
+            return null;
+        }
+        return new CopyMoveProgress(size, request.getRequestProgressTracker());
+    }
+
     /**
      * Returns a short name to be used in log and status messages.
      */
@@ -164,11 +193,14 @@ abstract class AbstractCopyMoveOperation extends AbstractPostOperation {
      * @param destName The name of the target item inside the
      *            <code>destParent</code>. If <code>null</code> the name of
      *            the <code>source</code> is used as the target item name.
+     * @param progress The handle of a chunked operation or <code>null</code>
+     *            if the operation has to be atomic.
      * @throws RepositoryException May be thrown if an error occurrs executing
      *             the operation.
      */
     protected abstract Item execute(List<Modification> changes, Item source,
             String destParent, String destName,
-            VersioningConfiguration versioningConfiguration) throws RepositoryException;
+            VersioningConfiguration versioningConfiguration,
+            CopyMoveProgress progress) throws RepositoryException;
 
 }
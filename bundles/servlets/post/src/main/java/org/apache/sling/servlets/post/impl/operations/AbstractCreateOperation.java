@@ -131,6 +131,10 @@ abstract class AbstractCreateOperation extends AbstractPostOperation {
                 final boolean wasVersionable = (node == null ? false : isVersionable(node));
 
                 if ( node != null ) {
+                    // avoid resolving the node type if the type does not change
+                    if ( nodeType.equals(node.getPrimaryNodeType().getName()) ) {
+                        return;
+                    }
                     checkoutIfNecessary(node, changes, versioningConfiguration);
                     node.setPrimaryType(nodeType);
                 } else {
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.request.RequestParameterMap;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.resource.NonExistingResource;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.wrappers.SlingHttpServletRequestWrapper;
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONException;
+import org.apache.sling.commons.json.JSONObject;
+
+/**
+ * The <code>BatchItemRequest</code> is the request of a single operation
+ * of a {@link BatchOperation}. The resource and the request parameters
+ * are taken from the batch entry, everything else is provided by the
+ * batch request.
+ */
+class BatchItemRequest extends SlingHttpServletRequestWrapper {
+
+    private final Resource resource;
+
+    private final RequestPathInfo pathInfo;
+
+    private final ParameterMap parameters;
+
+    BatchItemRequest(final SlingHttpServletRequest request, final String path,
+            final JSONObject params) throws JSONException {
+        super(request);
+
+        final Resource rsrc = request.getResourceResolver().getResource(path);
+        this.resource = (rsrc != null ? rsrc : new NonExistingResource(
+            request.getResourceResolver(), path));
+        this.pathInfo = new ItemPathInfo(path);
+        this.parameters = new ParameterMap();
+        if (params != null) {
+            for (final Iterator<?> keys = params.keys(); keys.hasNext();) {
+                final String name = (String) keys.next();
+                final Object value = params.get(name);
+                final RequestParameter[] values;
+                if (value instanceof JSONArray) {
+                    final JSONArray array = (JSONArray) value;
+                    values = new RequestParameter[array.length()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = new ItemParameter(array.getString(i));
+                    }
+                } else {
+                    values = new RequestParameter[] { new ItemParameter(
+                        params.getString(name)) };
+                }
+                this.parameters.put(name, values);
+            }
+        }
+    }
+
+    @Override
+    public Resource getResource() {
+        return this.resource;
+    }
+
+    @Override
+    public RequestPathInfo getRequestPathInfo() {
+        return this.pathInfo;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return this.pathInfo.getResourcePath();
+    }
+
+    @Override
+    public RequestParameter getRequestParameter(String name) {
+        return this.parameters.getValue(name);
+    }
+
+    @Override
+    public RequestParameter[] getRequestParameters(String name) {
+        return this.parameters.getValues(name);
+    }
+
+    @Override
+    public RequestParameterMap getRequestParameterMap() {
+        return this.parameters;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        final RequestParameter param = this.parameters.getValue(name);
+        return (param != null) ? param.getString() : null;
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        final RequestParameter[] values = this.parameters.getValues(name);
+        if (values == null) {
+            return null;
+        }
+        final String[] result = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].getString();
+        }
+        return result;
+    }
+
+    @Override
+    public Enumeration<?> getParameterNames() {
+        return Collections.enumeration(this.parameters.keySet());
+    }
+
+    @Override
+    public Map<?, ?> getParameterMap() {
+        final Map<String, String[]> result = new LinkedHashMap<String, String[]>();
+        for (final String name : this.parameters.keySet()) {
+            result.put(name, getParameterValues(name));
+        }
+        return result;
+    }
+
+    private static final class ParameterMap extends
+            LinkedHashMap<String, RequestParameter[]> implements
+            RequestParameterMap {
+
+        private static final long serialVersionUID = 1L;
+
+        public RequestParameter[] getValues(String name) {
+            return get(name);
+        }
+
+        public RequestParameter getValue(String name) {
+            final RequestParameter[] values = get(name);
+            return (values != null && values.length > 0) ? values[0] : null;
+        }
+    }
+
+    private static final class ItemParameter implements RequestParameter {
+
+        private static final String ENCODING = "UTF-8";
+
+        private final String value;
+
+        ItemParameter(final String value) {
+            this.value = value;
+        }
+
+        public boolean isFormField() {
+            return true;
+        }
+
+        public String getContentType() {
+            return null;
+        }
+
+        public long getSize() {
+            return get().length;
+        }
+
+        public byte[] get() {
+            try {
+                return this.value.getBytes(ENCODING);
+            } catch (UnsupportedEncodingException uee) {
+                // UTF-8 is always supported
+                throw new RuntimeException(uee);
+            }
+        }
+
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(get());
+        }
+
+        public String getFileName() {
+            return null;
+        }
+
+        public String getString() {
+            return this.value;
+        }
+
+        public String getString(String encoding) {
+            return this.value;
+        }
+
+        @Override
+        public String toString() {
+            return this.value;
+        }
+    }
+
+    private static final class ItemPathInfo implements RequestPathInfo {
+
+        private final String path;
+
+        ItemPathInfo(final String path) {
+            this.path = path;
+        }
+
+        public String getResourcePath() {
+            return this.path;
+        }
+
+        public String getExtension() {
+            return null;
+        }
+
+        public String getSelectorString() {
+            return null;
+        }
+
+        public String[] getSelectors() {
+            return new String[0];
+        }
+
+        public String getSuffix() {
+            return null;
+        }
+    }
+}
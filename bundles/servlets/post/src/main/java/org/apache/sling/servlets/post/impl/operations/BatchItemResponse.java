@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.servlets.post.AbstractPostResponse;
+import org.apache.sling.servlets.post.PostResponse;
+
+/**
+ * The <code>BatchItemResponse</code> records the outcome of a single
+ * operation of a {@link BatchOperation}. The status, path and error are
+ * kept per operation whereas the changes are recorded in the response of
+ * the batch request.
+ */
+class BatchItemResponse extends AbstractPostResponse {
+
+    private final PostResponse batchResponse;
+
+    BatchItemResponse(final PostResponse batchResponse) {
+        this.batchResponse = batchResponse;
+    }
+
+    public void onChange(String type, String... arguments) {
+        this.batchResponse.onChange(type, arguments);
+    }
+
+    @Override
+    protected void doSend(HttpServletResponse response) throws IOException {
+        throw new UnsupportedOperationException("Batch item responses are not sent");
+    }
+}
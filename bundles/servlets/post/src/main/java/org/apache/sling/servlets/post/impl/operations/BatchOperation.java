@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.resource.ResourceNotFoundException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.servlets.post.PostOperation;
+import org.apache.sling.servlets.post.PostResponse;
+import org.apache.sling.servlets.post.SlingPostConstants;
+import org.apache.sling.servlets.post.SlingPostProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>BatchOperation</code> class implements the
+ * {@link org.apache.sling.servlets.post.SlingPostConstants#OPERATION_BATCH batch}
+ * operation for the Sling default POST servlet.
+ * <p>
+ * Each entry of the {@link SlingPostConstants#RP_BATCH} parameter is run
+ * by the registered operation in the session of the batch request with
+ * the session handling of the operation switched off. The changes are
+ * committed once at the end or every
+ * {@link SlingPostConstants#RP_CHUNK_SIZE} operations. For each operation
+ * a <code>batchItem</code> change is recorded with the index, the path and
+ * the status code of the operation.
+ */
+public class BatchOperation implements PostOperation {
+
+    /** The change type recorded for each operation of the batch. */
+    static final String CHANGE_BATCH_ITEM = "batchItem";
+
+    private static final String PROP_PATH = "path";
+
+    private static final String PROP_PARAMS = "params";
+
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * default log
+     */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /**
+     * The operations of the POST servlet by name.
+     */
+    private final Map<String, PostOperation> operations;
+
+    public BatchOperation(final Map<String, PostOperation> operations) {
+        this.operations = operations;
+    }
+
+    public void run(final SlingHttpServletRequest request,
+                    final PostResponse response,
+                    final SlingPostProcessor[] processors) {
+        final ResourceResolver resolver = request.getResourceResolver();
+        final Object skipSessionHandling = request.getAttribute(SlingPostConstants.ATTR_SKIP_SESSION_HANDLING);
+        final boolean sessionHandling = !Boolean.parseBoolean((String) skipSessionHandling);
+
+        response.setPath(request.getResource().getPath());
+        try {
+            final JSONArray items = getItems(request);
+            final int chunkSize = getChunkSize(request);
+
+            // the batch commits the changes of the operations
+            request.setAttribute(SlingPostConstants.ATTR_SKIP_SESSION_HANDLING, "true");
+
+            int uncommitted = 0;
+            for (int i = 0; i < items.length(); i++) {
+                final PostResponse itemResponse = runItem(request, response,
+                    items.getJSONObject(i), processors);
+                response.onChange(CHANGE_BATCH_ITEM, String.valueOf(i),
+                    itemResponse.getPath(),
+                    String.valueOf(itemResponse.getStatusCode()));
+
+                if (!itemResponse.isSuccessful()) {
+                    final Throwable error = itemResponse.getError();
+                    response.setStatus(itemResponse.getStatusCode(),
+                        "Operation " + i + " of batch failed: "
+                            + (error != null ? error.toString() : itemResponse.getStatusMessage()));
+                    return;
+                }
+
+                if (chunkSize > 0 && ++uncommitted >= chunkSize) {
+                    if (sessionHandling && resolver.hasChanges()) {
+                        resolver.commit();
+                    }
+                    uncommitted = 0;
+                }
+            }
+
+            if (sessionHandling && resolver.hasChanges()) {
+                resolver.commit();
+            }
+
+        } catch (Exception e) {
+
+            log.error("Exception during batch processing.", e);
+            response.setError(e);
+
+        } finally {
+            request.setAttribute(SlingPostConstants.ATTR_SKIP_SESSION_HANDLING, skipSessionHandling);
+            try {
+                if (sessionHandling && resolver.hasChanges()) {
+                    resolver.revert();
+                }
+            } catch (Exception e) {
+                log.warn("Exception in finally block: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs a single operation of the batch.
+     */
+    private PostResponse runItem(final SlingHttpServletRequest request,
+            final PostResponse response, final JSONObject item,
+            final SlingPostProcessor[] processors)
+    throws Exception {
+        String path = item.optString(PROP_PATH, null);
+        if (path == null || path.length() == 0) {
+            throw new IllegalArgumentException("Missing path for batch entry " + item);
+        }
+        if (!path.startsWith("/")) {
+            path = request.getResource().getPath() + "/" + path;
+        }
+
+        final BatchItemRequest itemRequest = new BatchItemRequest(request,
+            path, item.optJSONObject(PROP_PARAMS));
+        final BatchItemResponse itemResponse = new BatchItemResponse(response);
+        itemResponse.setPath(path);
+
+        final PostOperation operation = getOperation(itemRequest.getParameter(SlingPostConstants.RP_OPERATION));
+        if (operation == null || operation instanceof BatchOperation) {
+            itemResponse.setStatus(
+                HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                "Invalid operation specified for batch entry");
+        } else {
+            try {
+                operation.run(itemRequest, itemResponse, processors);
+            } catch (ResourceNotFoundException rnfe) {
+                itemResponse.setStatus(HttpServletResponse.SC_NOT_FOUND,
+                    rnfe.getMessage());
+            } catch (RuntimeException re) {
+                log.debug("Exception while handling batch entry " + path
+                    + " with " + operation.getClass().getName(), re);
+                itemResponse.setError(re);
+            }
+        }
+        return itemResponse;
+    }
+
+    private PostOperation getOperation(final String operation) {
+        final String name = (operation == null || operation.length() == 0)
+                ? SlingPostConstants.OPERATION_MODIFY
+                : operation;
+        synchronized (this.operations) {
+            return this.operations.get(name);
+        }
+    }
+
+    private JSONArray getItems(final SlingHttpServletRequest request)
+    throws Exception {
+        final RequestParameter batch = request.getRequestParameter(SlingPostConstants.RP_BATCH);
+        if (batch == null) {
+            throw new IllegalArgumentException("Unable to process batch. Missing "
+                + SlingPostConstants.RP_BATCH);
+        }
+        return new JSONArray(batch.isFormField()
+                ? batch.getString()
+                : batch.getString(ENCODING));
+    }
+
+    private int getChunkSize(final SlingHttpServletRequest request) {
+        final String chunkSize = request.getParameter(SlingPostConstants.RP_CHUNK_SIZE);
+        if (chunkSize == null || chunkSize.length() == 0) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(chunkSize);
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid "
+                + SlingPostConstants.RP_CHUNK_SIZE + ": " + chunkSize);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.sling.api.request.RequestProgressTracker;
+
+/**
+ * The <code>CopyMoveProgress</code> is the handle of a copy or move
+ * operation persisting its changes in chunks (see
+ * {@link org.apache.sling.servlets.post.SlingPostConstants#RP_CHUNK_SIZE}).
+ * <p>
+ * The handle is available as a request attribute named after this class
+ * while the operation is running. It counts the copied nodes, saves the
+ * session every {@link #getChunkSize()} nodes and stops the operation
+ * once {@link #abort()} has been called. Nodes already saved at that
+ * point are not removed again.
+ */
+public class CopyMoveProgress {
+
+    private final int chunkSize;
+
+    private final RequestProgressTracker tracker;
+
+    private volatile long nodeCount;
+
+    private volatile long saveCount;
+
+    private volatile boolean aborted;
+
+    CopyMoveProgress(final int chunkSize, final RequestProgressTracker tracker) {
+        this.chunkSize = chunkSize;
+        this.tracker = tracker;
+    }
+
+    /**
+     * Called for each copied node. Saves the session whenever a
+     * chunk is complete.
+     * @throws RepositoryException If the operation has been aborted
+     *             or saving fails.
+     */
+    void onNode(final Session session) throws RepositoryException {
+        checkAborted();
+        final long count = ++this.nodeCount;
+        if (count % this.chunkSize == 0) {
+            save(session);
+        }
+    }
+
+    /**
+     * Saves the pending changes of the session.
+     */
+    void save(final Session session) throws RepositoryException {
+        checkAborted();
+        session.save();
+        this.saveCount++;
+        if (this.tracker != null) {
+            this.tracker.log("Saved chunk {0} after {1} nodes", this.saveCount, this.nodeCount);
+        }
+    }
+
+    /**
+     * Records a subtree copied or moved in the workspace.
+     */
+    void onWorkspaceOperation(final String operation, final String src, final String dest) {
+        if (this.tracker != null) {
+            this.tracker.log("Workspace {0} from {1} to {2}", operation, src, dest);
+        }
+    }
+
+    private void checkAborted() throws RepositoryException {
+        if (this.aborted) {
+            throw new RepositoryException("Operation aborted after "
+                + this.nodeCount + " nodes");
+        }
+    }
+
+    /**
+     * Returns the number of nodes the session should be saved after.
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Returns the number of nodes copied so far. Subtrees copied or
+     * moved in the workspace are not counted.
+     */
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Returns the number of intermediate saves.
+     */
+    public long getSaveCount() {
+        return this.saveCount;
+    }
+
+    /**
+     * Stops the operation before the next node is copied or the next
+     * chunk is saved. This method may be called from any thread.
+     */
+    public void abort() {
+        this.aborted = true;
+    }
+
+    public boolean isAborted() {
+        return this.aborted;
+    }
+}
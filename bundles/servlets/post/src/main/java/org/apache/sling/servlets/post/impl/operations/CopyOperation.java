@@ -24,6 +24,7 @@ import javax.jcr.NodeIterator;
 import javax.jcr.Property;
 import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.jcr.nodetype.NodeType;
 
 import org.apache.sling.servlets.post.Modification;
@@ -44,9 +45,20 @@ public class CopyOperation extends AbstractCopyMoveOperation {
     @Override
     protected Item execute(List<Modification> changes, Item source,
             String destParent, String destName,
-            VersioningConfiguration versioningConfiguration) throws RepositoryException {
-
-        Item destItem = copy(source, (Node) source.getSession().getItem(destParent), destName);
+            VersioningConfiguration versioningConfiguration,
+            CopyMoveProgress progress) throws RepositoryException {
+
+        final Session session = source.getSession();
+        final Node dstParentNode = (Node) session.getItem(destParent);
+        final Item destItem;
+        if (progress == null || !source.isNode()) {
+            destItem = copy(source, dstParentNode, destName);
+        } else if (session.hasPendingChanges()) {
+            // the workspace does not see the transient changes
+            destItem = copy((Node) source, dstParentNode, destName, progress);
+        } else {
+            destItem = copyInWorkspace((Node) source, dstParentNode, destName, progress);
+        }
 
         String dest = destParent + "/" + destName;
         changes.add(Modification.onCopied(source.getPath(), dest));
@@ -96,6 +108,20 @@ public class CopyOperation extends AbstractCopyMoveOperation {
      */
     static Item copy(Node src, Node dstParent, String name)
             throws RepositoryException {
+        return copy(src, dstParent, name, null);
+    }
+
+    /**
+     * Copy the <code>src</code> node into the <code>dstParent</code> node
+     * like {@link #copy(Node, Node, String)} and report each copied node to
+     * the <code>progress</code> which saves the session every now and then.
+     *
+     * @param progress The progress handle or <code>null</code> if the
+     *            session must not be saved.
+     */
+    static Item copy(Node src, Node dstParent, String name,
+            CopyMoveProgress progress)
+            throws RepositoryException {
 
         if(isAncestorOrSameNode(src, dstParent)) {
             throw new RepositoryException(
@@ -122,16 +148,52 @@ public class CopyOperation extends AbstractCopyMoveOperation {
         for (PropertyIterator iter = src.getProperties(); iter.hasNext();) {
             copy(iter.nextProperty(), dst, null);
         }
+        if (progress != null) {
+            progress.onNode(dst.getSession());
+        }
 
         // copy the child nodes
         for (NodeIterator iter = src.getNodes(); iter.hasNext();) {
             Node n = iter.nextNode();
             if (!n.getDefinition().isProtected()) {
-                copy(n, dst, null);
+                copy(n, dst, null, progress);
             }
         }
         return dst;
     }
+
+    /**
+     * Copy the <code>src</code> node into the <code>dstParent</code> node
+     * using {@link javax.jcr.Workspace#copy(String, String)}. The copy is
+     * done by the repository without transient space, therefore the session
+     * must not have pending changes. An existing destination is removed and
+     * saved before.
+     */
+    private Item copyInWorkspace(Node src, Node dstParent, String name,
+            CopyMoveProgress progress)
+            throws RepositoryException {
+
+        if(isAncestorOrSameNode(src, dstParent)) {
+            throw new RepositoryException(
+                    "Cannot copy ancestor " + src.getPath() + " to descendant " + dstParent.getPath());
+        }
+
+        if (name == null) {
+            name = src.getName();
+        }
+
+        final Session session = src.getSession();
+        if (dstParent.hasNode(name)) {
+            dstParent.getNode(name).remove();
+            progress.save(session);
+        }
+
+        final String parentPath = dstParent.getPath();
+        final String destPath = (parentPath.equals("/") ? "" : parentPath) + "/" + name;
+        session.getWorkspace().copy(src.getPath(), destPath);
+        progress.onWorkspaceOperation(getOperationName(), src.getPath(), destPath);
+        return session.getItem(destPath);
+    }
     
     /** @return true if src is an ancestor node of dest, or if
      *  both are the same node */
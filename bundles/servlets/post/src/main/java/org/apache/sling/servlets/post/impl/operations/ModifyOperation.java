@@ -42,6 +42,7 @@ import org.apache.sling.servlets.post.PostResponse;
 import org.apache.sling.servlets.post.SlingPostConstants;
 import org.apache.sling.servlets.post.VersioningConfiguration;
 import org.apache.sling.servlets.post.impl.helper.DateParser;
+import org.apache.sling.servlets.post.impl.helper.PropertyDefinitionCache;
 import org.apache.sling.servlets.post.impl.helper.ReferenceParser;
 import org.apache.sling.servlets.post.impl.helper.RequestProperty;
 import org.apache.sling.servlets.post.impl.helper.SlingFileUploadHandler;
@@ -61,6 +62,11 @@ public class ModifyOperation extends AbstractCreateOperation {
      */
     private final SlingFileUploadHandler uploadHandler;
 
+    /**
+     * the property definitions of the node types
+     */
+    private final PropertyDefinitionCache definitionCache = new PropertyDefinitionCache();
+
     public ModifyOperation() {
         this.dateParser = new DateParser();
         this.uploadHandler = new SlingFileUploadHandler();
@@ -386,8 +392,10 @@ public class ModifyOperation extends AbstractCreateOperation {
             final VersioningConfiguration versioningConfiguration)
     throws RepositoryException, PersistenceException {
 
+        final Session session = resolver.adaptTo(Session.class);
         final SlingPropertyValueHandler propHandler = new SlingPropertyValueHandler(
-            dateParser, new ReferenceParser(resolver.adaptTo(Session.class)), changes);
+            dateParser, new ReferenceParser(session), changes,
+            (session == null ? null : definitionCache.getDefinitions(session)));
 
         for (final RequestProperty prop : reqProperties.values()) {
             if (prop.hasValues()) {
@@ -40,7 +40,8 @@ public class MoveOperation extends AbstractCopyMoveOperation {
     @Override
     protected Item execute(List<Modification> changes, Item source,
             String destParent, String destName,
-            VersioningConfiguration versioningConfiguration) throws RepositoryException {
+            VersioningConfiguration versioningConfiguration,
+            CopyMoveProgress progress) throws RepositoryException {
 
         if (destName == null) {
             destName = source.getName();
@@ -55,11 +56,24 @@ public class MoveOperation extends AbstractCopyMoveOperation {
         
         checkoutIfNecessary(source.getParent(), changes, versioningConfiguration);
 
+        // the workspace does not see the transient changes
+        final boolean inWorkspace = progress != null && source.isNode()
+            && !session.hasPendingChanges();
+
         if (session.itemExists(destPath)) {
             session.getItem(destPath).remove();
+            if (inWorkspace) {
+                progress.save(session);
+            }
+        }
+
+        if (inWorkspace) {
+            // move in the workspace without transient space
+            session.getWorkspace().move(sourcePath, destPath);
+            progress.onWorkspaceOperation(getOperationName(), sourcePath, destPath);
+        } else {
+            session.move(sourcePath, destPath);
         }
-        
-        session.move(sourcePath, destPath);
         changes.add(Modification.onMoved(sourcePath, destPath));
         return session.getItem(destPath);
     }
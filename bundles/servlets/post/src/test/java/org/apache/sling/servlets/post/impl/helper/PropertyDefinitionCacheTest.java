@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.post.impl.helper;
+
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Workspace;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.nodetype.NodeTypeIterator;
+import javax.jcr.nodetype.NodeTypeManager;
+import javax.jcr.nodetype.PropertyDefinition;
+
+import junit.framework.TestCase;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class PropertyDefinitionCacheTest extends TestCase {
+    private Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testMandatoryCached() throws RepositoryException {
+        final Session session = mockSession(10, 10);
+        final Node node = mockNode(1);
+
+        final PropertyDefinitionCache cache = new PropertyDefinitionCache();
+        final PropertyDefinitionCache.Definitions definitions = cache.getDefinitions(session);
+        assertTrue(definitions.isMandatory(node, "title"));
+        assertTrue(definitions.isMandatory(node, "title"));
+        assertEquals(1, definitions.size());
+
+        // same node types: the cached definitions are returned
+        assertSame(definitions, cache.getDefinitions(session));
+    }
+
+    @Test
+    public void testNodeTypeRegistration() throws RepositoryException {
+        final Session session = mockSession(10, 11);
+        final Node node = mockNode(2);
+
+        final PropertyDefinitionCache cache = new PropertyDefinitionCache();
+        final PropertyDefinitionCache.Definitions definitions = cache.getDefinitions(session);
+        assertFalse(definitions.isMandatory(node, "text"));
+
+        // a node type has been registered: the definitions are dropped
+        final PropertyDefinitionCache.Definitions newDefinitions = cache.getDefinitions(session);
+        assertNotSame(definitions, newDefinitions);
+        assertEquals(0, newDefinitions.size());
+        assertFalse(newDefinitions.isMandatory(node, "text"));
+    }
+
+    private Session mockSession(final long typeCount, final long newTypeCount)
+    throws RepositoryException {
+        final Session session = context.mock(Session.class);
+        final Repository repository = context.mock(Repository.class);
+        final Workspace workspace = context.mock(Workspace.class);
+        final NodeTypeManager ntMgr = context.mock(NodeTypeManager.class);
+        final NodeTypeIterator types = context.mock(NodeTypeIterator.class);
+        context.checking(new Expectations() {
+            {
+                allowing(session).getRepository();
+                will(returnValue(repository));
+                allowing(session).getWorkspace();
+                will(returnValue(workspace));
+                allowing(workspace).getNodeTypeManager();
+                will(returnValue(ntMgr));
+                allowing(ntMgr).getAllNodeTypes();
+                will(returnValue(types));
+                exactly(1).of(types).getSize();
+                will(returnValue(typeCount));
+                allowing(types).getSize();
+                will(returnValue(newTypeCount));
+            }
+        });
+        return session;
+    }
+
+    private Node mockNode(final int lookups) throws RepositoryException {
+        final Node node = context.mock(Node.class);
+        final NodeType type = context.mock(NodeType.class);
+        final PropertyDefinition def = context.mock(PropertyDefinition.class);
+        context.checking(new Expectations() {
+            {
+                allowing(node).getPrimaryNodeType();
+                will(returnValue(type));
+                allowing(node).getMixinNodeTypes();
+                will(returnValue(new NodeType[0]));
+                allowing(type).getName();
+                will(returnValue("sling:Test"));
+                exactly(lookups).of(type).getPropertyDefinitions();
+                will(returnValue(new PropertyDefinition[] { def }));
+                allowing(def).isMandatory();
+                will(returnValue(true));
+                allowing(def).getName();
+                will(returnValue("title"));
+            }
+        });
+        return node;
+    }
+}
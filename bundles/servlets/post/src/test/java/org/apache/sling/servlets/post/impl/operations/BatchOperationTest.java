@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.servlets.post.JSONResponse;
+import org.apache.sling.servlets.post.PostOperation;
+import org.apache.sling.servlets.post.PostResponse;
+import org.apache.sling.servlets.post.SlingPostConstants;
+import org.apache.sling.servlets.post.SlingPostProcessor;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class BatchOperationTest extends TestCase {
+    private Mockery context = new JUnit4Mockery();
+
+    private final List<String> executed = new ArrayList<String>();
+
+    private final Map<String, PostOperation> operations = new HashMap<String, PostOperation>();
+
+    /** Operation recording the path and the title parameter. */
+    private class RecordingOperation implements PostOperation {
+
+        public void run(SlingHttpServletRequest request, PostResponse response,
+                SlingPostProcessor[] processors) {
+            executed.add(request.getResource().getPath() + ":"
+                + request.getParameter("title"));
+            response.onModified(request.getResource().getPath());
+            if ("fail".equals(request.getParameter("title"))) {
+                response.setStatus(409, "Conflict");
+            }
+        }
+    }
+
+    private SlingHttpServletRequest setupRequest(final String batch,
+            final String chunkSize, final ResourceResolver resolver) {
+        final SlingHttpServletRequest request = context.mock(SlingHttpServletRequest.class);
+        final Resource resource = context.mock(Resource.class);
+        final RequestParameter batchParam = context.mock(RequestParameter.class);
+        context.checking(new Expectations() {
+            {
+                allowing(request).getResourceResolver();
+                will(returnValue(resolver));
+                allowing(request).getResource();
+                will(returnValue(resource));
+                allowing(resource).getPath();
+                will(returnValue("/content"));
+                allowing(request).getRequestParameter(SlingPostConstants.RP_BATCH);
+                will(returnValue(batchParam));
+                allowing(batchParam).isFormField();
+                will(returnValue(true));
+                allowing(batchParam).getString();
+                will(returnValue(batch));
+                allowing(request).getParameter(SlingPostConstants.RP_CHUNK_SIZE);
+                will(returnValue(chunkSize));
+                allowing(request).getAttribute(SlingPostConstants.ATTR_SKIP_SESSION_HANDLING);
+                will(returnValue(null));
+                // session handling is switched off during the batch
+                one(request).setAttribute(SlingPostConstants.ATTR_SKIP_SESSION_HANDLING, "true");
+                one(request).setAttribute(SlingPostConstants.ATTR_SKIP_SESSION_HANDLING, null);
+                allowing(resolver).getResource(with(any(String.class)));
+                will(returnValue(null));
+            }
+        });
+        return request;
+    }
+
+    @Test
+    public void testSingleCommit() throws Exception {
+        operations.put(SlingPostConstants.OPERATION_MODIFY, new RecordingOperation());
+        final ResourceResolver resolver = context.mock(ResourceResolver.class);
+        final SlingHttpServletRequest request = setupRequest(
+            "[ {\"path\":\"/content/a\", \"params\":{\"title\":\"A\"}},"
+            + " {\"path\":\"b\", \"params\":{\"title\":\"B\"}} ]", null, resolver);
+        context.checking(new Expectations() {
+            {
+                allowing(resolver).hasChanges();
+                will(onConsecutiveCalls(returnValue(true), returnValue(false)));
+                exactly(1).of(resolver).commit();
+            }
+        });
+
+        final JSONResponse response = new JSONResponse();
+        new BatchOperation(operations).run(request, response, null);
+
+        assertTrue(response.isSuccessful());
+        assertEquals(2, executed.size());
+        assertEquals("/content/a:A", executed.get(0));
+        assertEquals("/content/b:B", executed.get(1));
+    }
+
+    @Test
+    public void testChunkedCommit() throws Exception {
+        operations.put(SlingPostConstants.OPERATION_MODIFY, new RecordingOperation());
+        final ResourceResolver resolver = context.mock(ResourceResolver.class);
+        final StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < 5; i++) {
+            batch.append("{\"path\":\"/content/n").append(i).append("\"},");
+        }
+        batch.append("]");
+        final SlingHttpServletRequest request = setupRequest(batch.toString(), "2", resolver);
+        context.checking(new Expectations() {
+            {
+                // two chunks, the remaining operation and the final check
+                exactly(4).of(resolver).hasChanges();
+                will(onConsecutiveCalls(returnValue(true), returnValue(true),
+                    returnValue(true), returnValue(false)));
+                exactly(3).of(resolver).commit();
+            }
+        });
+
+        final JSONResponse response = new JSONResponse();
+        new BatchOperation(operations).run(request, response, null);
+
+        assertTrue(response.isSuccessful());
+        assertEquals(5, executed.size());
+    }
+
+    @Test
+    public void testStopOnFailure() throws Exception {
+        operations.put(SlingPostConstants.OPERATION_MODIFY, new RecordingOperation());
+        final ResourceResolver resolver = context.mock(ResourceResolver.class);
+        final SlingHttpServletRequest request = setupRequest(
+            "[ {\"path\":\"/content/a\", \"params\":{\"title\":\"A\"}},"
+            + " {\"path\":\"/content/b\", \"params\":{\"title\":\"fail\"}},"
+            + " {\"path\":\"/content/c\", \"params\":{\"title\":\"C\"}} ]", null, resolver);
+        context.checking(new Expectations() {
+            {
+                allowing(resolver).hasChanges();
+                will(returnValue(true));
+                never(resolver).commit();
+                exactly(1).of(resolver).revert();
+            }
+        });
+
+        final JSONResponse response = new JSONResponse();
+        new BatchOperation(operations).run(request, response, null);
+
+        assertFalse(response.isSuccessful());
+        assertEquals(409, response.getStatusCode());
+        assertEquals(2, executed.size());
+    }
+
+    @Test
+    public void testUnknownOperation() throws Exception {
+        final ResourceResolver resolver = context.mock(ResourceResolver.class);
+        final SlingHttpServletRequest request = setupRequest(
+            "[ {\"path\":\"/content/a\", \"params\":{\":operation\":\"unknown\"}} ]",
+            null, resolver);
+        context.checking(new Expectations() {
+            {
+                allowing(resolver).hasChanges();
+                will(returnValue(false));
+            }
+        });
+
+        final JSONResponse response = new JSONResponse();
+        new BatchOperation(operations).run(request, response, null);
+
+        assertFalse(response.isSuccessful());
+        assertEquals(0, executed.size());
+    }
+}
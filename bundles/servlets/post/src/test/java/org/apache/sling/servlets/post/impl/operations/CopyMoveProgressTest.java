@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import junit.framework.TestCase;
+
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JMock.class)
+public class CopyMoveProgressTest extends TestCase {
+    private Mockery context = new JUnit4Mockery();
+
+    @Test
+    public void testSaveEveryChunk() throws RepositoryException {
+        final Session session = context.mock(Session.class);
+        context.checking(new Expectations() {
+            {
+                exactly(3).of(session).save();
+            }
+        });
+
+        final CopyMoveProgress progress = new CopyMoveProgress(10, null);
+        for (int i = 0; i < 35; i++) {
+            progress.onNode(session);
+        }
+        assertEquals(35, progress.getNodeCount());
+        assertEquals(3, progress.getSaveCount());
+    }
+
+    @Test
+    public void testAbort() throws RepositoryException {
+        final Session session = context.mock(Session.class);
+        final CopyMoveProgress progress = new CopyMoveProgress(10, null);
+        progress.onNode(session);
+        progress.abort();
+        assertTrue(progress.isAborted());
+        try {
+            progress.onNode(session);
+            fail("Expected aborted operation");
+        } catch (RepositoryException re) {
+            // expected
+        }
+        assertEquals(1, progress.getNodeCount());
+        assertEquals(0, progress.getSaveCount());
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.sling.scripting.freemarker;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.Reader;
 
 import javax.script.Bindings;
@@ -25,6 +27,7 @@ import javax.script.ScriptException;
 import javax.jcr.Node;
 
 import freemarker.log.Logger;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.scripting.SlingBindings;
 import org.apache.sling.api.scripting.SlingScriptHelper;
 import org.apache.sling.scripting.api.AbstractSlingScriptEngine;
@@ -42,9 +45,18 @@ public class FreemarkerScriptEngine extends AbstractSlingScriptEngine {
 
     private final Configuration configuration;
 
+    private final SlingTemplateLoader templateLoader;
+
     public FreemarkerScriptEngine(ScriptEngineFactory factory) {
         super(factory);
-        configuration = new Configuration();
+        if (factory instanceof FreemarkerScriptEngineFactory) {
+            final FreemarkerScriptEngineFactory fmFactory = (FreemarkerScriptEngineFactory) factory;
+            configuration = fmFactory.getConfiguration();
+            templateLoader = fmFactory.getTemplateLoader();
+        } else {
+            configuration = new Configuration();
+            templateLoader = null;
+        }
     }
 
     public Object eval(Reader reader, ScriptContext scriptContext)
@@ -63,17 +75,43 @@ public class FreemarkerScriptEngine extends AbstractSlingScriptEngine {
 
         String scriptName = helper.getScript().getScriptResource().getPath();
 
+        // the template loader (also used for includes) resolves the
+        // templates with the resource resolver of the request
+        final ResourceResolver oldResolver = (templateLoader != null)
+                ? templateLoader.setResourceResolver(helper.getRequest().getResourceResolver())
+                : null;
         try {
-            Template tmpl = new Template(scriptName, reader, configuration);
+            Template tmpl = getTemplate(scriptName, reader);
             bindings.put("currentNode", new NodeModel((Node) bindings.get("currentNode")));
             tmpl.process(bindings, scriptContext.getWriter());
         } catch (Throwable t) {
             log.error("Failure running Freemarker script.", t);
             throw new ScriptException("Failure running FreeMarker script "
                 + scriptName);
+        } finally {
+            if (templateLoader != null) {
+                templateLoader.setResourceResolver(oldResolver);
+            }
         }
 
         return null;
     }
 
+    /**
+     * Returns the cached template of the script or parses the script
+     * if the template can't be loaded through the template loader.
+     */
+    private Template getTemplate(String scriptName, Reader reader)
+            throws IOException {
+        if (templateLoader != null) {
+            try {
+                return configuration.getTemplate(scriptName);
+            } catch (FileNotFoundException fnfe) {
+                log.debug("Template " + scriptName
+                    + " not found by the template loader, parsing script.");
+            }
+        }
+        return new Template(scriptName, reader, configuration);
+    }
+
 }
\ No newline at end of file
@@ -26,6 +26,8 @@ import javax.script.ScriptEngine;
 
 import org.apache.sling.scripting.api.AbstractScriptEngineFactory;
 
+import freemarker.template.Configuration;
+
 public class FreemarkerScriptEngineFactory extends AbstractScriptEngineFactory {
 
     /** The extensions of FreeMarker scripts (value is "ftl"). */
@@ -69,6 +71,17 @@ public class FreemarkerScriptEngineFactory extends AbstractScriptEngineFactory {
      */
     private final String languageVersion;
 
+    /**
+     * The template loader reading templates from Sling resources.
+     */
+    private final SlingTemplateLoader templateLoader;
+
+    /**
+     * The FreeMarker configuration shared by all engines of this factory.
+     * The configuration holds the cache of the parsed templates.
+     */
+    private final Configuration configuration;
+
     public FreemarkerScriptEngineFactory() {
         setExtensions(FREEMARKER_SCRIPT_EXTENSION);
         setMimeTypes(FREEMARKER_MIME_TYPE);
@@ -101,6 +114,15 @@ public class FreemarkerScriptEngineFactory extends AbstractScriptEngineFactory {
         languageVersion = (langVersion == null)
                 ? DEFAULT_FREEMARKER_VERSION
                 : langVersion;
+
+        // templates are cached by path and reparsed only if the
+        // modification time of the template resource has changed
+        templateLoader = new SlingTemplateLoader();
+        configuration = new Configuration();
+        configuration.setTemplateLoader(templateLoader);
+        configuration.setTemplateUpdateDelay(0);
+        configuration.setLocalizedLookup(false);
+        configuration.setDefaultEncoding("UTF-8");
     }
 
     public ScriptEngine getScriptEngine() {
@@ -114,4 +136,12 @@ public class FreemarkerScriptEngineFactory extends AbstractScriptEngineFactory {
     public String getLanguageVersion() {
         return languageVersion;
     }
+
+    Configuration getConfiguration() {
+        return configuration;
+    }
+
+    SlingTemplateLoader getTemplateLoader() {
+        return templateLoader;
+    }
 }
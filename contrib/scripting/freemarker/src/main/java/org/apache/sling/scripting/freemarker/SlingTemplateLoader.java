@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.scripting.freemarker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceMetadata;
+import org.apache.sling.api.resource.ResourceResolver;
+
+import freemarker.cache.TemplateLoader;
+
+/**
+ * The <code>SlingTemplateLoader</code> loads FreeMarker templates from
+ * Sling resources. The resources are resolved with the resource resolver
+ * of the current request which is set by the script engine for the
+ * duration of the template processing.
+ * <p>
+ * FreeMarker caches the parsed templates by name and reloads a template
+ * only if its modification time as returned by
+ * {@link #getLastModified(Object)} has changed.
+ */
+class SlingTemplateLoader implements TemplateLoader {
+
+    private final ThreadLocal<ResourceResolver> resourceResolver = new ThreadLocal<ResourceResolver>();
+
+    /**
+     * Sets the resource resolver used by the current thread to load
+     * templates.
+     *
+     * @param resolver The resource resolver or <code>null</code> to
+     *            remove the resource resolver from the current thread.
+     * @return The resource resolver previously set for the current thread.
+     */
+    ResourceResolver setResourceResolver(ResourceResolver resolver) {
+        final ResourceResolver old = resourceResolver.get();
+        if (resolver == null) {
+            resourceResolver.remove();
+        } else {
+            resourceResolver.set(resolver);
+        }
+        return old;
+    }
+
+    public Object findTemplateSource(String name) throws IOException {
+        final ResourceResolver resolver = resourceResolver.get();
+        if (resolver == null) {
+            return null;
+        }
+
+        // FreeMarker template names never start with a slash
+        final String path = name.startsWith("/") ? name : "/" + name;
+        final Resource resource = resolver.getResource(path);
+        if (resource == null) {
+            return null;
+        }
+        return new TemplateSource(resource);
+    }
+
+    public long getLastModified(Object templateSource) {
+        return ((TemplateSource) templateSource).lastModified;
+    }
+
+    public Reader getReader(Object templateSource, String encoding)
+            throws IOException {
+        final Resource resource = ((TemplateSource) templateSource).resource;
+        final InputStream ins = resource.adaptTo(InputStream.class);
+        if (ins == null) {
+            throw new IOException("Cannot read template " + resource.getPath());
+        }
+
+        final String resourceEncoding = resource.getResourceMetadata().getCharacterEncoding();
+        return new InputStreamReader(ins, (resourceEncoding != null)
+                ? resourceEncoding
+                : encoding);
+    }
+
+    public void closeTemplateSource(Object templateSource) {
+        // nothing to close, the reader is closed by FreeMarker
+    }
+
+    /**
+     * The template source. FreeMarker compares the sources of cached
+     * templates with <code>equals</code>, therefore sources are equal
+     * if they refer to the same path.
+     */
+    static final class TemplateSource {
+
+        private final Resource resource;
+
+        private final String path;
+
+        private final long lastModified;
+
+        TemplateSource(Resource resource) {
+            this.resource = resource;
+            this.path = resource.getPath();
+            final ResourceMetadata metadata = resource.getResourceMetadata();
+            this.lastModified = (metadata != null)
+                    ? metadata.getModificationTime()
+                    : -1;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TemplateSource
+                && path.equals(((TemplateSource) obj).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+    }
+}
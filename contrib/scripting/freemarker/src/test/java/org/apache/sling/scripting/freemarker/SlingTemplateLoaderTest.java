@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.scripting.freemarker;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.HashMap;
+
+import junit.framework.TestCase;
+
+import org.apache.sling.api.resource.ResourceMetadata;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.SyntheticResource;
+import org.jmock.Expectations;
+import org.jmock.Mockery;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+public class SlingTemplateLoaderTest extends TestCase {
+
+    private static final String PATH = "/apps/test/html.ftl";
+
+    private final Mockery context = new Mockery();
+
+    private SlingTemplateLoader loader;
+
+    private Configuration configuration;
+
+    private final TemplateResource resource = new TemplateResource("Hello ${name}", 1000L);
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        FreemarkerScriptEngineFactory factory = new FreemarkerScriptEngineFactory();
+        loader = factory.getTemplateLoader();
+        configuration = factory.getConfiguration();
+
+        final ResourceResolver resolver = context.mock(ResourceResolver.class);
+        context.checking(new Expectations() {{
+            allowing(resolver).getResource(PATH);
+            will(returnValue(resource));
+            allowing(resolver).getResource(with(any(String.class)));
+            will(returnValue(null));
+        }});
+        loader.setResourceResolver(resolver);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        loader.setResourceResolver(null);
+        super.tearDown();
+    }
+
+    public void testTemplateCached() throws Exception {
+        Template template = configuration.getTemplate(PATH);
+        assertEquals("Hello World", process(template));
+        assertSame(template, configuration.getTemplate(PATH));
+    }
+
+    public void testTemplateReloadedIfModified() throws Exception {
+        Template template = configuration.getTemplate(PATH);
+
+        resource.update("Bye ${name}", 2000L);
+        Template modified = configuration.getTemplate(PATH);
+        assertNotSame(template, modified);
+        assertEquals("Bye World", process(modified));
+    }
+
+    public void testIncludeTemplate() throws Exception {
+        Template template = new Template("/apps/test/main.ftl",
+            new java.io.StringReader("<#include \"html.ftl\">!"), configuration);
+        assertEquals("Hello World!", process(template));
+    }
+
+    public void testTemplateNotFound() throws Exception {
+        try {
+            configuration.getTemplate("/apps/test/missing.ftl");
+            fail("Expected FileNotFoundException");
+        } catch (FileNotFoundException fnfe) {
+            // expected
+        }
+    }
+
+    public void testNoResourceResolver() throws Exception {
+        loader.setResourceResolver(null);
+        try {
+            configuration.getTemplate(PATH);
+            fail("Expected FileNotFoundException");
+        } catch (FileNotFoundException fnfe) {
+            // expected
+        }
+    }
+
+    private String process(Template template) throws Exception {
+        HashMap<String, Object> data = new HashMap<String, Object>();
+        data.put("name", "World");
+        StringWriter writer = new StringWriter();
+        template.process(data, writer);
+        return writer.toString();
+    }
+
+    private static class TemplateResource extends SyntheticResource {
+
+        private String content;
+
+        TemplateResource(String content, long lastModified) {
+            super(null, createMetadata(lastModified), null);
+            this.content = content;
+        }
+
+        void update(String content, long lastModified) {
+            this.content = content;
+            getResourceMetadata().setModificationTime(lastModified);
+        }
+
+        private static ResourceMetadata createMetadata(long lastModified) {
+            ResourceMetadata metadata = new ResourceMetadata();
+            metadata.setResolutionPath(PATH);
+            metadata.setModificationTime(lastModified);
+            return metadata;
+        }
+
+        @Override
+        public String getPath() {
+            return PATH;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <Type> Type adaptTo(Class<Type> type) {
+            if (type == InputStream.class) {
+                return (Type) new ByteArrayInputStream(content.getBytes());
+            }
+            return super.adaptTo(type);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.sling.scripting.velocity;
+
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.resource.Resource;
+import org.apache.velocity.runtime.resource.ResourceCacheImpl;
+
+/**
+ * The <code>SlingResourceCache</code> is the Velocity resource cache which
+ * holds the parsed templates. A cached template is evicted as soon as the
+ * {@link VelocityScriptEngineService} got a resource event for it, so the
+ * next request for the template loads and parses it again.
+ */
+public class SlingResourceCache extends ResourceCacheImpl {
+
+    private VelocityScriptEngineService velocityScriptEngineService;
+
+    @Override
+    public void initialize(RuntimeServices rs) {
+        super.initialize(rs);
+        velocityScriptEngineService = SlingResourceLoader.findService();
+    }
+
+    @Override
+    public Resource get(Object key) {
+        final Resource resource = super.get(key);
+        if (resource != null && velocityScriptEngineService != null
+            && velocityScriptEngineService.consumeModification(resource.getName())) {
+            remove(key);
+            return null;
+        }
+        return resource;
+    }
+}
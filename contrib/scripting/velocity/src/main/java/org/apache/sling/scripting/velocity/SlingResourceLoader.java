@@ -19,6 +19,7 @@ package org.apache.sling.scripting.velocity;
 import java.io.InputStream;
 
 import org.apache.commons.collections.ExtendedProperties;
+import org.apache.sling.api.resource.ResourceMetadata;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.runtime.resource.Resource;
@@ -35,8 +36,19 @@ public class SlingResourceLoader extends ResourceLoader {
     private ResourceResolver resourceResolver;
 
     @Override
-	public long getLastModified(Resource arg0) {
-		// TODO Auto-generated method stub
+	public long getLastModified(Resource resource) {
+		if ( resourceResolver != null )
+		{
+			org.apache.sling.api.resource.Resource slingResource = resourceResolver.getResource( resource.getName() );
+			if ( slingResource != null )
+			{
+				ResourceMetadata metadata = slingResource.getResourceMetadata();
+				if ( metadata != null )
+				{
+					return metadata.getModificationTime();
+				}
+			}
+		}
 		return 0;
 	}
 
@@ -54,30 +66,51 @@ public class SlingResourceLoader extends ResourceLoader {
 			}
 		}
 		
+		if ( returnValue != null && velocityScriptEngineService != null )
+		{
+			// track the template to get notified about changes
+			velocityScriptEngineService.templateLoaded( absPath );
+		}
+		
 		return returnValue;
 	}
 
 	@Override
 	public void init(ExtendedProperties arg0) {
-		Bundle bundle = FrameworkUtil.getBundle( VelocityScriptEngineService.class );
-		BundleContext bundleContext = bundle.getBundleContext();
-		ServiceReference serviceRef = bundleContext.getServiceReference( VelocityScriptEngineService.class.getName() );
-		
-		if ( serviceRef != null )
+		velocityScriptEngineService = findService();
+		if ( velocityScriptEngineService != null )
 		{
-			velocityScriptEngineService = (VelocityScriptEngineService) bundleContext.getService( serviceRef );
-			if ( velocityScriptEngineService != null )
-			{
-				resourceResolver = velocityScriptEngineService.getResourceResolver();
-			}
+			resourceResolver = velocityScriptEngineService.getResourceResolver();
 		}
 	}
 
+	/**
+	 * Templates are cached until a resource event is received for them,
+	 * this is only checked if a modification check interval is configured.
+	 */
 	@Override
-	public boolean isSourceModified(Resource arg0) {
-		return true;
+	public boolean isSourceModified(Resource resource) {
+		return getLastModified( resource ) != resource.getLastModified();
 	}
 	
-
+	/**
+	 * Looks up the {@link VelocityScriptEngineService} in the service registry.
+	 * @return The service or <code>null</code> if not available.
+	 */
+	static VelocityScriptEngineService findService() {
+		Bundle bundle = FrameworkUtil.getBundle( VelocityScriptEngineService.class );
+		BundleContext bundleContext = ( bundle != null ) ? bundle.getBundleContext() : null;
+		if ( bundleContext == null )
+		{
+			return null;
+		}
+		
+		ServiceReference serviceRef = bundleContext.getServiceReference( VelocityScriptEngineService.class.getName() );
+		if ( serviceRef != null )
+		{
+			return (VelocityScriptEngineService) bundleContext.getService( serviceRef );
+		}
+		return null;
+	}
 
 }
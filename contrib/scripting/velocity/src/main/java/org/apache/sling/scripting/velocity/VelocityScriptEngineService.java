@@ -20,6 +20,8 @@ package org.apache.sling.scripting.velocity;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -29,14 +31,20 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.sling.api.SlingConstants;
 import org.apache.sling.api.resource.LoginException;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.osgi.framework.BundleContext;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventConstants;
+import org.osgi.service.event.EventHandler;
 
 @Component(name = "org.apache.sling.scripting.velocity.VelocityScriptEngineService", label = "%auth.name", description = "%auth.description")
-@Service( value = VelocityScriptEngineService.class )
-public class VelocityScriptEngineService {
+@Service( value = { VelocityScriptEngineService.class, EventHandler.class } )
+@Property( name = EventConstants.EVENT_TOPIC, value = { SlingConstants.TOPIC_RESOURCE_ADDED,
+        SlingConstants.TOPIC_RESOURCE_CHANGED, SlingConstants.TOPIC_RESOURCE_REMOVED } )
+public class VelocityScriptEngineService implements EventHandler {
 	
 	@Reference
     private ResourceResolverFactory resourceResolverFactory;
@@ -48,11 +56,57 @@ public class VelocityScriptEngineService {
     @Property( name = PROP_RESOURCE_LOADER_USER )
     public static final String DEFAULT_RESOURCE_LOADER_USER = null;
     
+    /**
+     * The paths of the loaded templates. The value is <code>true</code> if
+     * the template has been modified since it has been loaded.
+     */
+    private final ConcurrentMap<String, Boolean> templates = new ConcurrentHashMap<String, Boolean>();
+    
     public ResourceResolver getResourceResolver ()
     {
     	return resourceResolver;
     }
     
+    /**
+     * A template has been loaded by the {@link SlingResourceLoader}.
+     */
+    void templateLoaded(final String path)
+    {
+    	templates.put( path, Boolean.FALSE );
+    }
+    
+    /**
+     * Checks whether the template has been modified since it has been
+     * loaded and resets the modification flag.
+     */
+    boolean consumeModification(final String path)
+    {
+    	return templates.replace( path, Boolean.TRUE, Boolean.FALSE );
+    }
+    
+    /**
+     * Flags the loaded templates affected by the resource event as modified:
+     * the template itself, its content or one of its ancestors has changed.
+     */
+    public void handleEvent(final Event event)
+    {
+    	final Object path = event.getProperty( SlingConstants.PROPERTY_PATH );
+    	if ( path == null )
+    	{
+    		return;
+    	}
+    	final String changed = path.toString();
+    	for ( final String template : templates.keySet() )
+    	{
+    		if ( template.equals( changed )
+    				|| changed.startsWith( template + "/" )
+    				|| template.startsWith( changed + "/" ) )
+    		{
+    			templates.put( template, Boolean.TRUE );
+    		}
+    	}
+    }
+    
     @SuppressWarnings("unused")
     @Activate
     private void activate(final BundleContext bundleContext,
@@ -74,6 +128,7 @@ public class VelocityScriptEngineService {
     @SuppressWarnings("unused")
     @Deactivate
     private void deactivate(final BundleContext bundleContext) {
+    	templates.clear();
     }
     
 
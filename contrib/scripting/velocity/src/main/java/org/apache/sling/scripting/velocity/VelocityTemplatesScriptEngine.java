@@ -19,18 +19,18 @@ package org.apache.sling.scripting.velocity;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.Map;
-import java.util.Properties;
 
 import javax.script.Bindings;
 import javax.script.ScriptContext;
-import javax.script.ScriptEngineFactory;
 import javax.script.ScriptException;
 
 import org.apache.sling.api.scripting.SlingBindings;
 import org.apache.sling.api.scripting.SlingScriptHelper;
 import org.apache.sling.scripting.api.AbstractSlingScriptEngine;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.ResourceNotFoundException;
 
 /**
  * A ScriptEngine that uses Velocity templates to render a Resource.
@@ -39,30 +39,9 @@ public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
 
     private final VelocityEngine velocity;
 
-    public VelocityTemplatesScriptEngine(ScriptEngineFactory factory) {
+    public VelocityTemplatesScriptEngine(VelocityTemplatesScriptEngineFactory factory) {
         super(factory);
-        
-        final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
-        try {
-	        Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
-	        
-	        velocity = new VelocityEngine();
-	        
-	        // include the Sling resource loader for Velocity
-	        Properties props = new Properties();
-	        props.put("sling.resource.loader.description", "Sling Resource Loader for Velocity");
-	        props.put("sling.resource.loader.class", "org.apache.sling.scripting.velocity.SlingResourceLoader");
-	        props.put("sling.resource.loader.cache", "false");
-	        props.put("resource.loader","file,sling");
-	        
-            velocity.init( props );
-        } catch (Exception e) {
-            throw new RuntimeException("Exception in Velocity.init() "
-                + e.getMessage(), e);
-	    } finally {
-	    	Thread.currentThread().setContextClassLoader(oldClassLoader);
-	    }
-
+        velocity = factory.getVelocityEngine();
     }
 
     public Object eval(Reader script, ScriptContext scriptContext)
@@ -99,7 +78,12 @@ public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
 	        final String logTag = getClass().getSimpleName();
 	        Writer w = scriptContext.getWriter();
 	        try {
-	            velocity.evaluate(c, w, logTag, script);
+	            final Template template = getTemplate(scriptName);
+	            if (template != null) {
+	                template.merge(c, w);
+	            } else {
+	                velocity.evaluate(c, w, logTag, script);
+	            }
 	        } catch (Throwable t) {
 	            throw new ScriptException("Failure running script " + scriptName
 	                + ": " + t + ", stack trace: " + t.getStackTrace() );
@@ -111,4 +95,16 @@ public class VelocityTemplatesScriptEngine extends AbstractSlingScriptEngine {
         return null;
     }
 
+    /**
+     * Returns the (cached) template of the script or <code>null</code> if
+     * the template can't be loaded through the resource loaders.
+     */
+    private Template getTemplate(String scriptName) {
+        try {
+            return velocity.getTemplate(scriptName);
+        } catch (ResourceNotFoundException rnfe) {
+            return null;
+        }
+    }
+
 }
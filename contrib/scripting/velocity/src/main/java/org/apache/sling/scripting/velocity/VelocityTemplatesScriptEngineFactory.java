@@ -18,9 +18,12 @@
  */
 package org.apache.sling.scripting.velocity;
 
+import java.util.Properties;
+
 import javax.script.ScriptEngine;
 
 import org.apache.sling.scripting.api.AbstractScriptEngineFactory;
+import org.apache.velocity.app.VelocityEngine;
 
 public class VelocityTemplatesScriptEngineFactory extends AbstractScriptEngineFactory {
 
@@ -30,6 +33,12 @@ public class VelocityTemplatesScriptEngineFactory extends AbstractScriptEngineFa
 
     public final static String VELOCITY_SHORT_NAME = "velocity";
 
+    /**
+     * The Velocity engine shared by all script engines of this factory. The
+     * engine holds the cache of the parsed templates.
+     */
+    private VelocityEngine velocity;
+
     public VelocityTemplatesScriptEngineFactory() {
         setExtensions(VELOCITY_SCRIPT_EXTENSION);
         setMimeTypes(VELOCITY_MIME_TYPE);
@@ -40,6 +49,42 @@ public class VelocityTemplatesScriptEngineFactory extends AbstractScriptEngineFa
         return new VelocityTemplatesScriptEngine(this);
     }
 
+    /**
+     * Returns the shared Velocity engine, which is initialized on first use.
+     */
+    synchronized VelocityEngine getVelocityEngine() {
+        if (velocity == null) {
+            final ClassLoader oldClassLoader = Thread.currentThread().getContextClassLoader();
+            try {
+                Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+                final VelocityEngine engine = new VelocityEngine();
+
+                // include the Sling resource loader for Velocity
+                Properties props = new Properties();
+                props.put("sling.resource.loader.description", "Sling Resource Loader for Velocity");
+                props.put("sling.resource.loader.class", SlingResourceLoader.class.getName());
+                props.put("resource.loader","file,sling");
+
+                // parsed templates are cached until a resource event is
+                // received for them
+                props.put("sling.resource.loader.cache", "true");
+                props.put("sling.resource.loader.modificationCheckInterval", "0");
+                props.put("resource.manager.cache.class", SlingResourceCache.class.getName());
+                props.put("input.encoding", "UTF-8");
+
+                engine.init( props );
+                velocity = engine;
+            } catch (Exception e) {
+                throw new RuntimeException("Exception in Velocity.init() "
+                    + e.getMessage(), e);
+            } finally {
+                Thread.currentThread().setContextClassLoader(oldClassLoader);
+            }
+        }
+        return velocity;
+    }
+
     public String getLanguageName() {
         return "velocity";
     }
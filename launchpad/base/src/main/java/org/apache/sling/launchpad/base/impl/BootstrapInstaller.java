@@ -18,6 +18,7 @@
  */
 package org.apache.sling.launchpad.base.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -25,14 +26,25 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.CRC32;
 
 import org.apache.felix.framework.Logger;
 import org.apache.sling.launchpad.api.LaunchpadContentProvider;
@@ -185,57 +197,84 @@ class BootstrapInstaller {
         }
 
         if (shouldInstall) {
-            // only run the war/jar copies when this war/jar is new/changed
-
-            // see if the loading of bundles from the package is disabled
-            String dpblString = bundleContext.getProperty(SharedConstants.DISABLE_PACKAGE_BUNDLE_LOADING);
-            Boolean disablePackageBundleLoading = Boolean.valueOf(dpblString);
-
-            if (disablePackageBundleLoading) {
-                logger.log(Logger.LOG_INFO, "Package bundle loading is disabled so no bundles will be installed from the resources location in the sling jar/war");
-            } else {
-                // get the bundles out of the jar/war and copy them to the startup location
-                Iterator<String> resources = resourceProvider.getChildren(PATH_BUNDLES);
-                while (resources.hasNext()) {
-                    String path = resources.next();
-                    // only consider folders
-                    if (path.endsWith("/")) {
-
-                        // cut off trailing slash
-                        path = path.substring(0, path.length() - 1);
-
-                        // calculate the startlevel of bundles contained
-                        int startLevel = getStartLevel(path);
-                        if (startLevel != STARTLEVEL_NONE) {
-                            copyBundles(slingStartupDir, path, startLevel);
+            // see if the bundles should be copied and installed concurrently
+            final boolean parallel = Boolean.valueOf(bundleContext.getProperty(SharedConstants.PARALLEL_BUNDLE_INSTALLATION));
+            final ExecutorService executor = parallel ? createExecutor() : null;
+            try {
+                final long startTime = System.currentTimeMillis();
+
+                // only run the war/jar copies when this war/jar is new/changed
+
+                // see if the loading of bundles from the package is disabled
+                String dpblString = bundleContext.getProperty(SharedConstants.DISABLE_PACKAGE_BUNDLE_LOADING);
+                Boolean disablePackageBundleLoading = Boolean.valueOf(dpblString);
+
+                if (disablePackageBundleLoading) {
+                    logger.log(Logger.LOG_INFO, "Package bundle loading is disabled so no bundles will be installed from the resources location in the sling jar/war");
+                } else {
+                    // the pending copy operations in parallel mode
+                    final List<Future<?>> copyTasks = new ArrayList<Future<?>>();
+
+                    // get the bundles out of the jar/war and copy them to the startup location
+                    Iterator<String> resources = resourceProvider.getChildren(PATH_BUNDLES);
+                    while (resources.hasNext()) {
+                        String path = resources.next();
+                        // only consider folders
+                        if (path.endsWith("/")) {
+
+                            // cut off trailing slash
+                            path = path.substring(0, path.length() - 1);
+
+                            // calculate the startlevel of bundles contained
+                            int startLevel = getStartLevel(path);
+                            if (startLevel != STARTLEVEL_NONE) {
+                                copyBundles(slingStartupDir, path, startLevel, executor, copyTasks);
+                            }
                         }
                     }
-                }
 
-                // copy old-style core bundles
-                copyBundles(slingStartupDir, PATH_CORE_BUNDLES, STARTLEVEL_CORE_BUNDLES);
+                    // copy old-style core bundles
+                    copyBundles(slingStartupDir, PATH_CORE_BUNDLES, STARTLEVEL_CORE_BUNDLES, executor, copyTasks);
 
-                // copy old-style bundles
-                copyBundles(slingStartupDir, PATH_BUNDLES, STARTLEVEL_BUNDLES);
+                    // copy old-style bundles
+                    copyBundles(slingStartupDir, PATH_BUNDLES, STARTLEVEL_BUNDLES, executor, copyTasks);
 
-                // done with copying at this point
-            }
+                    // wait for the copy operations
+                    for (final Future<?> copyTask : copyTasks) {
+                        getResult(copyTask);
+                    }
 
-            // get the set of all existing (installed) bundles by symbolic name
-            Bundle[] bundles = bundleContext.getBundles();
-            Map<String, Bundle> bySymbolicName = new HashMap<String, Bundle>();
-            for (int i = 0; i < bundles.length; i++) {
-                bySymbolicName.put(bundles[i].getSymbolicName(), bundles[i]);
-            }
+                    // done with copying at this point
+                }
+                final long copyTime = System.currentTimeMillis();
+
+                // get the set of all existing (installed) bundles by symbolic name
+                Bundle[] bundles = bundleContext.getBundles();
+                Map<String, Bundle> bySymbolicName = new HashMap<String, Bundle>();
+                for (int i = 0; i < bundles.length; i++) {
+                    bySymbolicName.put(bundles[i].getSymbolicName(), bundles[i]);
+                }
+
+                // holds the bundles we install during this processing
+                List<Bundle> installed = new LinkedList<Bundle>();
 
-            // holds the bundles we install during this processing
-            List<Bundle> installed = new LinkedList<Bundle>();
+                // get all bundles from the startup location and install them
+                requireRestart |= installBundles(slingStartupDir, bySymbolicName, installed, executor);
+                final long installTime = System.currentTimeMillis();
 
-            // get all bundles from the startup location and install them
-            requireRestart |= installBundles(slingStartupDir, bySymbolicName, installed);
+                // start all the newly installed bundles (existing bundles are not started if they are stopped)
+                startBundles(installed);
+                final long endTime = System.currentTimeMillis();
 
-            // start all the newly installed bundles (existing bundles are not started if they are stopped)
-            startBundles(installed);
+                logger.log(Logger.LOG_INFO, "Installed " + installed.size() + " bundles"
+                    + (parallel ? " in parallel" : "") + " in " + (endTime - startTime)
+                    + "ms (copy: " + (copyTime - startTime) + "ms, install: "
+                    + (installTime - copyTime) + "ms, start: " + (endTime - installTime) + "ms)");
+            } finally {
+                if (executor != null) {
+                    executor.shutdown();
+                }
+            }
         }
 
         // due to the upgrade of a framework extension bundle, the framework
@@ -290,8 +329,11 @@ class BootstrapInstaller {
      * Copies the bundles from the given parent location in the jar/war
      * to the startup directory in the sling.home based on the startlevel
      * e.g. {sling.home}/startup/{startLevel}
+     * If an executor is provided, the bundles are copied by the executor
+     * and the pending operations are added to the <code>copyTasks</code>.
      */
-    private void copyBundles(File slingStartupDir, String parent, int startLevel) {
+    private void copyBundles(File slingStartupDir, String parent, int startLevel,
+            final ExecutorService executor, final List<Future<?>> copyTasks) {
 
         // set default start level
         if (startLevel < 0) {
@@ -303,15 +345,16 @@ class BootstrapInstaller {
         Iterator<String> res = resourceProvider.getChildren(parent);
         while (res.hasNext()) {
             // path to the next resource
-            String path = res.next();
+            final String path = res.next();
 
             if (DirectoryUtil.isBundle(path)) {
                 // try to access the bundle file, ignore if not possible
-                InputStream ins = resourceProvider.getResourceAsStream(path);
+                final InputStream ins = resourceProvider.getResourceAsStream(path);
                 if (ins == null) {
                     continue;
                 }
 
+                boolean pending = false;
                 try {
                     // ensure we have a directory for the startlevel only when
                     // needed
@@ -321,26 +364,61 @@ class BootstrapInstaller {
                     }
 
                     // copy over the bundle based on the startlevel
-                    String bundleFileName = extractFileName(path);
-                    File bundleFile = new File(startUpLevelDir, bundleFileName);
-                    try {
-                        copyStreamToFile(ins, bundleFile);
-                    } catch (IOException e) {
-                        // should this fail here or just log a warning?
-                        throw new RuntimeException("Failure copying file from "
-                            + path + " to startup dir (" + startUpLevelDir
-                            + ") and name (" + bundleFileName + "): " + e, e);
+                    final File bundleFile = new File(startUpLevelDir, extractFileName(path));
+                    if (executor == null) {
+                        copyBundle(path, ins, bundleFile, false);
+                    } else {
+                        copyTasks.add(executor.submit(new Runnable() {
+                            public void run() {
+                                copyBundle(path, ins, bundleFile, true);
+                            }
+                        }));
+                        pending = true;
                     }
                 } finally {
-                    try {
-                        ins.close();
-                    } catch (IOException ignore) {
+                    if (!pending) {
+                        try {
+                            ins.close();
+                        } catch (IOException ignore) {
+                        }
                     }
                 }
             }
         }
     }
 
+    /**
+     * Copies a bundle from the resource (jar/war) to the startup directory
+     * and closes the stream.
+     * @param path The path of the resource
+     * @param ins The stream of the resource
+     * @param bundleFile The file in the startup directory
+     * @param onlyIfChanged Whether the file should only be written if its
+     *            contents differ from the resource.
+     */
+    private void copyBundle(final String path, final InputStream ins,
+            final File bundleFile, final boolean onlyIfChanged) {
+        try {
+            if (onlyIfChanged) {
+                if (!copyStreamToFileIfChanged(ins, bundleFile)) {
+                    logger.log(Logger.LOG_DEBUG, "Bundle " + bundleFile + " is unchanged");
+                }
+            } else {
+                copyStreamToFile(ins, bundleFile);
+            }
+        } catch (IOException e) {
+            // should this fail here or just log a warning?
+            throw new RuntimeException("Failure copying file from "
+                + path + " to startup dir (" + bundleFile.getParentFile()
+                + ") and name (" + bundleFile.getName() + "): " + e, e);
+        } finally {
+            try {
+                ins.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
     /**
      * Copies a stream from the resource (jar/war) to a file
      * @param fromStream
@@ -366,6 +444,57 @@ class BootstrapInstaller {
         }
     }
 
+    /**
+     * Copies a stream from the resource (jar/war) to a file unless the file
+     * already exists with the same size and checksum.
+     * @param fromStream
+     * @param toFile
+     * @return <code>true</code> if the file has been written.
+     */
+    static boolean copyStreamToFileIfChanged(InputStream fromStream, File toFile) throws IOException {
+        if (fromStream == null || toFile == null) {
+            throw new IllegalArgumentException("fromStream and toFile must not be null");
+        }
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final CRC32 checksum = new CRC32();
+        byte[] buf = new byte[8192];
+        int len;
+        while ((len = fromStream.read(buf)) > 0) {
+            content.write(buf, 0, len);
+            checksum.update(buf, 0, len);
+        }
+        if (toFile.exists() && toFile.length() == content.size()
+            && getChecksum(toFile) == checksum.getValue()) {
+            return false;
+        }
+        // overwrite
+        OutputStream out = new FileOutputStream(toFile);
+        try {
+            content.writeTo(out);
+        } finally {
+            out.close();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the CRC-32 checksum of the file.
+     */
+    private static long getChecksum(final File file) throws IOException {
+        final CRC32 checksum = new CRC32();
+        final InputStream ins = new FileInputStream(file);
+        try {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = ins.read(buf)) > 0) {
+                checksum.update(buf, 0, len);
+            }
+        } finally {
+            ins.close();
+        }
+        return checksum.getValue();
+    }
+
     /**
      * Install the Bundles from files found in startup directory under the
      * level directories, this will only install bundles which are new or updated
@@ -379,13 +508,16 @@ class BootstrapInstaller {
      *            considered for installation.
      * @param installed The list of Bundles installed by this method. Each
      *            Bundle successfully installed is added to this list.
+     * @param executor The executor to install the Bundles in parallel or
+     *            <code>null</code> to install them one after the other.
      *
      * @return <code>true</code> if a system bundle fragment was updated which
      *      requires the framework to restart.
      */
     private boolean installBundles(final File slingStartupDir,
             final Map<String, Bundle> currentBundles,
-            final List<Bundle> installed) {
+            final List<Bundle> installed,
+            final ExecutorService executor) {
 
         // get the start level service (if possible) so we can set the initial start level
         ServiceReference ref = bundleContext.getServiceReference(StartLevel.class.getName());
@@ -396,6 +528,10 @@ class BootstrapInstaller {
         boolean requireRestart = false;
         try {
             File[] directories = slingStartupDir.listFiles(DirectoryUtil.DIRECTORY_FILTER);
+            if (executor != null) {
+                return installBundlesParallel(directories, currentBundles,
+                    installed, startLevelService, executor);
+            }
             for (File levelDir : directories) {
                 // get startlevel from dir name
                 String dirName = levelDir.getName();
@@ -424,6 +560,72 @@ class BootstrapInstaller {
         return requireRestart;
     }
 
+    /**
+     * Install the Bundles from the start level directories concurrently.
+     * The manifests of all Bundles are read in parallel. The Bundles are
+     * then installed start level by start level: all Bundles of a start
+     * level are installed in parallel and the next start level is not
+     * processed before all of them are installed.
+     *
+     * @return <code>true</code> if a system bundle fragment was updated which
+     *      requires the framework to restart.
+     */
+    private boolean installBundlesParallel(final File[] directories,
+            final Map<String, Bundle> currentBundles,
+            final List<Bundle> installed,
+            final StartLevel startLevelService,
+            final ExecutorService executor) {
+        // sort the bundle files by start level and read the manifests
+        final SortedMap<Integer, List<File>> levels = new TreeMap<Integer, List<File>>();
+        final Map<File, Future<Manifest>> manifests = new HashMap<File, Future<Manifest>>();
+        for (File levelDir : directories) {
+            int startLevel;
+            try {
+                startLevel = Integer.decode(levelDir.getName());
+            } catch (NumberFormatException e) {
+                startLevel = 0;
+            }
+            List<File> levelFiles = levels.get(startLevel);
+            if (levelFiles == null) {
+                levelFiles = new ArrayList<File>();
+                levels.put(startLevel, levelFiles);
+            }
+            for (final File bundleFile : levelDir.listFiles(DirectoryUtil.BUNDLE_FILE_FILTER)) {
+                levelFiles.add(bundleFile);
+                manifests.put(bundleFile, executor.submit(new Callable<Manifest>() {
+                    public Manifest call() {
+                        return getManifest(bundleFile);
+                    }
+                }));
+            }
+        }
+
+        boolean requireRestart = false;
+        for (final Map.Entry<Integer, List<File>> level : levels.entrySet()) {
+            final int startLevel = level.getKey();
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            final List<List<Bundle>> installedBundles = new ArrayList<List<Bundle>>();
+            for (final File bundleFile : level.getValue()) {
+                final Manifest manifest = getResult(manifests.get(bundleFile));
+                final List<Bundle> bundleInstalled = new ArrayList<Bundle>(1);
+                installedBundles.add(bundleInstalled);
+                results.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        return installBundle(bundleFile, manifest, startLevel,
+                            currentBundles, bundleInstalled, startLevelService);
+                    }
+                }));
+            }
+            // wait for all bundles of this start level, keeping the order
+            for (int i = 0; i < results.size(); i++) {
+                requireRestart |= getResult(results.get(i));
+                installed.addAll(installedBundles.get(i));
+            }
+        }
+
+        return requireRestart;
+    }
+
     /**
      * @param bundleJar the jar file for the bundle to install
      * @param startLevel the start level to use for this bundle
@@ -443,7 +645,30 @@ class BootstrapInstaller {
             final List<Bundle> installed,
             final StartLevel startLevelService) {
         // get the manifest for the bundle information
-        Manifest manifest = getManifest(bundleJar);
+        return installBundle(bundleJar, getManifest(bundleJar), startLevel,
+            currentBundles, installed, startLevelService);
+    }
+
+    /**
+     * @param bundleJar the jar file for the bundle to install
+     * @param manifest the manifest of the jar file or <code>null</code> if
+     *            it could not be read
+     * @param startLevel the start level to use for this bundle
+     * @param currentBundles The currently installed Bundles indexed by their
+     *            Bundle location.
+     * @param installed The list of Bundles installed by this method. Each
+     *            Bundle successfully installed is added to this list.
+     * @param startLevelService the service which sets the start level
+     *
+     * @return <code>true</code> if a system bundle fragment was updated which
+     *      requires the framework to restart.
+     */
+    private boolean installBundle(final File bundleJar,
+            final Manifest manifest,
+            final int startLevel,
+            final Map<String, Bundle> currentBundles,
+            final List<Bundle> installed,
+            final StartLevel startLevelService) {
         if (manifest == null) {
             logger.log(Logger.LOG_ERROR, "Ignoring " + bundleJar
                 + ": Cannot read manifest");
@@ -548,6 +773,46 @@ class BootstrapInstaller {
 
     }
 
+    /**
+     * Creates the executor for the parallel installation.
+     */
+    private ExecutorService createExecutor() {
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger counter = new AtomicInteger();
+
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r, "Apache Sling Bootstrap Installer #"
+                    + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Waits for the result of the future and rethrows any runtime exception
+     * thrown by the task.
+     */
+    private static <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while installing bundles", ie);
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
     private int getStartLevel(final String path) {
         final String name = path.substring(path.lastIndexOf('/') + 1);
         try {
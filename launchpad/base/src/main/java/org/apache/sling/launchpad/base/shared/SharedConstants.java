@@ -91,6 +91,15 @@ public interface SharedConstants {
      */
     public static final String FORCE_PACKAGE_BUNDLE_LOADING = "org.apache.sling.launchpad.force.package.bundle.loading";
 
+    /**
+     * True or false value which controls whether sling copies, analyzes and
+     * installs the bundles from the startup folder concurrently. Bundles are
+     * still installed and started start level by start level. <br/>
+     * The default is to install the bundles one after the other.
+     * @since 2.4.1
+     */
+    public static final String PARALLEL_BUNDLE_INSTALLATION = "org.apache.sling.launchpad.parallel.bundle.installation";
+
 
     /**
      * The name of the configuration property defining the Sling properties file
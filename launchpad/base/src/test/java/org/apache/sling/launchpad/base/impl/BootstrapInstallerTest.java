@@ -20,6 +20,7 @@ package org.apache.sling.launchpad.base.impl;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -168,6 +169,49 @@ public class BootstrapInstallerTest {
         }
     }
 
+    /**
+     * Test method for
+     * {@link org.apache.sling.launchpad.base.impl.BootstrapInstaller#copyStreamToFileIfChanged(java.io.InputStream, java.io.File)}
+     * .
+     */
+    @Test
+    public void testCopyStreamToFileIfChanged() throws IOException {
+        File to = File.createTempFile("bootstrap", ".jar");
+        to.deleteOnExit();
+        assertTrue(to.delete());
+
+        InputStream stream = getClass().getClassLoader().getResourceAsStream("holaworld.jar");
+        assertNotNull(stream);
+        try {
+            assertTrue(BootstrapInstaller.copyStreamToFileIfChanged(stream, to));
+        } finally {
+            stream.close();
+        }
+        final long length = to.length();
+        assertTrue(length > 0);
+
+        // same contents: the file is not written again
+        stream = getClass().getClassLoader().getResourceAsStream("holaworld.jar");
+        try {
+            assertFalse(BootstrapInstaller.copyStreamToFileIfChanged(stream, to));
+        } finally {
+            stream.close();
+        }
+        assertEquals(length, to.length());
+
+        // different contents: the file is overwritten
+        stream = new ByteArrayInputStream(new byte[] { 1, 2, 3 });
+        assertTrue(BootstrapInstaller.copyStreamToFileIfChanged(stream, to));
+        assertEquals(3, to.length());
+
+        try {
+            BootstrapInstaller.copyStreamToFileIfChanged(null, to);
+            fail("should have thrown exception");
+        } catch (IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
     /**
      * Test method for
      * {@link org.apache.sling.launchpad.base.impl.BootstrapInstaller#isBlank(java.lang.String)}
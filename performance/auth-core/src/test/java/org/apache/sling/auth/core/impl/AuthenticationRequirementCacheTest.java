@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.auth.core.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+import org.apache.sling.performance.annotation.PerformanceTest;
+import org.junit.Before;
+
+/**
+ * Measures finding the authentication requirement of requests with 1000
+ * configured requirements.
+ */
+public class AuthenticationRequirementCacheTest {
+
+    private static final int REQUIREMENTS = 1000;
+
+    private static final int LOOKUPS = 10000;
+
+    private PathBasedHolderCache<AuthenticationRequirementHolder> cache;
+
+    private AuthenticationRequirementHolder[] holders;
+
+    private HttpServletRequest[] requests;
+
+    private String[] paths;
+
+    @Before
+    public void setUp() {
+        holders = new AuthenticationRequirementHolder[REQUIREMENTS];
+        for (int i = 0; i < REQUIREMENTS; i++) {
+            final String path = "/content/site" + (i % 10) + "/section" + (i % 100) + "/page" + i;
+            if (i % 50 == 0) {
+                holders[i] = new AuthenticationRequirementHolder("//host" + (i % 3) + ".example.com" + path, true, null);
+            } else {
+                holders[i] = new AuthenticationRequirementHolder(path, (i % 2) == 0, null);
+            }
+        }
+
+        cache = new PathBasedHolderCache<AuthenticationRequirementHolder>();
+        cache.addHolder(new AuthenticationRequirementHolder("/", false, null));
+        for (final AuthenticationRequirementHolder holder : holders) {
+            cache.addHolder(holder);
+        }
+
+        requests = new HttpServletRequest[] {
+            new Request("http", "localhost", 8080),
+            new Request("http", "host1.example.com", 80),
+            new Request("https", "host2.example.com", 443) };
+
+        paths = new String[REQUIREMENTS];
+        for (int i = 0; i < REQUIREMENTS; i++) {
+            paths[i] = "/content/site" + (i % 10) + "/section" + (i % 100) + "/page" + i + "/jcr:content.html";
+        }
+        // build the lookup structure
+        cache.findApplicableHolder(requests[0], "/");
+    }
+
+    @PerformanceTest
+    public void findRequirement10000Requests() {
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (cache.findApplicableHolder(requests[i % requests.length], paths[i % paths.length]) == null) {
+                throw new IllegalStateException("Missing requirement for " + paths[i % paths.length]);
+            }
+        }
+    }
+
+    @PerformanceTest
+    public void registerRequirementAndFind() {
+        final AuthenticationRequirementHolder holder = holders[0];
+        cache.removeHolder(holder);
+        cache.addHolder(holder);
+        cache.findApplicableHolder(requests[0], paths[0]);
+    }
+
+    /**
+     * Request providing just scheme, server name and port.
+     */
+    private static final class Request extends HttpServletRequestWrapper {
+
+        private final String scheme;
+
+        private final String serverName;
+
+        private final int serverPort;
+
+        Request(final String scheme, final String serverName, final int serverPort) {
+            super((HttpServletRequest) Proxy.newProxyInstance(
+                Request.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                new InvocationHandler() {
+
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }));
+            this.scheme = scheme;
+            this.serverName = serverName;
+            this.serverPort = serverPort;
+        }
+
+        @Override
+        public String getScheme() {
+            return scheme;
+        }
+
+        @Override
+        public String getServerName() {
+            return serverName;
+        }
+
+        @Override
+        public int getServerPort() {
+            return serverPort;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.auth.form.impl;
+
+import java.io.File;
+
+import org.apache.sling.performance.annotation.PerformanceTest;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Measures validating form authentication cookies, once for cookies
+ * validated recently and once for more cookies than are cached.
+ */
+public class TokenStoreTest {
+
+    private static final int VALIDATIONS = 10000;
+
+    private static final int COOKIES = 1000;
+
+    private File tokenFile;
+
+    private TokenStore store;
+
+    private String[] cookies;
+
+    @Before
+    public void setUp() throws Exception {
+        tokenFile = File.createTempFile("tokens", ".bin");
+        tokenFile.delete();
+        store = new TokenStore(tokenFile, 60 * 60 * 1000L, true);
+
+        final long expires = System.currentTimeMillis() + 60 * 60 * 1000L;
+        cookies = new String[COOKIES];
+        for (int i = 0; i < COOKIES; i++) {
+            cookies[i] = store.encode(expires, "user" + i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        tokenFile.delete();
+        new File(tokenFile + ".tmp").delete();
+    }
+
+    @PerformanceTest
+    public void validate10000RecentCookies() {
+        for (int i = 0; i < VALIDATIONS; i++) {
+            validate(cookies[i % 100]);
+        }
+    }
+
+    @PerformanceTest
+    public void validate10000Cookies() {
+        for (int i = 0; i < VALIDATIONS; i++) {
+            validate(cookies[i % COOKIES]);
+        }
+    }
+
+    @PerformanceTest
+    public void encode10000Cookies() throws Exception {
+        final long expires = System.currentTimeMillis() + 60 * 60 * 1000L;
+        for (int i = 0; i < VALIDATIONS; i++) {
+            store.encode(expires, "user");
+        }
+    }
+
+    private void validate(final String cookie) {
+        if (!store.isValid(cookie)) {
+            throw new IllegalStateException("Invalid cookie " + cookie);
+        }
+    }
+}
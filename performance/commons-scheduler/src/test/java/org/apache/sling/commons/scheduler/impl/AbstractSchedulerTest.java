@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.commons.scheduler.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Hashtable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.sling.commons.threads.ModifiableThreadPoolConfig;
+import org.apache.sling.commons.threads.ThreadPool;
+import org.apache.sling.commons.threads.ThreadPoolConfig;
+import org.apache.sling.commons.threads.ThreadPoolManager;
+import org.junit.After;
+import org.junit.Before;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+/**
+ * Base class measuring the throughput of scheduling, firing and
+ * unscheduling jobs with either the Quartz engine or the simple engine.
+ */
+public abstract class AbstractSchedulerTest {
+
+    private static final int JOBS = 100;
+
+    private final boolean simpleEngine;
+
+    private QuartzScheduler scheduler;
+
+    private ExecutorService executor;
+
+    private ComponentContext context;
+
+    protected AbstractSchedulerTest(boolean simpleEngine) {
+        this.simpleEngine = simpleEngine;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(10);
+        final ThreadPool pool = new ExecutorThreadPool(executor);
+        final ThreadPoolManager tpm = mock(ThreadPoolManager.class);
+        when(tpm.get(null)).thenReturn(pool);
+
+        final Hashtable<String, Object> props = new Hashtable<String, Object>();
+        props.put("simpleEngine", simpleEngine);
+        final BundleContext bundleContext = mock(BundleContext.class);
+        context = mock(ComponentContext.class);
+        when(context.getProperties()).thenReturn(props);
+        when(context.getBundleContext()).thenReturn(bundleContext);
+
+        scheduler = new QuartzScheduler();
+        scheduler.threadPoolManager = tpm;
+        scheduler.activate(context);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.deactivate(context);
+        executor.shutdownNow();
+    }
+
+    protected void schedulePeriodicAndUnschedule() throws Exception {
+        final Runnable job = new Runnable() {
+            public void run() {
+                // nothing to do
+            }
+        };
+        for (int i = 0; i < JOBS; i++) {
+            scheduler.addPeriodicJob("job" + i, job, null, 3600, false);
+        }
+        for (int i = 0; i < JOBS; i++) {
+            scheduler.removeJob("job" + i);
+        }
+    }
+
+    protected void fireOnce() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(JOBS);
+        final Runnable job = new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < JOBS; i++) {
+            scheduler.fireJobAt(null, job, null, new Date());
+        }
+        latch.await();
+    }
+
+    /**
+     * Thread pool delegating to an executor service.
+     */
+    private static final class ExecutorThreadPool implements ThreadPool {
+
+        private final ExecutorService executor;
+
+        private final ThreadPoolConfig config = new ModifiableThreadPoolConfig();
+
+        ExecutorThreadPool(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        public void execute(Runnable runnable) {
+            executor.execute(runnable);
+        }
+
+        public <T> Future<T> submit(Callable<T> callable) {
+            return executor.submit(callable);
+        }
+
+        public Future<?> submit(Runnable runnable) {
+            return executor.submit(runnable);
+        }
+
+        public String getName() {
+            return "performance";
+        }
+
+        public ThreadPoolConfig getConfiguration() {
+            return config;
+        }
+    }
+}
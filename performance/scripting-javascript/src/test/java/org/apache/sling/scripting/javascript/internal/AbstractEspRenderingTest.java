@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.scripting.javascript.internal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.api.scripting.SlingScript;
+import org.apache.sling.api.scripting.SlingScriptHelper;
+import org.apache.sling.scripting.javascript.helper.SlingWrapFactory;
+import org.junit.Before;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ImporterTopLevel;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Base class measuring the throughput of rendering an ESP template
+ * with the Rhino script engine.
+ */
+public abstract class AbstractEspRenderingTest {
+
+    private static final int RENDERINGS = 100;
+
+    protected static final String SCRIPT_PATH = "/apps/performance/html.esp";
+
+    protected static final String TEMPLATE =
+        "<html><head><title><%= title %></title></head><body>\n"
+        + "<h1><%= title %></h1>\n"
+        + "<ul>\n"
+        + "<% for (var i = 0; i < items.length; i++) { %>\n"
+        + "  <li class=\"<%= i % 2 == 0 ? 'even' : 'odd' %>\"><%= items[i] %></li>\n"
+        + "<% } %>\n"
+        + "</ul>\n"
+        + "</body></html>\n";
+
+    protected ScriptEngine engine;
+
+    private StringWriter output;
+
+    private ScriptContext scriptContext;
+
+    @Before
+    public void setUp() throws Exception {
+        engine = new BenchmarkRhinoJavaScriptEngineFactory().getScriptEngine();
+
+        final String[] items = new String[50];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = "Item " + i;
+        }
+
+        final Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn(SCRIPT_PATH);
+        final SlingScript script = mock(SlingScript.class);
+        when(script.getScriptResource()).thenReturn(resource);
+        final SlingScriptHelper helper = mock(SlingScriptHelper.class);
+        when(helper.getScript()).thenReturn(script);
+
+        output = new StringWriter();
+        final Bindings bindings = new SimpleBindings();
+        bindings.put(SlingBindings.SLING, helper);
+        bindings.put("response", new ScriptResponse(new PrintWriter(output)));
+        bindings.put("title", "Performance");
+        bindings.put("items", items);
+        scriptContext = new SimpleScriptContext();
+        scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+
+        prepare();
+    }
+
+    /**
+     * Hook called at the end of the set up.
+     */
+    protected void prepare() throws Exception {
+        // nothing to do by default
+    }
+
+    /**
+     * Render the template {@value #RENDERINGS} times.
+     */
+    protected void render() throws Exception {
+        for (int i = 0; i < RENDERINGS; i++) {
+            output.getBuffer().setLength(0);
+            render(scriptContext);
+        }
+    }
+
+    protected abstract void render(ScriptContext ctx) throws Exception;
+
+    protected StringReader getTemplate() {
+        return new StringReader(TEMPLATE);
+    }
+
+    /**
+     * The response object providing the writer for the ESP output.
+     */
+    public static final class ScriptResponse {
+
+        private final PrintWriter writer;
+
+        public ScriptResponse(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        public PrintWriter getWriter() {
+            return writer;
+        }
+    }
+
+    /**
+     * Factory creating the engines without an OSGi framework.
+     */
+    private static final class BenchmarkRhinoJavaScriptEngineFactory extends RhinoJavaScriptEngineFactory {
+
+        private final SlingWrapFactory wrapFactory = new SlingWrapFactory();
+
+        @Override
+        public ScriptEngine getScriptEngine() {
+            final Context rhinoContext = Context.enter();
+            try {
+                final Scriptable scope = rhinoContext.initStandardObjects(new ImporterTopLevel(), false);
+                return new RhinoJavaScriptEngine(this, scope);
+            } finally {
+                Context.exit();
+            }
+        }
+
+        @Override
+        SlingWrapFactory getWrapFactory() {
+            return wrapFactory;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.scripting.jsp.jasper.runtime;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.jsp.JspWriter;
+import javax.servlet.jsp.PageContext;
+import javax.servlet.jsp.tagext.BodyContent;
+
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Base class measuring the rendering of pages with deeply nested body
+ * tags through the page context, the JSP writer and the body contents.
+ * The number of allocated bytes and garbage collections is reported
+ * when the test is finished.
+ */
+public abstract class AbstractBodyContentTest {
+
+    private static final int RENDERINGS = 1000;
+
+    /** The nesting depth of the body tags. */
+    private static final int DEPTH = 10;
+
+    /** The number of text blocks written by each body tag. */
+    private static final int BLOCKS = 20;
+
+    private static final String TEXT = "<div class=\"component\">Lorem ipsum dolor sit amet, consectetur adipisici elit</div>\n";
+
+    private final int poolSize;
+
+    private JspFactoryImpl factory;
+
+    private HttpJspBase page;
+
+    private HttpServletRequest request;
+
+    private HttpServletResponse response;
+
+    private long allocatedBytes;
+
+    private long gcCount;
+
+    protected AbstractBodyContentTest(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ServletContext servletContext = mock(ServletContext.class);
+        when(servletContext.getAttribute(JspApplicationContextImpl.class.getName()))
+            .thenReturn(new JspApplicationContextImpl());
+        final ServletConfig config = mock(ServletConfig.class);
+        when(config.getServletContext()).thenReturn(servletContext);
+
+        page = new BenchmarkPage();
+        page.init(config);
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        when(response.getWriter()).thenReturn(new PrintWriter(new NullWriter()));
+
+        factory = new JspFactoryImpl(poolSize);
+        allocatedBytes = 0;
+        gcCount = getGcCount();
+    }
+
+    @After
+    public void tearDown() {
+        System.out.println(getClass().getSimpleName() + ": "
+            + (allocatedBytes / 1024) + " KB allocated by the rendering thread, "
+            + (getGcCount() - gcCount) + " garbage collections");
+    }
+
+    protected void render() throws Exception {
+        final long start = getAllocatedBytes();
+        for (int i = 0; i < RENDERINGS; i++) {
+            final PageContext pageContext = factory.getPageContext(page, request, response, null, false, 8192, true);
+            try {
+                renderBody(pageContext, DEPTH);
+            } finally {
+                factory.releasePageContext(pageContext);
+            }
+        }
+        if (start >= 0) {
+            allocatedBytes += getAllocatedBytes() - start;
+        }
+    }
+
+    /**
+     * Render a body tag like a generated servlet: push a body content,
+     * evaluate the body (including the nested tags) and write the body
+     * content to the enclosing writer.
+     */
+    private void renderBody(final PageContext pageContext, final int depth) throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        final BodyContent body = pageContext.pushBody();
+        for (int i = 0; i < BLOCKS; i++) {
+            body.write(TEXT);
+        }
+        renderBody(pageContext, depth - 1);
+        final JspWriter out = pageContext.popBody();
+        body.writeOut(out);
+    }
+
+    private static long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    public static final class BenchmarkPage extends HttpJspBase {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void _jspService(HttpServletRequest request, HttpServletResponse response) {
+            // not used
+        }
+    }
+
+    private static final class NullWriter extends Writer {
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            // discard
+        }
+
+        @Override
+        public void flush() {
+            // nothing to do
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.scripting.jsp.jasper.runtime;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.jsp.tagext.Tag;
+import javax.servlet.jsp.tagext.TagSupport;
+
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Base class measuring the throughput of the tag handler pools while
+ * rendering a tag heavy page concurrently. The same number of page
+ * renderings is split among 1, 8 or 32 threads.
+ */
+public abstract class AbstractTagHandlerPoolTest {
+
+    private static final int RENDERINGS = 3200;
+
+    /** The number of different tags (one pool per tag) of the page. */
+    private static final int POOLS = 10;
+
+    /** How often each tag is used on the page. */
+    private static final int TAGS_PER_POOL = 5;
+
+    private final String poolClassName;
+
+    private TagHandlerPool[] pools;
+
+    private ExecutorService executor;
+
+    protected AbstractTagHandlerPoolTest(String poolClassName) {
+        this.poolClassName = poolClassName;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final ServletContext servletContext = mock(ServletContext.class);
+        final ServletConfig config = mock(ServletConfig.class);
+        when(config.getServletContext()).thenReturn(servletContext);
+        when(config.getInitParameter(TagHandlerPool.OPTION_TAGPOOL)).thenReturn(poolClassName);
+
+        pools = new TagHandlerPool[POOLS];
+        for (int i = 0; i < POOLS; i++) {
+            pools[i] = TagHandlerPool.getTagHandlerPool(config);
+        }
+        executor = Executors.newFixedThreadPool(32);
+    }
+
+    @After
+    public void tearDown() {
+        for (final TagHandlerPool pool : pools) {
+            pool.release();
+        }
+        executor.shutdownNow();
+    }
+
+    protected void render(final int threads) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(threads);
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(new Runnable() {
+
+                public void run() {
+                    try {
+                        for (int i = 0; i < RENDERINGS / threads; i++) {
+                            renderPage();
+                        }
+                    } catch (final Exception e) {
+                        failure.set(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        latch.await();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Render the page like a generated servlet: each tag contains
+     * a nested tag of the same type.
+     */
+    private void renderPage() throws Exception {
+        for (int n = 0; n < TAGS_PER_POOL; n++) {
+            for (final TagHandlerPool pool : pools) {
+                final Tag outer = pool.get(BenchmarkTag.class);
+                final Tag inner = pool.get(BenchmarkTag.class);
+                inner.setParent(outer);
+                pool.reuse(inner);
+                pool.reuse(outer);
+            }
+        }
+    }
+
+    public static final class BenchmarkTag extends TagSupport {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.scripting.jsp.jasper.runtime;
+
+import org.apache.sling.performance.annotation.PerformanceTest;
+
+/**
+ * Tag handler pool performance using the default tag handler pool synchronizing access.
+ */
+public class SynchronizedTagHandlerPoolTest extends AbstractTagHandlerPoolTest {
+
+    public SynchronizedTagHandlerPoolTest() {
+        super(TagHandlerPool.class.getName());
+    }
+
+    @PerformanceTest
+    public void render3200PagesWith1Thread() throws Exception {
+        render(1);
+    }
+
+    @PerformanceTest
+    public void render3200PagesWith8Threads() throws Exception {
+        render(8);
+    }
+
+    @PerformanceTest
+    public void render3200PagesWith32Threads() throws Exception {
+        render(32);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jcr.NamespaceRegistry;
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import junitx.util.PrivateAccessor;
+
+import org.apache.sling.api.SlingConstants;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestProgressTracker;
+import org.apache.sling.api.resource.QueriableResourceProvider;
+import org.apache.sling.api.resource.ResourceProvider;
+import org.apache.sling.api.resource.ResourceProviderFactory;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.commons.testing.jcr.RepositoryUtil;
+import org.apache.sling.jcr.resource.JcrResourceConstants;
+import org.apache.sling.jcr.resource.internal.helper.jcr.JcrResourceProviderFactory;
+import org.apache.sling.performance.AbstractRepositoryTest;
+import org.apache.sling.resourceresolver.impl.ResourceResolverFactoryActivator;
+import org.apache.sling.resourceresolver.impl.ResourceResolverFactoryImpl;
+import org.apache.sling.resourceresolver.impl.mapping.MapEntries;
+import org.apache.sling.resourceresolver.impl.mapping.Mapping;
+import org.apache.sling.servlets.post.PostOperation;
+import org.apache.sling.servlets.post.PostResponse;
+import org.apache.sling.servlets.post.SlingPostConstants;
+import org.apache.sling.servlets.post.impl.helper.DateParser;
+import org.junit.After;
+import org.junit.Before;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * Base class measuring the creation of content through the POST
+ * servlet operations. Each test invocation creates {@link #ITEMS}
+ * nodes with a few properties in a repository. The request processing
+ * of the engine and the authentication are not part of the measurement.
+ */
+public abstract class AbstractPostTest extends AbstractRepositoryTest {
+
+    /** The number of nodes created per test invocation. */
+    protected static final int ITEMS = 100;
+
+    private MapEntries mapEntries;
+
+    private ResourceResolver resourceResolver;
+
+    private Node rootNode;
+
+    private String rootPath;
+
+    private int invocation;
+
+    protected ModifyOperation modifyOperation;
+
+    protected Map<String, PostOperation> operations;
+
+    @Before
+    public void setUp() throws Exception {
+        RepositoryUtil.registerNodeType(getSession(),
+                this.getClass().getResourceAsStream("/SLING-INF/nodetypes/folder.cnd"));
+        RepositoryUtil.registerNodeType(getSession(),
+                this.getClass().getResourceAsStream("/SLING-INF/nodetypes/resource.cnd"));
+        RepositoryUtil.registerNodeType(getSession(),
+                this.getClass().getResourceAsStream("/SLING-INF/nodetypes/vanitypath.cnd"));
+        RepositoryUtil.registerNodeType(getSession(),
+                this.getClass().getResourceAsStream("/SLING-INF/nodetypes/mapping.cnd"));
+
+        rootPath = "/test" + System.currentTimeMillis();
+        rootNode = getSession().getRootNode().addNode(rootPath.substring(1), "nt:unstructured");
+        session.save();
+
+        resourceResolver = createResourceResolver(session);
+
+        modifyOperation = new ModifyOperation();
+        modifyOperation.setDateParser(new DateParser());
+        operations = new HashMap<String, PostOperation>();
+        operations.put(SlingPostConstants.OPERATION_MODIFY, modifyOperation);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (mapEntries != null) {
+            mapEntries.dispose();
+        }
+        if (rootNode != null) {
+            rootNode.remove();
+            session.save();
+        }
+    }
+
+    /**
+     * Returns the path of the node created by the operation.
+     */
+    protected String nextPath(final int item) {
+        return rootPath + "/run" + invocation + "/item" + item;
+    }
+
+    /**
+     * Returns the request parameters of the operation.
+     */
+    protected JSONObject createParams(final int item) throws Exception {
+        final JSONObject params = new JSONObject();
+        params.put("jcr:primaryType", "nt:unstructured");
+        params.put("title", "Item " + item);
+        params.put("text", "Some text of item " + item);
+        params.put("count", String.valueOf(item));
+        params.put("count@TypeHint", "Long");
+        return params;
+    }
+
+    /**
+     * Creates the nodes of the next test invocation.
+     */
+    protected void post() throws Exception {
+        invocation++;
+        final Node run = rootNode.addNode("run" + invocation, "nt:unstructured");
+        session.save();
+        doPost();
+        if (!run.hasNode("item" + (ITEMS - 1))) {
+            throw new IllegalStateException("Missing content in " + run.getPath());
+        }
+    }
+
+    protected abstract void doPost() throws Exception;
+
+    protected void checkResponse(final PostResponse response) {
+        if (!response.isSuccessful()) {
+            throw new IllegalStateException("POST failed: " + response.getStatusCode()
+                + " " + response.getStatusMessage(), response.getError());
+        }
+    }
+
+    /**
+     * Creates a request for the root node keeping the request attributes.
+     */
+    protected SlingHttpServletRequest createRequest() {
+        final SlingHttpServletRequest request = mock(SlingHttpServletRequest.class);
+        final RequestProgressTracker tracker = mock(RequestProgressTracker.class);
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        when(request.getResourceResolver()).thenReturn(resourceResolver);
+        when(request.getResource()).thenReturn(resourceResolver.getResource(rootPath));
+        when(request.getRequestProgressTracker()).thenReturn(tracker);
+        when(request.getAttribute(anyString())).thenAnswer(new Answer<Object>() {
+
+            public Object answer(InvocationOnMock invocation) {
+                return attributes.get(invocation.getArguments()[0]);
+            }
+        });
+        doAnswer(new Answer<Object>() {
+
+            public Object answer(InvocationOnMock invocation) {
+                final Object[] args = invocation.getArguments();
+                if (args[1] == null) {
+                    attributes.remove(args[0]);
+                } else {
+                    attributes.put((String) args[0], args[1]);
+                }
+                return null;
+            }
+        }).when(request).setAttribute(anyString(), any());
+        return request;
+    }
+
+    private ResourceResolver createResourceResolver(final Session session) throws Exception {
+        ResourceResolverFactoryActivator activator = new ResourceResolverFactoryActivator();
+
+        JcrResourceProviderFactory providerFactory = new JcrResourceProviderFactory();
+        PrivateAccessor.setField(providerFactory, "repository", getRepository());
+
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(Constants.SERVICE_ID, -1l);
+        props.put(ResourceProviderFactory.PROPERTY_REQUIRED, true);
+        props.put(ResourceProvider.ROOTS, "/");
+        props.put(QueriableResourceProvider.LANGUAGES, new String[] { "xpath", "sql" });
+
+        try {
+            PrivateAccessor.invoke(activator, "bindResourceProviderFactory", new Class[] { ResourceProviderFactory.class,
+                    Map.class }, new Object[] { providerFactory, props });
+        } catch (Throwable e) {
+            throw new Exception(e);
+        }
+
+        PrivateAccessor.setField(activator, "mappings", new Mapping[] { new Mapping("/-/") });
+        PrivateAccessor.setField(activator, "mapRoot", "/etc/map");
+        ResourceResolverFactoryImpl resFac = new ResourceResolverFactoryImpl(activator);
+
+        mapEntries = new MapEntries(resFac, mock(BundleContext.class), mock(EventAdmin.class));
+        PrivateAccessor.setField(resFac, "mapEntries", mapEntries);
+
+        try {
+            NamespaceRegistry nsr = session.getWorkspace().getNamespaceRegistry();
+            nsr.registerNamespace(SlingConstants.NAMESPACE_PREFIX, JcrResourceConstants.SLING_NAMESPACE_URI);
+        } catch (Exception e) {
+            // don't care for now
+        }
+
+        Map<String, Object> authInfo = Collections.<String, Object> singletonMap(
+                JcrResourceConstants.AUTHENTICATION_INFO_SESSION, session);
+        return resFac.getResourceResolver(authInfo);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONObject;
+import org.apache.sling.performance.annotation.PerformanceTest;
+import org.apache.sling.servlets.post.JSONResponse;
+import org.apache.sling.servlets.post.SlingPostConstants;
+
+/**
+ * Creates the nodes with a single batch operation and a single commit.
+ */
+public class BatchPostTest extends AbstractPostTest {
+
+    @PerformanceTest
+    public void post100ItemBatch() throws Exception {
+        post();
+    }
+
+    @Override
+    protected void doPost() throws Exception {
+        final JSONArray batch = new JSONArray();
+        for (int i = 0; i < ITEMS; i++) {
+            final JSONObject item = new JSONObject();
+            item.put("path", nextPath(i));
+            item.put("params", createParams(i));
+            batch.put(item);
+        }
+
+        final RequestParameter param = mock(RequestParameter.class);
+        when(param.isFormField()).thenReturn(true);
+        when(param.getString()).thenReturn(batch.toString());
+        final SlingHttpServletRequest request = createRequest();
+        when(request.getRequestParameter(SlingPostConstants.RP_BATCH)).thenReturn(param);
+
+        final JSONResponse response = new JSONResponse();
+        new BatchOperation(operations).run(request, response, null);
+        checkResponse(response);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.servlets.post.impl.operations;
+
+import org.apache.sling.performance.annotation.PerformanceTest;
+import org.apache.sling.servlets.post.JSONResponse;
+
+/**
+ * Creates the nodes with one modify operation - and one commit - per node
+ * like clients sending a POST request per node.
+ */
+public class SinglePostTest extends AbstractPostTest {
+
+    @PerformanceTest
+    public void post100Requests() throws Exception {
+        post();
+    }
+
+    @Override
+    protected void doPost() throws Exception {
+        for (int i = 0; i < ITEMS; i++) {
+            final JSONResponse response = new JSONResponse();
+            modifyOperation.run(new BatchItemRequest(createRequest(), nextPath(i), createParams(i)),
+                response, null);
+            checkResponse(response);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.sling.performance.tests;
+
+import java.util.Iterator;
+
+import javax.jcr.Node;
+
+import junit.framework.Assert;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.performance.AbstractRepositoryTest;
+import org.apache.sling.performance.TestHelper;
+import org.junit.After;
+import org.junit.Before;
+
+class ListChildrenWithManyNodesTest extends AbstractRepositoryTest {
+
+    private final TestHelper helper;
+
+    private ResourceResolver resResolver;
+
+    private Node rootNode;
+
+    private String rootPath;
+
+    private final int nodeCount;
+
+    public ListChildrenWithManyNodesTest(TestHelper helper, int nodeCount) {
+        this.helper = helper;
+        this.nodeCount = nodeCount;
+    }
+
+    @After
+    protected void afterSuite() throws Exception {
+        if (helper != null) {
+            helper.dispose();
+        }
+
+        if (rootNode != null) {
+            rootNode.remove();
+        }
+        session.save();
+    }
+
+    @Before
+    protected void beforeSuite() throws Exception {
+        // test data
+        rootPath = "/test" + System.currentTimeMillis();
+        rootNode = getSession().getRootNode().addNode(rootPath.substring(1), JcrConstants.NT_UNSTRUCTURED);
+
+        // creating <nodeCount> nodes with some metadata properties
+        for (int j = 0; j < nodeCount; j++) {
+            Node content = rootNode.addNode("a" + j, JcrConstants.NT_UNSTRUCTURED);
+            content.setProperty("sling:resourceType", "test/page");
+            content.setProperty(JcrConstants.JCR_MIMETYPE, "text/plain");
+            content.setProperty(JcrConstants.JCR_ENCODING, "UTF-8");
+            content.setProperty("title", "Page " + j);
+
+            if (j % 1000 == 0) {
+                session.save();
+            }
+        }
+
+        session.save();
+
+        helper.init(rootPath, session, getRepository());
+
+        resResolver = helper.getResourceResolver();
+    }
+
+    /**
+     * Lists the children using just their names and paths like a
+     * navigation does.
+     */
+    protected void runTest() throws Exception {
+        final Resource root = resResolver.getResource(rootPath);
+        int count = 0;
+        for (Iterator<Resource> children = resResolver.listChildren(root); children.hasNext();) {
+            final Resource child = children.next();
+            if (child.getPath().length() > child.getName().length()) {
+                count++;
+            }
+        }
+        Assert.assertEquals(nodeCount, count);
+    }
+}